@@ -4,6 +4,14 @@ import { parseMap } from './map';
 import { gameDefinition, type LevelDefinition } from './config';
 import { TILE_SIZE } from './constants';
 import { inputBus, type InputDirection } from './inputBus';
+import {
+  getStateStreamUrl,
+  isPelletPresent,
+  POSITION_SCALE,
+  StateStream,
+  type StreamedGameState,
+  type StreamedState,
+} from './stateStream';
 import pelletImageUrl from '../assets/maze/pellet.png';
 import pacmanRightImageUrl from '../assets/maze/pacman/playerRight.png';
 import pacmanLeftImageUrl from '../assets/maze/pacman/playerLeft.png';
@@ -35,6 +43,27 @@ const GHOST_TEXTURE_KEYS = {
   c: 'clyde',
 } as const;
 
+// Textures of the sprites named by the Java engine in the state stream.
+const STREAM_TEXTURE_KEYS: Record<string, string> = {
+  BLINKY: GHOST_TEXTURE_KEYS.b,
+  PINKY: GHOST_TEXTURE_KEYS.s,
+  INKY: GHOST_TEXTURE_KEYS.i,
+  CLYDE: GHOST_TEXTURE_KEYS.c,
+  FRIGHTENED_GHOST: 'ghost-frightened',
+  PACMAN_UP: 'pacman-up',
+  PACMAN_DOWN: 'pacman-down',
+  PACMAN_LEFT: 'pacman-left',
+  PACMAN_RIGHT: 'pacman-right',
+  PACMAN_CLOSED: 'pacman-closed',
+};
+
+const STREAM_MESSAGES: Record<StreamedGameState, string> = {
+  ready: 'READY!',
+  inProgress: '',
+  gameOver: 'GAME OVER',
+  playerWin: 'YOU WIN!',
+};
+
 type GhostId = keyof typeof GHOST_TEXTURE_KEYS;
 type Direction = 'left' | 'right' | 'up' | 'down';
 type GhostMode = 'scatter' | 'chase' | 'frightened';
@@ -122,6 +151,8 @@ export class GameScene extends Phaser.Scene {
   private cursors!: Phaser.Types.Input.Keyboard.CursorKeys;
 
   private pellets = new Map<string, Phaser.GameObjects.Image>();
+  // pellets in map order, which is how the state stream numbers them
+  private pelletOrder: Phaser.GameObjects.Image[] = [];
   private ghosts: GhostEntity[] = [];
 
   private scatterTargets!: Record<GhostId, Phaser.Math.Vector2>;
@@ -146,6 +177,11 @@ export class GameScene extends Phaser.Scene {
   private frightenedTimer = 0;
   private frightenedMultiplier = 0;
 
+  // set when the Java engine runs the game, the scene then only renders its state and sends moves
+  private stateStream: StateStream | null = null;
+  private streamRenderedTick = -1;
+  private streamMessage = '';
+
   constructor() {
     super('game');
   }
@@ -193,10 +229,21 @@ export class GameScene extends Phaser.Scene {
     });
 
     this.updateHud();
-    this.startReadyPhase(2);
+
+    const streamUrl = getStateStreamUrl();
+    if (streamUrl) {
+      this.startStream(streamUrl);
+    } else {
+      this.startReadyPhase(2);
+    }
   }
 
   update(_time: number, delta: number): void {
+    if (this.stateStream) {
+      this.updateFromStream();
+      return;
+    }
+
     const deltaSeconds = delta / 1000;
 
     switch (this.gamePhase) {
@@ -249,6 +296,7 @@ export class GameScene extends Phaser.Scene {
     const pelletLayer = this.add.layer();
 
     this.pellets = new Map();
+    this.pelletOrder = [];
     this.ghosts = [];
 
     this.parsedMap.tiles.forEach((row, rowIndex) => {
@@ -277,6 +325,7 @@ export class GameScene extends Phaser.Scene {
             .setName('pellet');
           pelletLayer.add(pellet);
           this.pellets.set(this.getTileKey(columnIndex, rowIndex), pellet);
+          this.pelletOrder.push(pellet);
         } else if (isPowerPellet(tile)) {
           const powerPellet = this.add
             .image(x + TILE_SIZE / 2, y + TILE_SIZE / 2, 'pellet')
@@ -285,6 +334,7 @@ export class GameScene extends Phaser.Scene {
             .setName('powerPellet');
           pelletLayer.add(powerPellet);
           this.pellets.set(this.getTileKey(columnIndex, rowIndex), powerPellet);
+          this.pelletOrder.push(powerPellet);
         } else if (isGhostTile(tile)) {
           this.spawnGhost(tile, columnIndex, rowIndex, x, y);
         }
@@ -418,9 +468,118 @@ export class GameScene extends Phaser.Scene {
   }
 
   private handleExternalDirection(direction: InputDirection): void {
+    if (this.stateStream) {
+      this.stateStream.sendDirection(direction);
+      return;
+    }
     this.queuedDirection = direction;
   }
 
+  private startStream(url: string): void {
+    const stream = new StateStream(url);
+    this.stateStream = stream;
+    this.streamRenderedTick = -1;
+    this.showStreamMessage('CONNECTING...');
+    this.events.once(Phaser.Scenes.Events.SHUTDOWN, () => stream.close());
+  }
+
+  private updateFromStream(): void {
+    const stream = this.stateStream!;
+    this.sendStreamInput(stream);
+
+    const state = stream.getLatest();
+    if (!state || stream.isClosed()) {
+      this.showStreamMessage(stream.isClosed() ? 'DISCONNECTED' : 'CONNECTING...');
+      if (!state) {
+        return;
+      }
+    }
+
+    this.renderStreamedEntities(stream, state, stream.getPrevious(), stream.getInterpolation(performance.now()));
+
+    if (state.tick === this.streamRenderedTick) {
+      return;
+    }
+    this.streamRenderedTick = state.tick;
+
+    for (let i = 0; i < this.pelletOrder.length; i++) {
+      this.pelletOrder[i].setVisible(i < state.pelletCount && isPelletPresent(state, i));
+    }
+
+    this.score = state.score;
+    this.lives = state.lives;
+    this.levelIndex = state.levelNo;
+    this.updateHud();
+    if (!stream.isClosed()) {
+      this.showStreamMessage(STREAM_MESSAGES[state.gameState]);
+    }
+  }
+
+  private sendStreamInput(stream: StateStream): void {
+    const { JustDown } = Phaser.Input.Keyboard;
+    if (this.cursors.left && JustDown(this.cursors.left)) {
+      stream.sendDirection('left');
+    } else if (this.cursors.right && JustDown(this.cursors.right)) {
+      stream.sendDirection('right');
+    } else if (this.cursors.up && JustDown(this.cursors.up)) {
+      stream.sendDirection('up');
+    } else if (this.cursors.down && JustDown(this.cursors.down)) {
+      stream.sendDirection('down');
+    }
+  }
+
+  private renderStreamedEntities(
+    stream: StateStream,
+    state: StreamedState,
+    previous: StreamedState,
+    alpha: number
+  ): void {
+    // entities arrive in map order: Pac-Man and the ghosts in the order they were spawned here
+    let ghostIndex = 0;
+    let pacmanShown = false;
+    for (let i = 0; i < state.entityCount; i++) {
+      const sprite = stream.getSpriteName(state.entitySprites[i]);
+      let x = state.entityX[i] / POSITION_SCALE;
+      let y = state.entityY[i] / POSITION_SCALE;
+      // interpolate between ticks, unless the entity was reset or teleported
+      if (i < previous.entityCount) {
+        const previousX = previous.entityX[i] / POSITION_SCALE;
+        const previousY = previous.entityY[i] / POSITION_SCALE;
+        if (Math.abs(x - previousX) <= TILE_SIZE && Math.abs(y - previousY) <= TILE_SIZE) {
+          x = previousX + (x - previousX) * alpha;
+          y = previousY + (y - previousY) * alpha;
+        }
+      }
+
+      let image: Phaser.GameObjects.Image | undefined;
+      if (sprite.startsWith('PACMAN')) {
+        image = this.pacman;
+        pacmanShown = true;
+      } else {
+        image = this.ghosts[ghostIndex++]?.sprite;
+      }
+      if (image) {
+        image.setPosition(x, y).setVisible(true);
+        const textureKey = STREAM_TEXTURE_KEYS[sprite];
+        if (textureKey && image.texture.key !== textureKey) {
+          image.setTexture(textureKey);
+        }
+      }
+    }
+
+    this.pacman.setVisible(pacmanShown);
+    for (let i = ghostIndex; i < this.ghosts.length; i++) {
+      this.ghosts[i].sprite.setVisible(false);
+    }
+  }
+
+  private showStreamMessage(message: string): void {
+    if (message !== this.streamMessage) {
+      this.streamMessage = message;
+      this.showMessage(message);
+    }
+  }
+
   private updatePacman(deltaSeconds: number): void {
     const pixelsPerSecond = this.levelDefinition.pacmanSpeed * TILE_SIZE * PACMAN_SPEED_MULTIPLIER;
 
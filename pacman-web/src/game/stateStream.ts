@@ -0,0 +1,313 @@
+import type { InputDirection } from './inputBus';
+
+// Binary protocol of the Java state stream (pacman.server.StateStreamServer), big-endian.
+const PROTOCOL_VERSION = 2;
+const MESSAGE_HELLO = 0;
+const MESSAGE_STATE = 1;
+const MESSAGE_INPUT = 2;
+const MESSAGE_ACK = 3;
+
+// States are sent as changes since one of the last BASELINE_WINDOW states acknowledged (pacman.model.engine.network.DeltaCodec).
+const NO_BASELINE = -1;
+const BASELINE_WINDOW = 32;
+export const POSITION_SCALE = 16;
+
+const FIELD_LEVEL = 1;
+const FIELD_GAME_STATE = 1 << 1;
+const FIELD_LIVES = 1 << 2;
+const FIELD_SCORE = 1 << 3;
+const FIELD_PELLETS = 1 << 4;
+
+const ENTITY_SPRITE = 1;
+const ENTITY_X = 1 << 1;
+const ENTITY_Y = 1 << 2;
+const ENTITY_X_CHANGE = 1 << 3;
+const ENTITY_Y_CHANGE = 1 << 4;
+
+const MAX_ENTITIES = 16;
+const MAX_PELLET_BYTES = 256;
+
+// Ordinals of the Java Direction and GameState enums.
+const DIRECTION_CODES: Record<InputDirection, number> = {
+  up: 0,
+  down: 1,
+  left: 2,
+  right: 3,
+};
+
+const GAME_STATES = ['gameOver', 'playerWin', 'inProgress', 'ready'] as const;
+
+export type StreamedGameState = (typeof GAME_STATES)[number];
+
+export interface StreamedState {
+  tick: number;
+  levelNo: number;
+  gameState: StreamedGameState;
+  lives: number;
+  score: number;
+  entityCount: number;
+  // sprites and centres of the moving entities in map order, positions in 1 / POSITION_SCALE pixels
+  readonly entitySprites: Uint8Array;
+  readonly entityX: Uint16Array;
+  readonly entityY: Uint16Array;
+  pelletCount: number;
+  // one bit per pellet in map order, set while the pellet is still there
+  readonly pellets: Uint8Array;
+}
+
+function createState(): StreamedState {
+  return {
+    tick: -1,
+    levelNo: 0,
+    gameState: 'ready',
+    lives: 0,
+    score: 0,
+    entityCount: 0,
+    entitySprites: new Uint8Array(MAX_ENTITIES),
+    entityX: new Uint16Array(MAX_ENTITIES),
+    entityY: new Uint16Array(MAX_ENTITIES),
+    pelletCount: 0,
+    pellets: new Uint8Array(MAX_PELLET_BYTES),
+  };
+}
+
+function copyState(from: StreamedState, to: StreamedState): void {
+  to.tick = from.tick;
+  to.levelNo = from.levelNo;
+  to.gameState = from.gameState;
+  to.lives = from.lives;
+  to.score = from.score;
+  to.entityCount = from.entityCount;
+  to.entitySprites.set(from.entitySprites);
+  to.entityX.set(from.entityX);
+  to.entityY.set(from.entityY);
+  to.pelletCount = from.pelletCount;
+  to.pellets.set(from.pellets);
+}
+
+export function isPelletPresent(state: StreamedState, index: number): boolean {
+  return (state.pellets[index >> 3] & (1 << (index & 7))) !== 0;
+}
+
+/**
+ * Reads the stream URL from the `?stream=` query parameter, falling back to `VITE_STATE_STREAM_URL`.
+ */
+export function getStateStreamUrl(): string | null {
+  const fromQuery = new URLSearchParams(window.location.search).get('stream');
+  return fromQuery ?? import.meta.env.VITE_STATE_STREAM_URL ?? null;
+}
+
+/**
+ * Client of a game run by the Java engine: decodes the states, acknowledging each so the next can be sent as the
+ * changes since it, keeps the two latest for interpolation and sends moves back. States are decoded into a ring of
+ * reused buffers, which also holds the baselines of the states to come.
+ */
+export class StateStream {
+  private readonly socket: WebSocket;
+  private readonly inputMessage = new Uint8Array([MESSAGE_INPUT, 0]);
+  private readonly ackMessage = new DataView(new ArrayBuffer(5));
+  private readonly states: StreamedState[] = Array.from({ length: BASELINE_WINDOW }, createState);
+  private spriteNames: string[] = [];
+  private previous = createState();
+  private latest = createState();
+  private offset = 0;
+  private latestReceivedAt = 0;
+  private tickMillis = 34;
+  private connected = false;
+  private closed = false;
+
+  constructor(url: string) {
+    this.socket = new WebSocket(url);
+    this.socket.binaryType = 'arraybuffer';
+    this.socket.addEventListener('message', (event: MessageEvent<ArrayBuffer>) => this.handleMessage(event.data));
+    this.socket.addEventListener('close', () => {
+      this.closed = true;
+    });
+  }
+
+  isConnected(): boolean {
+    return this.connected && !this.closed;
+  }
+
+  isClosed(): boolean {
+    return this.closed;
+  }
+
+  /**
+   * @returns the latest state, or null until the first one arrives
+   */
+  getLatest(): StreamedState | null {
+    return this.latest.tick < 0 ? null : this.latest;
+  }
+
+  getPrevious(): StreamedState {
+    return this.previous;
+  }
+
+  getSpriteName(sprite: number): string {
+    return this.spriteNames[sprite] ?? '';
+  }
+
+  /**
+   * @returns how far rendering is from the previous state (0) to the latest (1), rendering one tick behind
+   */
+  getInterpolation(now: number): number {
+    return Math.min(1, Math.max(0, (now - this.latestReceivedAt) / this.tickMillis));
+  }
+
+  sendDirection(direction: InputDirection): void {
+    if (this.socket.readyState !== WebSocket.OPEN) {
+      return;
+    }
+    this.inputMessage[1] = DIRECTION_CODES[direction];
+    this.socket.send(this.inputMessage);
+  }
+
+  close(): void {
+    this.socket.close();
+  }
+
+  private handleMessage(data: ArrayBuffer): void {
+    const view = new DataView(data);
+    switch (view.getUint8(0)) {
+      case MESSAGE_HELLO:
+        this.readHello(view);
+        break;
+      case MESSAGE_STATE:
+        if (this.connected) {
+          this.readState(view);
+        }
+        break;
+    }
+  }
+
+  private readHello(view: DataView): void {
+    if (view.getUint8(1) !== PROTOCOL_VERSION) {
+      console.error(`Unsupported state stream protocol ${view.getUint8(1)}`);
+      this.close();
+      return;
+    }
+    this.tickMillis = view.getUint16(6);
+
+    const spriteCount = view.getUint8(8);
+    const names: string[] = [];
+    let offset = 9;
+    for (let i = 0; i < spriteCount; i++) {
+      const length = view.getUint8(offset);
+      names.push(String.fromCharCode(...new Uint8Array(view.buffer, offset + 1, length)));
+      offset += 1 + length;
+    }
+    this.spriteNames = names;
+    this.connected = true;
+  }
+
+  private readState(view: DataView): void {
+    const tick = view.getInt32(1);
+    const baselineTick = view.getInt32(5);
+    if (tick <= this.latest.tick) {
+      return;
+    }
+    const state = this.states[tick % BASELINE_WINDOW];
+    let baseline: StreamedState | null = null;
+    if (baselineTick !== NO_BASELINE) {
+      baseline = this.states[baselineTick % BASELINE_WINDOW];
+      if (baseline.tick !== baselineTick) {
+        // the baseline is gone, wait for the next full state
+        return;
+      }
+      copyState(baseline, state);
+    }
+    state.tick = tick;
+
+    this.offset = 9;
+    const mask = this.readUint8(view);
+    if (mask & FIELD_LEVEL) {
+      state.levelNo = this.readUint8(view);
+    }
+    if (mask & FIELD_GAME_STATE) {
+      state.gameState = GAME_STATES[this.readUint8(view)];
+    }
+    if (mask & FIELD_LIVES) {
+      state.lives = this.readUint8(view);
+    }
+    if (mask & FIELD_SCORE) {
+      state.score = view.getInt32(this.offset);
+      this.offset += 4;
+    }
+
+    const entityCount = this.readUint8(view);
+    for (let i = 0; i < entityCount; i++) {
+      const inBaseline = baseline !== null && i < baseline.entityCount;
+      const entityMask = this.readUint8(view);
+      const sprite = entityMask & ENTITY_SPRITE ? this.readUint8(view) : state.entitySprites[i];
+      const x = this.readPosition(view, entityMask, inBaseline ? state.entityX[i] : 0, ENTITY_X, ENTITY_X_CHANGE);
+      const y = this.readPosition(view, entityMask, inBaseline ? state.entityY[i] : 0, ENTITY_Y, ENTITY_Y_CHANGE);
+      if (i < MAX_ENTITIES) {
+        state.entitySprites[i] = sprite;
+        state.entityX[i] = x;
+        state.entityY[i] = y;
+      }
+    }
+    state.entityCount = Math.min(entityCount, MAX_ENTITIES);
+
+    if (mask & FIELD_PELLETS) {
+      const pelletCount = view.getUint16(this.offset);
+      const runs = view.getUint16(this.offset + 2);
+      this.offset += 4;
+      if (baseline === null || baseline.pelletCount !== pelletCount) {
+        state.pellets.fill(0);
+      }
+      state.pelletCount = Math.min(pelletCount, MAX_PELLET_BYTES * 8);
+      let pellet = 0;
+      for (let run = 0; run < runs; run++) {
+        pellet += this.readVarInt(view);
+        const end = Math.min(pellet + this.readVarInt(view), state.pelletCount);
+        for (; pellet < end; pellet++) {
+          state.pellets[pellet >> 3] ^= 1 << (pellet & 7);
+        }
+      }
+    }
+
+    this.previous = this.latest;
+    this.latest = state;
+    this.latestReceivedAt = performance.now();
+    this.acknowledge(tick);
+  }
+
+  private acknowledge(tick: number): void {
+    if (this.socket.readyState !== WebSocket.OPEN) {
+      return;
+    }
+    this.ackMessage.setUint8(0, MESSAGE_ACK);
+    this.ackMessage.setInt32(1, tick);
+    this.socket.send(this.ackMessage);
+  }
+
+  private readUint8(view: DataView): number {
+    return view.getUint8(this.offset++);
+  }
+
+  private readPosition(view: DataView, mask: number, base: number, absolute: number, change: number): number {
+    if (mask & absolute) {
+      const position = view.getUint16(this.offset);
+      this.offset += 2;
+      return position;
+    }
+    if (mask & change) {
+      return (base + view.getInt8(this.offset++)) & 0xffff;
+    }
+    return base;
+  }
+
+  private readVarInt(view: DataView): number {
+    let value = 0;
+    let shift = 0;
+    let byte: number;
+    do {
+      byte = this.readUint8(view);
+      value |= (byte & 0x7f) << shift;
+      shift += 7;
+    } while (byte & 0x80);
+    return value;
+  }
+}
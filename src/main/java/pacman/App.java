@@ -2,25 +2,118 @@ package pacman;
 
 import javafx.application.Application;
 import javafx.stage.Stage;
+import pacman.model.engine.GameConfigurationReader;
 import pacman.model.engine.GameEngine;
 import pacman.model.engine.GameEngineImpl;
+import pacman.model.engine.GameSimulation;
+import pacman.model.engine.replay.ReplayWriter;
+import pacman.model.engine.telemetry.TelemetryRecorder;
+import pacman.model.highscore.HighScoreStore;
 import pacman.view.GameWindow;
+import pacman.view.MosaicWindow;
+import pacman.view.capture.CaptureFormat;
+import pacman.view.renderer.RendererType;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The game window, or the mosaic of many games. Started by {@link Launcher}, which runs the modes without a window
+ * itself, so they never need a display.
+ */
 public class App extends Application {
 
-    public static void main(String[] args) {
-        launch(args);
-    }
+    private static final String RESUME_FLAG = "--resume";
+
+    private HighScoreStore highScoreStore;
+    // stops the window shown and the simulations behind it, which may be submitting scores
+    private Runnable stopWindow;
 
     @Override
     public void start(Stage primaryStage) {
-        GameEngine model = new GameEngineImpl("src/main/resources/config.json");
-        GameWindow window = new GameWindow(model, 448, 576);
+        try {
+            highScoreStore = HighScoreStore.open(Launcher.HIGH_SCORE_DIRECTORY);
+        } catch (IOException e) {
+            System.out.println("Error opening high scores: " + e.getMessage());
+        }
+
+        String mosaic = getParameters().getNamed().get("mosaic");
+        if (mosaic != null) {
+            startMosaic(primaryStage, Integer.parseInt(mosaic));
+            return;
+        }
+
+        GameEngine model = new GameEngineImpl(Launcher.CONFIG_FILE,
+                Launcher.getSeed(getParameters().getNamed().get("seed")));
+        RendererType rendererType = RendererType.fromName(getParameters().getNamed().get("renderer"));
+        CaptureFormat captureFormat = CaptureFormat.fromName(getParameters().getNamed().get("capture"));
+        GameWindow window = new GameWindow(model, 448, 576, rendererType, captureFormat);
+
+        String record = getParameters().getNamed().get("record");
+        if (record != null) {
+            try {
+                window.recordTo(new ReplayWriter(Path.of(record), model));
+            } catch (IOException e) {
+                System.out.println("Error creating replay " + record + ": " + e.getMessage());
+            }
+        }
+
+        String telemetry = getParameters().getNamed().get("telemetry");
+        if (telemetry != null) {
+            window.recordTelemetryTo(new TelemetryRecorder(Path.of(telemetry), model));
+        }
+        if (highScoreStore != null) {
+            window.submitScoresTo(highScoreStore);
+        }
+        if (getParameters().getUnnamed().contains(RESUME_FLAG)) {
+            window.resume();
+        }
 
         primaryStage.setTitle("Pac-Man");
         primaryStage.setScene(window.getScene());
+        stopWindow = window::stop;
+        primaryStage.setOnCloseRequest(e -> window.stop());
         primaryStage.show();
 
         window.run();
     }
-}
\ No newline at end of file
+
+    private void startMosaic(Stage primaryStage, int numSessions) {
+        List<GameSimulation> simulations = new ArrayList<>();
+        GameConfigurationReader configuration = new GameConfigurationReader(Launcher.CONFIG_FILE);
+        for (int i = 0; i < numSessions; i++) {
+            GameSimulation simulation = new GameSimulation(new GameEngineImpl(configuration, new Random().nextLong()));
+            if (highScoreStore != null) {
+                simulation.submitScoresTo(highScoreStore);
+            }
+            simulations.add(simulation);
+        }
+        MosaicWindow window = new MosaicWindow(simulations, 1280, 960);
+
+        primaryStage.setTitle("Pac-Man Sessions");
+        primaryStage.setScene(window.getScene());
+        stopWindow = window::stop;
+        primaryStage.setOnCloseRequest(e -> window.stop());
+        primaryStage.show();
+
+        window.run();
+    }
+
+    @Override
+    public void stop() {
+        // the simulations must be done submitting scores before the store is closed
+        if (stopWindow != null) {
+            stopWindow.run();
+        }
+        if (highScoreStore != null) {
+            try {
+                highScoreStore.close();
+            } catch (IOException e) {
+                System.out.println("Error closing high scores: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package pacman;
+
+import javafx.application.Application;
+import pacman.model.engine.GameEngine;
+import pacman.model.engine.GameEngineImpl;
+import pacman.model.engine.replay.Replay;
+import pacman.model.engine.state.DeterminismChecker;
+import pacman.model.entity.dynamic.physics.Direction;
+import pacman.model.highscore.GameRecord;
+import pacman.model.highscore.HighScoreStore;
+import pacman.server.GameServer;
+import pacman.server.GameSession;
+import pacman.server.StateStreamServer;
+import pacman.server.TickScheduler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Entry point, running the modes without a window itself and only launching {@link App} for the game window.
+ * <p>
+ * This class must not extend {@link Application}: the JavaFX launcher starts the toolkit before the main method of
+ * an application class runs, which fails on machines without a display.
+ */
+public class Launcher {
+
+    static final String CONFIG_FILE = "src/main/resources/config.json";
+    static final Path HIGH_SCORE_DIRECTORY = Path.of("highscores");
+    private static final int HIGH_SCORES_SHOWN = 10;
+
+    private static final String CHECK_DETERMINISM_OPTION = "--check-determinism=";
+    private static final String SEED_OPTION = "--seed=";
+    private static final String REPLAY_OPTION = "--replay=";
+    private static final String SEEK_OPTION = "--seek=";
+    private static final String HIGH_SCORES_FLAG = "--high-scores";
+    private static final String SERVER_OPTION = "--server=";
+    private static final String HIBERNATE_AFTER_OPTION = "--hibernate-after=";
+    private static final String ACTIVE_OPTION = "--active=";
+    private static final String STREAM_OPTION = "--stream=";
+    private static final long SERVER_REPORT_MILLIS = 5000;
+    private static final long BOT_MOVE_MILLIS = 200;
+
+    public static void main(String[] args) {
+        String checkTicks = getOption(args, CHECK_DETERMINISM_OPTION);
+        if (checkTicks != null) {
+            checkDeterminism(Integer.parseInt(checkTicks), getSeed(getOption(args, SEED_OPTION)));
+            return;
+        }
+        String replay = getOption(args, REPLAY_OPTION);
+        if (replay != null) {
+            String seek = getOption(args, SEEK_OPTION);
+            playReplay(Path.of(replay), seek == null ? -1 : Long.parseLong(seek));
+            return;
+        }
+        String stream = getOption(args, STREAM_OPTION);
+        if (stream != null) {
+            runStream(Integer.parseInt(stream), getHibernateAfter(args));
+            return;
+        }
+        String server = getOption(args, SERVER_OPTION);
+        if (server != null) {
+            String active = getOption(args, ACTIVE_OPTION);
+            int numSessions = Integer.parseInt(server);
+            runServer(numSessions, active == null ? numSessions : Integer.parseInt(active), getHibernateAfter(args),
+                    getSeed(getOption(args, SEED_OPTION)));
+            return;
+        }
+        if (List.of(args).contains(HIGH_SCORES_FLAG)) {
+            printHighScores();
+            return;
+        }
+        Application.launch(App.class, args);
+    }
+
+    private static String getOption(String[] args, String prefix) {
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return arg.substring(prefix.length());
+            }
+        }
+        return null;
+    }
+
+    static long getSeed(String seed) {
+        return seed == null ? new Random().nextLong() : Long.parseLong(seed);
+    }
+
+    private static long getHibernateAfter(String[] args) {
+        String hibernateAfter = getOption(args, HIBERNATE_AFTER_OPTION);
+        return hibernateAfter == null ? GameServer.DEFAULT_HIBERNATE_AFTER_SECONDS : Long.parseLong(hibernateAfter);
+    }
+
+    /**
+     * Re-simulates a recorded game without a window, as fast as possible, either in full or up to the given tick
+     */
+    private static void playReplay(Path path, long seekTick) {
+        try {
+            long start = System.nanoTime();
+            Replay replay = Replay.open(path);
+            GameEngine model = new GameEngineImpl(CONFIG_FILE, replay.getSeed());
+
+            long ticks;
+            if (seekTick < 0) {
+                ticks = replay.play(model);
+            } else {
+                model.startGame();
+                ticks = replay.seek(model, seekTick);
+            }
+            double elapsedMillis = (System.nanoTime() - start) / 1e6;
+
+            System.out.printf("Replayed %d of %d ticks in %.0f ms: %s, score %d, state hash %016x%n",
+                    ticks, replay.getEndTick(), elapsedMillis, model.getGameState(), model.getScore(),
+                    model.getStateHash());
+        } catch (IOException e) {
+            System.out.println("Error reading replay " + path + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Hosts the given number of games without a window, played by random moves, reporting the tick jitter of every
+     * few seconds until the process is stopped
+     */
+    private static void runServer(int numSessions, int numActive, long hibernateAfterSeconds, long seed) {
+        GameServer gameServer = new GameServer(CONFIG_FILE, Runtime.getRuntime().availableProcessors(),
+                hibernateAfterSeconds);
+        gameServer.start();
+        List<GameSession> activeSessions = new ArrayList<>();
+        for (int i = 0; i < numSessions; i++) {
+            GameSession session = gameServer.createSession(seed + i);
+            if (i < numActive) {
+                activeSessions.add(session);
+            }
+        }
+        System.out.println("Hosting " + numSessions + " sessions, " + activeSessions.size() + " of them active");
+
+        // this thread is the only one submitting moves, as the input queues of the sessions expect
+        Random random = new Random(seed);
+        Direction[] directions = Direction.values();
+        long nextReport = System.currentTimeMillis() + SERVER_REPORT_MILLIS;
+        while (true) {
+            for (GameSession session : activeSessions) {
+                if (random.nextInt(4) == 0) {
+                    session.submitMove(directions[random.nextInt(directions.length)]);
+                }
+            }
+
+            if (System.currentTimeMillis() >= nextReport) {
+                // each report covers the ticks since the previous one, so warming up only shows in the first
+                TickScheduler scheduler = gameServer.getScheduler();
+                Runtime runtime = Runtime.getRuntime();
+                System.out.println(scheduler.getJitterStats() + ", " + scheduler.getHibernatedCount() +
+                        " hibernated in " + scheduler.getSlabBytes() / 1024 + " KB off-heap, heap used " +
+                        (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024) + " MB");
+                scheduler.resetJitterStats();
+                nextReport += SERVER_REPORT_MILLIS;
+            }
+
+            try {
+                Thread.sleep(BOT_MOVE_MILLIS);
+            } catch (InterruptedException e) {
+                gameServer.stop();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Hosts a game for every browser connecting over a WebSocket on the given port, streaming its state every tick,
+     * until the process is stopped
+     */
+    private static void runStream(int port, long hibernateAfterSeconds) {
+        GameServer gameServer = new GameServer(CONFIG_FILE, Runtime.getRuntime().availableProcessors(),
+                hibernateAfterSeconds);
+        StateStreamServer streamServer = new StateStreamServer(gameServer, port);
+        try {
+            gameServer.start();
+            streamServer.start();
+        } catch (IOException e) {
+            System.out.println("Error starting the state stream on port " + port + ": " + e.getMessage());
+            gameServer.stop();
+            System.exit(1);
+        }
+        System.out.println("Streaming games on ws://localhost:" + streamServer.getPort() + "/");
+
+        long nextReport = System.currentTimeMillis() + SERVER_REPORT_MILLIS;
+        while (true) {
+            try {
+                Thread.sleep(Math.max(0, nextReport - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                streamServer.stop();
+                gameServer.stop();
+                return;
+            }
+            TickScheduler scheduler = gameServer.getScheduler();
+            System.out.println(gameServer.getSessions().size() + " sessions, " + scheduler.getJitterStats());
+            scheduler.resetJitterStats();
+            nextReport += SERVER_REPORT_MILLIS;
+        }
+    }
+
+    /**
+     * Prints the best games of all time without a window
+     */
+    private static void printHighScores() {
+        try {
+            HighScoreStore store = HighScoreStore.open(HIGH_SCORE_DIRECTORY);
+            List<GameRecord> topScores = store.getTopScores();
+            for (int rank = 0; rank < Math.min(HIGH_SCORES_SHOWN, topScores.size()); rank++) {
+                GameRecord record = store.readFull(topScores.get(rank));
+                System.out.printf("%2d. %7d  level %d  %4d s%s%n", rank + 1, record.getScore(),
+                        record.getLevelReached(), record.getDurationTicks() * GameEngine.TICK_DURATION_MILLIS / 1000,
+                        record.getReplay() == null ? "" : "  " + record.getReplay());
+            }
+            store.close();
+        } catch (IOException e) {
+            System.out.println("Error reading high scores: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays two games from the same seed and random moves without a window, reporting where they diverge
+     */
+    private static void checkDeterminism(int ticks, long seed) {
+        DeterminismChecker checker = new DeterminismChecker(
+                () -> new GameEngineImpl(CONFIG_FILE, seed),
+                () -> new GameEngineImpl(CONFIG_FILE, seed),
+                DeterminismChecker.randomMoves(seed));
+        DeterminismChecker.Divergence divergence = checker.check(ticks);
+        if (divergence == null) {
+            System.out.println("No divergence in " + ticks + " ticks with seed " + seed);
+        } else {
+            System.out.println(divergence);
+            System.exit(1);
+        }
+    }
+}
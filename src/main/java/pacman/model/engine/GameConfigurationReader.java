@@ -10,7 +10,9 @@ import java.io.FileReader;
 import java.io.IOException;
 
 /**
- * Helper class to read Game Configuration from JSONObject
+ * Helper class to read Game Configuration from JSONObject.
+ * <p>
+ * The configuration is only read, never changed, so one reader can be shared by every game created from it.
  */
 public class GameConfigurationReader {
 
@@ -1,16 +1,37 @@
 package pacman.model.engine;
 
+import pacman.model.engine.observer.GameState;
 import pacman.model.engine.observer.GameStateSubject;
+import pacman.model.engine.state.Restorable;
 import pacman.model.entity.Renderable;
+import pacman.model.entity.dynamic.player.MovementInvoker;
 import pacman.model.level.observer.LevelStateObserver;
 
 import java.util.List;
 
 
 /**
- * The base interface for interacting with the Pac-Man model
+ * The base interface for interacting with the Pac-Man model.
+ * <p>
+ * The whole mutable state of a game can be saved between ticks and restored in place, to the same level or another
+ * level of the same configuration.
  */
-public interface GameEngine extends GameStateSubject {
+public interface GameEngine extends GameStateSubject, Restorable {
+
+    /**
+     * Length of a single simulation step, in milliseconds of game time
+     */
+    int TICK_DURATION_MILLIS = 34;
+
+    /**
+     * Converts a duration in seconds to the number of simulation steps it spans
+     *
+     * @param seconds duration in seconds
+     * @return number of ticks in the duration
+     */
+    static int secondsToTicks(double seconds) {
+        return (int) Math.round(seconds * 1000 / TICK_DURATION_MILLIS);
+    }
 
     /**
      * Gets the list of renderables in the game
@@ -50,6 +71,64 @@ public interface GameEngine extends GameStateSubject {
      */
     void tick();
 
+    /**
+     * Checks if the game has reached a state where ticking no longer changes anything
+     * (i.e. the game has been won or lost), so it only needs to be driven at a low rate.
+     *
+     * @return true, if the game is idle
+     */
+    boolean isIdle();
+
+    /**
+     * @return seed of the randomness in this game
+     */
+    long getSeed();
+
+    /**
+     * @return hash of the layout of the maze, identifying the map the game is played on
+     */
+    long getMapHash();
+
+    /**
+     * @return index of the current level, starting from 0
+     */
+    int getLevelNo();
+
+    /**
+     * @return current state of the game
+     */
+    GameState getGameState();
+
+    /**
+     * @return state of the current level, telling whether the player is waiting for the level to start or playing
+     */
+    GameState getLevelState();
+
+    /**
+     * @return total score of the player over all levels played
+     */
+    int getScore();
+
+    /**
+     * @return number of lives the player has left
+     */
+    int getNumLives();
+
+    /**
+     * Gets a 64-bit hash of the whole game state, kept up to date incrementally as the game is played.
+     * Games in the same state have the same hash, so comparing hashes is a cheap way to check two games still agree.
+     *
+     * @return hash of the game state
+     */
+    long getStateHash();
+
+    /**
+     * Gets the invoker which applies the moves requested by the player of this game
+     *
+     * @return movement invoker of the player
+     */
+    MovementInvoker getMovementInvoker();
+
     /**
      * Registers level state observers
      *
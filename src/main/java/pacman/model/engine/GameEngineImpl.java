@@ -4,28 +4,42 @@ import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import pacman.model.engine.observer.GameState;
 import pacman.model.engine.observer.GameStateObserver;
+import pacman.model.engine.state.RandomStream;
+import pacman.model.engine.state.StateBuffers;
+import pacman.model.engine.state.StateHash;
 import pacman.model.entity.Renderable;
 import pacman.model.entity.dynamic.ghost.Ghost;
 import pacman.model.entity.dynamic.physics.Direction;
+import pacman.model.entity.dynamic.player.MovementInvoker;
 import pacman.model.factories.*;
 import pacman.model.level.Level;
 import pacman.model.level.LevelImpl;
 import pacman.model.level.observer.LevelStateObserver;
 import pacman.model.maze.Maze;
 import pacman.model.maze.MazeCreator;
+import pacman.model.maze.MazeTemplate;
 import pacman.view.keyboard.command.*;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 /**
  * Implementation of GameEngine - responsible for coordinating the Pac-Man model
  */
 public class GameEngineImpl implements GameEngine {
 
+    // bumped whenever the layout of saved states changes
+    private static final byte STATE_VERSION = 2;
+    private static final long ENGINE_FEATURE = 0x500;
+
     private final RenderableFactoryRegistry renderableFactoryRegistry;
+    private final MovementInvoker movementInvoker;
+    private final long seed;
+    private final RandomStream random;
     private final List<GameStateObserver> observers;
     private final List<LevelStateObserver> levelStateObservers;
     private Level currentLevel;
@@ -34,40 +48,60 @@ public class GameEngineImpl implements GameEngine {
     private Maze maze;
     private JSONArray levelConfigs;
     private GameState gameState;
+    // points earned in the levels before the current one
+    private int completedLevelsScore;
 
     public GameEngineImpl(String configPath) {
+        this(configPath, new Random().nextLong());
+    }
+
+    /**
+     * @param configPath path of the game configuration
+     * @param seed       seed of all randomness in the game, games with the same seed and moves play out the same
+     */
+    public GameEngineImpl(String configPath, long seed) {
+        this(new GameConfigurationReader(configPath), seed);
+    }
+
+    /**
+     * Creates a game from a configuration already read, which can be shared by many games
+     *
+     * @param gameConfigurationReader configuration of the game
+     * @param seed                    seed of all randomness in the game
+     */
+    public GameEngineImpl(GameConfigurationReader gameConfigurationReader, long seed) {
+        this.seed = seed;
+        this.random = new RandomStream(seed);
+        this.movementInvoker = new MovementInvoker();
+        this.movementInvoker.registerCommand(new MoveUpCommand(this));
+        this.movementInvoker.registerCommand(new MoveDownCommand(this));
+        this.movementInvoker.registerCommand(new MoveLeftCommand(this));
+        this.movementInvoker.registerCommand(new MoveRightCommand(this));
         this.renderableFactoryRegistry = getRenderableFactoryRegistry();
         this.currentLevelNo = 0;
         this.observers = new ArrayList<>();
         this.levelStateObservers = new ArrayList<>();
 
-        init(new GameConfigurationReader(configPath));
+        init(gameConfigurationReader);
     }
 
     private RenderableFactoryRegistry getRenderableFactoryRegistry() {
+        // walls and pellets come from the maze template, only the moving entities belong to this game
         RenderableFactoryRegistry renderableFactoryRegistry = new RenderableFactoryRegistryImpl();
 
-        renderableFactoryRegistry.registerFactory(RenderableType.HORIZONTAL_WALL, new WallFactory(RenderableType.HORIZONTAL_WALL));
-        renderableFactoryRegistry.registerFactory(RenderableType.VERTICAL_WALL, new WallFactory(RenderableType.VERTICAL_WALL));
-        renderableFactoryRegistry.registerFactory(RenderableType.UP_LEFT_WALL, new WallFactory(RenderableType.UP_LEFT_WALL));
-        renderableFactoryRegistry.registerFactory(RenderableType.UP_RIGHT_WALL, new WallFactory(RenderableType.UP_RIGHT_WALL));
-        renderableFactoryRegistry.registerFactory(RenderableType.DOWN_LEFT_WALL, new WallFactory(RenderableType.DOWN_LEFT_WALL));
-        renderableFactoryRegistry.registerFactory(RenderableType.DOWN_RIGHT_WALL, new WallFactory(RenderableType.DOWN_RIGHT_WALL));
-        renderableFactoryRegistry.registerFactory(RenderableType.PELLET, new PelletFactory(RenderableType.PELLET));
-        renderableFactoryRegistry.registerFactory(RenderableType.POWER_PELLET, new PelletFactory(RenderableType.POWER_PELLET));
-        renderableFactoryRegistry.registerFactory(RenderableType.PACMAN, new PacmanFactory());
-
-        renderableFactoryRegistry.registerFactory(RenderableType.BLINKY, new GhostFactory(RenderableType.BLINKY));
-        renderableFactoryRegistry.registerFactory(RenderableType.PINKY, new GhostFactory(RenderableType.PINKY));
-        renderableFactoryRegistry.registerFactory(RenderableType.INKY, new GhostFactory(RenderableType.INKY));
-        renderableFactoryRegistry.registerFactory(RenderableType.CLYDE, new GhostFactory(RenderableType.CLYDE));
+        renderableFactoryRegistry.registerFactory(RenderableType.PACMAN, new PacmanFactory(movementInvoker));
+
+        renderableFactoryRegistry.registerFactory(RenderableType.BLINKY, new GhostFactory(RenderableType.BLINKY, random));
+        renderableFactoryRegistry.registerFactory(RenderableType.PINKY, new GhostFactory(RenderableType.PINKY, random));
+        renderableFactoryRegistry.registerFactory(RenderableType.INKY, new GhostFactory(RenderableType.INKY, random));
+        renderableFactoryRegistry.registerFactory(RenderableType.CLYDE, new GhostFactory(RenderableType.CLYDE, random));
         return renderableFactoryRegistry;
     }
 
     private void init(GameConfigurationReader gameConfigurationReader) {
         // Set up map
-        String mapFile = gameConfigurationReader.getMapFile();
-        MazeCreator mazeCreator = new MazeCreator(mapFile, renderableFactoryRegistry);
+        MazeTemplate mazeTemplate = MazeTemplate.load(gameConfigurationReader.getMapFile());
+        MazeCreator mazeCreator = new MazeCreator(mazeTemplate, renderableFactoryRegistry);
         this.maze = mazeCreator.createMaze();
         this.maze.setNumLives(gameConfigurationReader.getNumLives());
 
@@ -135,10 +169,16 @@ public class GameEngineImpl implements GameEngine {
         currentLevel.tick();
     }
 
+    @Override
+    public boolean isIdle() {
+        return gameState == GameState.GAME_OVER || gameState == GameState.PLAYER_WIN;
+    }
+
     private void handleLevelEnd() {
         if (numLevels - 1 == currentLevelNo) {
             handlePlayerWins();
         } else {
+            this.completedLevelsScore += currentLevel.getPoints();
             this.currentLevelNo += 1;
 
             // remove observers
@@ -181,6 +221,93 @@ public class GameEngineImpl implements GameEngine {
         }
     }
 
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public long getMapHash() {
+        return maze.getLayoutHash();
+    }
+
+    @Override
+    public int getLevelNo() {
+        return currentLevelNo;
+    }
+
+    @Override
+    public GameState getLevelState() {
+        return currentLevel.getGameState();
+    }
+
+    @Override
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    @Override
+    public int getScore() {
+        return completedLevelsScore + currentLevel.getPoints();
+    }
+
+    @Override
+    public int getNumLives() {
+        return currentLevel.getNumLives();
+    }
+
+    @Override
+    public long getStateHash() {
+        return currentLevel.getStateHash() ^ movementInvoker.getStateHash() ^
+                StateHash.key(ENGINE_FEATURE, currentLevelNo) ^
+                StateHash.key(ENGINE_FEATURE + 1, gameState) ^
+                StateHash.key(ENGINE_FEATURE + 2, completedLevelsScore);
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        buffer.put(STATE_VERSION);
+        buffer.put((byte) currentLevelNo);
+        StateBuffers.putEnum(buffer, gameState);
+        buffer.putInt(completedLevelsScore);
+        movementInvoker.saveState(buffer);
+        currentLevel.saveState(buffer);
+    }
+
+    @Override
+    public void restoreState(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != STATE_VERSION) {
+            throw new IllegalArgumentException("Unsupported game state version " + version);
+        }
+
+        int previousScore = getScore();
+        int levelNo = buffer.get();
+        if (levelNo != currentLevelNo) {
+            for (LevelStateObserver observer : this.levelStateObservers) {
+                this.currentLevel.removeObserver(observer);
+            }
+            this.currentLevelNo = levelNo;
+            startLevel();
+        }
+
+        setGameState(StateBuffers.getEnum(buffer, GameState.values()));
+        this.completedLevelsScore = buffer.getInt();
+        movementInvoker.restoreState(buffer);
+        currentLevel.restoreState(buffer);
+
+        // score observers only receive changes, so send the difference to the restored score
+        int scoreChange = getScore() - previousScore;
+        if (scoreChange != 0) {
+            currentLevel.notifyObserversWithScoreChange(scoreChange);
+        }
+    }
+
+    @Override
+    public MovementInvoker getMovementInvoker() {
+        return movementInvoker;
+    }
+
     @Override
     public void registerLevelStateObserver(LevelStateObserver observer) {
         this.levelStateObservers.add(observer);
@@ -0,0 +1,365 @@
+package pacman.model.engine;
+
+import pacman.model.engine.concurrent.SpscQueue;
+import pacman.model.engine.replay.ReplayWriter;
+import pacman.model.engine.concurrent.TripleBuffer;
+import pacman.model.engine.snapshot.RenderSnapshot;
+import pacman.model.engine.snapshot.SnapshotWriter;
+import pacman.model.engine.state.RewindBuffer;
+import pacman.model.engine.state.SaveGame;
+import pacman.model.engine.telemetry.TelemetryRecorder;
+import pacman.model.highscore.GameRecord;
+import pacman.model.highscore.HighScoreStore;
+import pacman.model.entity.dynamic.physics.Direction;
+import pacman.model.entity.dynamic.player.MovementInvoker;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the Pac-Man model on its own thread at a fixed simulation rate.
+ * <p>
+ * After every batch of ticks the state of the model is published as a {@link RenderSnapshot}, which is the only
+ * way other threads should observe the model. Moves from the player reach the model through a lock-free queue
+ * and are applied at the start of the next tick.
+ */
+public class GameSimulation implements Runnable {
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(GameEngine.TICK_DURATION_MILLIS);
+    private static final long IDLE_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final int MAX_TICKS_PER_STEP = 5;
+    private static final int INPUT_QUEUE_CAPACITY = 64;
+
+    private final GameEngine model;
+    private final SpscQueue<Direction> inputQueue;
+    private final TripleBuffer<RenderSnapshot> snapshots;
+    private final SnapshotWriter snapshotWriter;
+    private final MovementInvoker movementInvoker;
+    private final TickProfiler tickProfiler;
+    private ReplayWriter replayWriter;
+    private RewindBuffer rewindBuffer;
+    private volatile boolean rewinding;
+    private TelemetryRecorder telemetryRecorder;
+    private HighScoreStore highScoreStore;
+    private boolean scoreSubmitted;
+    private Path saveFile;
+    private volatile boolean saveRequested;
+    private volatile boolean loadRequested;
+    private volatile boolean running;
+    private Thread thread;
+    private long tickCount;
+
+    public GameSimulation(GameEngine model) {
+        this.model = model;
+        this.inputQueue = new SpscQueue<>(INPUT_QUEUE_CAPACITY);
+        this.snapshots = new TripleBuffer<>(RenderSnapshot::new);
+        this.snapshotWriter = new SnapshotWriter();
+        this.movementInvoker = model.getMovementInvoker();
+        this.tickProfiler = new TickProfiler();
+
+        model.registerObserver(snapshotWriter);
+        model.registerLevelStateObserver(snapshotWriter);
+    }
+
+    /**
+     * Starts the game and the simulation thread
+     */
+    public void start() {
+        model.startGame();
+        handleSaveRequests();
+        if (replayWriter != null) {
+            replayWriter.recordTick(tickCount);
+        }
+        if (rewindBuffer != null) {
+            rewindBuffer.capture(model);
+        }
+        if (telemetryRecorder != null) {
+            telemetryRecorder.record(model, tickCount);
+        }
+        publishSnapshot(System.nanoTime());
+
+        running = true;
+        thread = new Thread(this, "pacman-simulation");
+        thread.setDaemon(true);
+        tickProfiler.setSimulationThread(thread);
+        thread.start();
+    }
+
+    /**
+     * Records the moves applied to the game into a replay until the game ends or the simulation is stopped.
+     * Must be called before the simulation is started.
+     *
+     * @param replayWriter writer of the replay
+     */
+    public void recordTo(ReplayWriter replayWriter) {
+        this.replayWriter = replayWriter;
+    }
+
+    /**
+     * Records telemetry for every tick into a file until the game ends or the simulation is stopped. Must be called
+     * before the simulation is started.
+     *
+     * @param telemetryRecorder recorder of the telemetry of this simulation's game
+     */
+    public void recordTelemetryTo(TelemetryRecorder telemetryRecorder) {
+        this.telemetryRecorder = telemetryRecorder;
+        model.registerLevelStateObserver(telemetryRecorder);
+    }
+
+    /**
+     * Stores the outcome of the game once it ends. Must be called before the simulation is started.
+     *
+     * @param highScoreStore store of finished games, which may be shared with other simulations
+     */
+    public void submitScoresTo(HighScoreStore highScoreStore) {
+        this.highScoreStore = highScoreStore;
+    }
+
+    /**
+     * Keeps the recent history of the game, so it can be rewound. Must be called before the simulation is started.
+     *
+     * @param seconds seconds of play that can be rewound at most
+     */
+    public void enableRewind(double seconds) {
+        this.rewindBuffer = RewindBuffer.forSeconds(seconds);
+    }
+
+    /**
+     * While rewinding, every tick steps the game back by one tick instead of forward, until there is no history
+     * left. Can be called from any thread.
+     *
+     * @param rewinding true, to rewind the game
+     */
+    public void setRewinding(boolean rewinding) {
+        this.rewinding = rewinding;
+    }
+
+    /**
+     * Allows the game to be saved to and resumed from the given file. Must be called before the simulation is started.
+     *
+     * @param saveFile path of the save file
+     */
+    public void enableSaves(Path saveFile) {
+        this.saveFile = saveFile;
+    }
+
+    /**
+     * Saves the game to the save file before the next tick. Can be called from any thread.
+     */
+    public void requestSave() {
+        this.saveRequested = true;
+    }
+
+    /**
+     * Resumes the game from the save file before the next tick, or as soon as the game starts if it has not yet.
+     * Can be called from any thread.
+     */
+    public void requestLoad() {
+        this.loadRequested = true;
+    }
+
+    /**
+     * Stops the simulation thread after its current tick and waits for it to finish
+     */
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Queues a move from the player. Only to be called from a single input thread.
+     *
+     * @param direction direction the player wants to move in
+     * @return true, if the move was queued
+     */
+    public boolean submitMove(Direction direction) {
+        return inputQueue.offer(direction);
+    }
+
+    /**
+     * Gets the latest published snapshot of the model. Only to be called from a single render thread.
+     *
+     * @return the latest snapshot
+     */
+    public RenderSnapshot getLatestSnapshot() {
+        return snapshots.read();
+    }
+
+    /**
+     * @return profiler measuring the ticks of this simulation
+     */
+    public TickProfiler getTickProfiler() {
+        return tickProfiler;
+    }
+
+    @Override
+    public void run() {
+        long nextTickTime = System.nanoTime();
+
+        while (running) {
+            long now = System.nanoTime();
+            long tickPeriod = model.isIdle() ? IDLE_TICK_NANOS : TICK_NANOS;
+
+            int ticks = 0;
+            while (now - nextTickTime >= 0 && ticks < MAX_TICKS_PER_STEP) {
+                tick();
+                nextTickTime += tickPeriod;
+                ticks++;
+            }
+
+            if (ticks > 0) {
+                publishSnapshot(nextTickTime - tickPeriod);
+            }
+
+            // drop any backlog that could not be caught up on, e.g. after a long stall
+            if (now - nextTickTime >= 0) {
+                nextTickTime = now;
+            }
+
+            LockSupport.parkNanos(nextTickTime - System.nanoTime());
+        }
+
+        finishRecording();
+        finishTelemetry();
+    }
+
+    private void tick() {
+        handleSaveRequests();
+        if (rewinding && rewindBuffer != null) {
+            rewind();
+            return;
+        }
+
+        Direction direction;
+        while ((direction = inputQueue.poll()) != null) {
+            movementInvoker.addCommand(movementInvoker.getCommand(direction));
+            if (replayWriter != null) {
+                replayWriter.recordMove(tickCount, direction);
+            }
+        }
+
+        if (tickProfiler.isEnabled()) {
+            long start = System.nanoTime();
+            model.tick();
+            tickProfiler.record(System.nanoTime() - start);
+        } else {
+            model.tick();
+        }
+        tickCount++;
+        if (replayWriter != null) {
+            replayWriter.recordTick(tickCount);
+        }
+        if (rewindBuffer != null) {
+            rewindBuffer.capture(model);
+        }
+        if (telemetryRecorder != null) {
+            telemetryRecorder.record(model, tickCount);
+        }
+
+        // nothing changes once the game is over, so the replay can end here
+        if (model.isIdle()) {
+            submitScore();
+            finishRecording();
+            finishTelemetry();
+        }
+    }
+
+    private void handleSaveRequests() {
+        if (saveFile == null) {
+            return;
+        }
+
+        if (saveRequested) {
+            saveRequested = false;
+            try {
+                SaveGame.write(model, saveFile);
+            } catch (IOException e) {
+                System.out.println("Error saving game to " + saveFile + ": " + e.getMessage());
+            }
+        }
+
+        if (loadRequested) {
+            loadRequested = false;
+            try {
+                SaveGame.read(model, saveFile);
+            } catch (IOException e) {
+                System.out.println("Error loading game from " + saveFile + ": " + e.getMessage());
+                return;
+            }
+
+            // the history before the load belongs to another game
+            finishRecording();
+            scoreSubmitted = false;
+            if (rewindBuffer != null) {
+                rewindBuffer.clear();
+                rewindBuffer.capture(model);
+            }
+        }
+    }
+
+    private void rewind() {
+        // moves made while rewinding are dropped, and a replay cannot follow the game back in time
+        while (inputQueue.poll() != null) {
+            // discard
+        }
+        finishRecording();
+
+        rewindBuffer.stepBack(model);
+        tickCount++;
+        if (!model.isIdle()) {
+            // back in play, so the game's next ending is a new outcome to submit
+            scoreSubmitted = false;
+        }
+        if (telemetryRecorder != null) {
+            telemetryRecorder.record(model, tickCount);
+        }
+    }
+
+    private void submitScore() {
+        if (highScoreStore == null || scoreSubmitted) {
+            return;
+        }
+        scoreSubmitted = true;
+
+        String replay = replayWriter == null ? null : replayWriter.getPath().toString();
+        GameRecord record = new GameRecord(model.getScore(), model.getLevelNo() + 1, tickCount,
+                System.currentTimeMillis(), model.getSeed(), replay);
+        try {
+            highScoreStore.submit(record);
+        } catch (IOException e) {
+            System.out.println("Error storing score: " + e.getMessage());
+        }
+    }
+
+    private void finishRecording() {
+        if (replayWriter != null) {
+            replayWriter.finish(tickCount);
+            replayWriter = null;
+        }
+    }
+
+    private void finishTelemetry() {
+        if (telemetryRecorder != null) {
+            telemetryRecorder.finish();
+            if (telemetryRecorder.getDroppedRows() > 0) {
+                System.out.println("Telemetry " + telemetryRecorder.getPath() + " dropped " +
+                        telemetryRecorder.getDroppedRows() + " rows");
+            }
+            telemetryRecorder = null;
+        }
+    }
+
+    private void publishSnapshot(long tickTime) {
+        snapshotWriter.write(model, tickCount, tickTime, snapshots.getWriteBuffer());
+        snapshots.publish();
+    }
+}
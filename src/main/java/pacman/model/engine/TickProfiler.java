@@ -0,0 +1,76 @@
+package pacman.model.engine;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Records how long recent simulation ticks took, for display in debugging tools.
+ * <p>
+ * Recording is off by default, costing the simulation a single flag check per tick. Durations are written by the
+ * simulation thread into a ring buffer which another thread can copy out of at any time.
+ */
+public class TickProfiler {
+
+    private static final int CAPACITY = 256;
+    private static final int MASK = CAPACITY - 1;
+
+    private final long[] durations;
+    private volatile long recordedTicks;
+    private volatile boolean enabled;
+    private volatile long simulationThreadId = -1;
+
+    public TickProfiler() {
+        this.durations = new long[CAPACITY];
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    void setSimulationThread(Thread thread) {
+        this.simulationThreadId = thread.getId();
+    }
+
+    /**
+     * Records the duration of a tick. Only to be called from the simulation thread.
+     *
+     * @param durationNanos duration of the tick, in nanoseconds
+     */
+    void record(long durationNanos) {
+        long ticks = recordedTicks;
+        durations[(int) (ticks & MASK)] = durationNanos;
+        recordedTicks = ticks + 1;
+    }
+
+    /**
+     * Copies the durations of the most recently recorded ticks, oldest first
+     *
+     * @param target array to copy into, at most its length or {@value #CAPACITY} durations are copied
+     * @return number of durations copied
+     */
+    public int copyRecentDurations(long[] target) {
+        long ticks = recordedTicks;
+        int count = (int) Math.min(ticks, Math.min(CAPACITY, target.length));
+        for (int i = 0; i < count; i++) {
+            target[i] = durations[(int) ((ticks - count + i) & MASK)];
+        }
+        return count;
+    }
+
+    /**
+     * Gets the number of bytes allocated by the simulation thread since it started
+     *
+     * @return allocated bytes, or -1 if the JVM does not measure allocations per thread
+     */
+    public long getAllocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (simulationThreadId < 0 || !(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        return ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(simulationThreadId);
+    }
+}
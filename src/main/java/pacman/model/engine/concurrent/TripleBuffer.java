@@ -0,0 +1,62 @@
+package pacman.model.engine.concurrent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free triple buffer for handing the latest value from a single writer thread to a single reader thread.
+ * <p>
+ * The writer fills the back buffer and publishes it by swapping it with the middle buffer; the reader takes the
+ * middle buffer whenever a newer one has been published. Neither side ever waits for the other, and the reader
+ * always sees a fully written buffer which the writer will not touch until the reader has moved on.
+ *
+ * @param <T> type of the buffers
+ */
+public class TripleBuffer<T> {
+
+    private static final int INDEX_MASK = 0b11;
+    private static final int FRESH = 0b100;
+
+    private final Object[] buffers;
+    private final AtomicInteger middle;
+    private int writeIndex;
+    private int readIndex;
+
+    public TripleBuffer(Supplier<T> bufferSupplier) {
+        this.buffers = new Object[]{bufferSupplier.get(), bufferSupplier.get(), bufferSupplier.get()};
+        this.writeIndex = 0;
+        this.middle = new AtomicInteger(1);
+        this.readIndex = 2;
+    }
+
+    /**
+     * Gets the buffer the writer may fill. Only to be called from the writer thread.
+     *
+     * @return the back buffer
+     */
+    @SuppressWarnings("unchecked")
+    public T getWriteBuffer() {
+        return (T) buffers[writeIndex];
+    }
+
+    /**
+     * Publishes the back buffer to the reader. Only to be called from the writer thread.
+     */
+    public void publish() {
+        writeIndex = middle.getAndSet(writeIndex | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Gets the most recently published buffer. Only to be called from the reader thread.
+     * The returned buffer stays untouched by the writer until the next call to this method.
+     *
+     * @return the latest published buffer
+     */
+    @SuppressWarnings("unchecked")
+    public T read() {
+        if ((middle.get() & FRESH) != 0) {
+            readIndex = middle.getAndSet(readIndex) & INDEX_MASK;
+        }
+        return (T) buffers[readIndex];
+    }
+}
@@ -0,0 +1,207 @@
+package pacman.model.engine.network;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes a {@link NetworkState} as the changes since a baseline state the client is known to have, or in full when
+ * there is no baseline. Encoding writes straight into buffers, allocating nothing. States are decoded by the web
+ * client, in {@code pacman-web/src/game/stateStream.ts}.
+ * <p>
+ * The encoding is big-endian:
+ * <ul>
+ *     <li>tick (i32) and baseline tick (i32), {@link #NO_BASELINE} for a full state</li>
+ *     <li>field mask (u8), followed by those of level number (u8), game state (u8), lives (u8) and score (i32) that
+ *     changed</li>
+ *     <li>number of moving entities (u8), then for each a mask (u8) of what changed, followed by the sprite ordinal
+ *     (u8), the x position as either an absolute (u16) or a change (i8), and the y position in the same way</li>
+ *     <li>if the pellets changed: the number of pellets (u16), the number of runs of pellets that changed (u16), and
+ *     for each run the pellets skipped since the previous run and its length (unsigned LEB128 varints)</li>
+ * </ul>
+ * Entities the baseline does not have are sent in full. Pellets are compared to the baseline when it has as many
+ * pellets, otherwise to none being left, so the runs of a full state are the runs of pellets left.
+ */
+public final class DeltaCodec {
+
+    /**
+     * Baseline tick of a state encoded in full
+     */
+    public static final int NO_BASELINE = -1;
+
+    // tick, baseline tick, field mask and every field, then the number of entities
+    private static final int MAX_HEADER_SIZE = 2 * Integer.BYTES + 1 + 3 + Integer.BYTES + 1;
+    // mask, sprite and both positions as absolutes
+    private static final int MAX_ENTITY_SIZE = 1 + 1 + 2 * Short.BYTES;
+
+    private static final int FIELD_LEVEL = 1;
+    private static final int FIELD_GAME_STATE = 1 << 1;
+    private static final int FIELD_LIVES = 1 << 2;
+    private static final int FIELD_SCORE = 1 << 3;
+    private static final int FIELD_PELLETS = 1 << 4;
+    private static final int ALL_FIELDS = FIELD_LEVEL | FIELD_GAME_STATE | FIELD_LIVES | FIELD_SCORE | FIELD_PELLETS;
+
+    private static final int ENTITY_SPRITE = 1;
+    private static final int ENTITY_X = 1 << 1;
+    private static final int ENTITY_Y = 1 << 2;
+    private static final int ENTITY_X_CHANGE = 1 << 3;
+    private static final int ENTITY_Y_CHANGE = 1 << 4;
+
+    private DeltaCodec() {
+    }
+
+    /**
+     * Gets an upper bound of the size of an encoded state
+     *
+     * @param entityCount number of moving entities in the state
+     * @param pelletCount number of pellets in the state
+     * @return the most bytes the state can take, encoded in full or against any baseline
+     */
+    public static int getMaxEncodedSize(int entityCount, int pelletCount) {
+        // at worst every other pellet changed, each run taking two varints no longer than the number of pellets
+        int maxRuns = (pelletCount + 1) / 2;
+        int maxPelletsSize = 2 * Short.BYTES + maxRuns * 2 * getVarIntSize(pelletCount);
+        return MAX_HEADER_SIZE + entityCount * MAX_ENTITY_SIZE + maxPelletsSize;
+    }
+
+    /**
+     * Writes a state at the position of the buffer
+     *
+     * @param state    state to encode
+     * @param baseline state the client has, or null to encode the state in full
+     * @param out      buffer to write into, with at least {@link #getMaxEncodedSize} bytes remaining for the
+     *                 numbers of entities and pellets of the state
+     */
+    public static void encode(NetworkState state, NetworkState baseline, ByteBuffer out) {
+        out.putInt(state.getTick()).putInt(baseline == null ? NO_BASELINE : baseline.getTick());
+
+        int maskPosition = out.position();
+        out.put((byte) 0);
+        int mask = baseline == null ? ALL_FIELDS : 0;
+        if (baseline == null || state.getLevelNo() != baseline.getLevelNo()) {
+            out.put((byte) state.getLevelNo());
+            mask |= FIELD_LEVEL;
+        }
+        if (baseline == null || state.getGameState() != baseline.getGameState()) {
+            out.put((byte) state.getGameState());
+            mask |= FIELD_GAME_STATE;
+        }
+        if (baseline == null || state.getLives() != baseline.getLives()) {
+            out.put((byte) state.getLives());
+            mask |= FIELD_LIVES;
+        }
+        if (baseline == null || state.getScore() != baseline.getScore()) {
+            out.putInt(state.getScore());
+            mask |= FIELD_SCORE;
+        }
+
+        out.put((byte) state.getEntityCount());
+        for (int i = 0; i < state.getEntityCount(); i++) {
+            encodeEntity(state, baseline != null && i < baseline.getEntityCount() ? baseline : null, i, out);
+        }
+
+        NetworkState pelletBaseline = baseline != null && baseline.getPelletCount() == state.getPelletCount()
+                ? baseline : null;
+        if (pelletBaseline == null || hasPelletChanges(state, pelletBaseline)) {
+            encodePellets(state, pelletBaseline, out);
+            mask |= FIELD_PELLETS;
+        }
+        out.put(maskPosition, (byte) mask);
+    }
+
+    private static void encodeEntity(NetworkState state, NetworkState baseline, int entity, ByteBuffer out) {
+        int maskPosition = out.position();
+        out.put((byte) 0);
+        int mask = 0;
+
+        int sprite = state.getSprite(entity);
+        if (baseline == null || sprite != baseline.getSprite(entity)) {
+            out.put((byte) sprite);
+            mask |= ENTITY_SPRITE;
+        }
+        mask |= encodePosition(state.getX(entity), baseline == null ? -1 : baseline.getX(entity), out,
+                ENTITY_X, ENTITY_X_CHANGE);
+        mask |= encodePosition(state.getY(entity), baseline == null ? -1 : baseline.getY(entity), out,
+                ENTITY_Y, ENTITY_Y_CHANGE);
+        out.put(maskPosition, (byte) mask);
+    }
+
+    private static int encodePosition(int position, int basePosition, ByteBuffer out, int absolute, int change) {
+        if (position == basePosition) {
+            return 0;
+        }
+        int difference = position - basePosition;
+        if (basePosition >= 0 && difference >= Byte.MIN_VALUE && difference <= Byte.MAX_VALUE) {
+            out.put((byte) difference);
+            return change;
+        }
+        out.putShort((short) position);
+        return absolute;
+    }
+
+    private static boolean hasPelletChanges(NetworkState state, NetworkState baseline) {
+        for (int word = 0; word < state.getPelletWords(); word++) {
+            if (state.getPelletWord(word) != baseline.getPelletWord(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void encodePellets(NetworkState state, NetworkState baseline, ByteBuffer out) {
+        out.putShort((short) state.getPelletCount());
+        int runCountPosition = out.position();
+        out.putShort((short) 0);
+
+        int runs = 0;
+        int previousEnd = 0;
+        int pellet = 0;
+        while (pellet < state.getPelletCount()) {
+            long changes = getChangedPellets(state, baseline, pellet >> 6) >>> (pellet & 63);
+            if (changes == 0) {
+                // nothing else changed in this word
+                pellet = (pellet | 63) + 1;
+                continue;
+            }
+            pellet += Long.numberOfTrailingZeros(changes);
+            int end = findRunEnd(state, baseline, pellet);
+            putVarInt(out, pellet - previousEnd);
+            putVarInt(out, end - pellet);
+            runs++;
+            previousEnd = end;
+            pellet = end;
+        }
+        out.putShort(runCountPosition, (short) runs);
+    }
+
+    private static int findRunEnd(NetworkState state, NetworkState baseline, int pellet) {
+        while (pellet < state.getPelletCount()) {
+            int shift = pellet & 63;
+            int changed = Long.numberOfTrailingZeros(~(getChangedPellets(state, baseline, pellet >> 6) >>> shift));
+            pellet += changed;
+            if (changed < Long.SIZE - shift) {
+                break;
+            }
+        }
+        return pellet;
+    }
+
+    private static long getChangedPellets(NetworkState state, NetworkState baseline, int word) {
+        return state.getPelletWord(word) ^ (baseline == null ? 0 : baseline.getPelletWord(word));
+    }
+
+    private static int getVarIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static void putVarInt(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+}
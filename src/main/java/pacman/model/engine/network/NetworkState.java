@@ -0,0 +1,191 @@
+package pacman.model.engine.network;
+
+import pacman.model.engine.GameEngine;
+import pacman.model.entity.Renderable;
+import pacman.model.entity.Sprite;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * What a client is told about one tick of a game: the counters, the sprite and quantised centre of every moving
+ * entity, and which pellets are left. Entities and pellets are in the order of the map file.
+ * <p>
+ * States are meant to be kept in a ring and filled in again every tick, so capturing a game allocates nothing once
+ * the arrays have grown to fit it.
+ */
+public class NetworkState {
+
+    /**
+     * Positions are sent in sixteenths of a pixel
+     */
+    public static final int POSITION_SCALE = 16;
+
+    private static final int INITIAL_ENTITY_CAPACITY = 8;
+    private static final int INITIAL_PELLET_CAPACITY = 512;
+    // sprites before the pellet are those of the moving entities, those after it of the walls
+    private static final int PELLET_SPRITE = Sprite.PELLET.ordinal();
+
+    private int tick;
+    private int levelNo;
+    private int gameState;
+    private int lives;
+    private int score;
+
+    private int entityCount;
+    private int[] sprites;
+    private int[] xPositions;
+    private int[] yPositions;
+
+    private int pelletCount;
+    private long[] pellets;
+
+    public NetworkState() {
+        this.tick = DeltaCodec.NO_BASELINE;
+        this.sprites = new int[INITIAL_ENTITY_CAPACITY];
+        this.xPositions = new int[INITIAL_ENTITY_CAPACITY];
+        this.yPositions = new int[INITIAL_ENTITY_CAPACITY];
+        this.pellets = new long[INITIAL_PELLET_CAPACITY / Long.SIZE];
+    }
+
+    /**
+     * Fills in the state from a game. Only to be called from the thread ticking the game.
+     *
+     * @param model game to capture
+     * @param tick  number of the tick the game is at
+     */
+    public void capture(GameEngine model, int tick) {
+        this.tick = tick;
+        this.levelNo = model.getLevelNo();
+        // the game only tells whether it has ended, the level whether the player is waiting to start
+        this.gameState = (model.isIdle() ? model.getGameState() : model.getLevelState()).ordinal();
+        this.lives = model.getNumLives();
+        this.score = model.getScore();
+
+        // sprites tell the kinds of renderables apart, which is much cheaper than type checks on every renderable
+        List<Renderable> renderables = model.getRenderables();
+        int entities = 0;
+        int pelletIndex = 0;
+        for (int i = 0; i < renderables.size(); i++) {
+            Renderable renderable = renderables.get(i);
+            int sprite = renderable.getSprite().ordinal();
+            if (sprite < PELLET_SPRITE) {
+                setEntity(entities++, sprite, quantise(renderable.getBoundingBox().getMiddleX()),
+                        quantise(renderable.getBoundingBox().getMiddleY()));
+            } else if (sprite == PELLET_SPRITE) {
+                setPellet(pelletIndex++, renderable.getLayer() != Renderable.Layer.INVISIBLE);
+            }
+        }
+        this.entityCount = entities;
+        this.pelletCount = pelletIndex;
+    }
+
+    private static int quantise(double position) {
+        return (int) Math.round(position * POSITION_SCALE) & 0xFFFF;
+    }
+
+    /**
+     * Fills in the counters of the state and how many entities and pellets it has, once those have been set
+     */
+    void setCounters(int tick, int levelNo, int gameState, int lives, int score, int entityCount, int pelletCount) {
+        this.tick = tick;
+        this.levelNo = levelNo;
+        this.gameState = gameState;
+        this.lives = lives;
+        this.score = score;
+        this.entityCount = entityCount;
+        this.pelletCount = pelletCount;
+    }
+
+    void setEntity(int entity, int sprite, int x, int y) {
+        ensureEntityCapacity(entity + 1);
+        sprites[entity] = sprite;
+        xPositions[entity] = x;
+        yPositions[entity] = y;
+    }
+
+    private void ensureEntityCapacity(int capacity) {
+        if (capacity > sprites.length) {
+            int grown = Math.max(capacity, sprites.length * 2);
+            sprites = Arrays.copyOf(sprites, grown);
+            xPositions = Arrays.copyOf(xPositions, grown);
+            yPositions = Arrays.copyOf(yPositions, grown);
+        }
+    }
+
+    void setPellet(int pellet, boolean present) {
+        if (pellet >= pellets.length * Long.SIZE) {
+            pellets = Arrays.copyOf(pellets, pellets.length * 2);
+        }
+        if (present) {
+            pellets[pellet >> 6] |= 1L << pellet;
+        } else {
+            pellets[pellet >> 6] &= ~(1L << pellet);
+        }
+    }
+
+    int getPelletWords() {
+        return (pelletCount + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    long getPelletWord(int word) {
+        // bits past the last pellet are masked out, so they never show up as changes
+        int bits = pelletCount - word * Long.SIZE;
+        return bits >= Long.SIZE ? pellets[word] : pellets[word] & ((1L << bits) - 1);
+    }
+
+    public int getTick() {
+        return tick;
+    }
+
+    public int getLevelNo() {
+        return levelNo;
+    }
+
+    /**
+     * @return ordinal of the {@link pacman.model.engine.observer.GameState}, that of the level while the game goes on
+     */
+    public int getGameState() {
+        return gameState;
+    }
+
+    public int getLives() {
+        return lives;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    /**
+     * @param entity index of the moving entity
+     * @return ordinal of the {@link Sprite} of the entity
+     */
+    public int getSprite(int entity) {
+        return sprites[entity];
+    }
+
+    /**
+     * @param entity index of the moving entity
+     * @return x position of the centre of the entity, in units of 1 / {@link #POSITION_SCALE} pixel
+     */
+    public int getX(int entity) {
+        return xPositions[entity];
+    }
+
+    /**
+     * @param entity index of the moving entity
+     * @return y position of the centre of the entity, in units of 1 / {@link #POSITION_SCALE} pixel
+     */
+    public int getY(int entity) {
+        return yPositions[entity];
+    }
+
+    public int getPelletCount() {
+        return pelletCount;
+    }
+}
@@ -0,0 +1,236 @@
+package pacman.model.engine.replay;
+
+import pacman.model.engine.GameEngine;
+import pacman.model.entity.dynamic.physics.Direction;
+import pacman.model.entity.dynamic.player.MovementInvoker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A recorded game, read from a replay file written by {@link ReplayWriter}.
+ * <p>
+ * The file is memory-mapped, so opening it only reads its header and keyframe index. Replaying the moves in a new
+ * game with the same seed and configuration plays out the recorded game exactly, and any tick can be reached by
+ * restoring the keyframe before it and simulating at most one keyframe interval forward.
+ */
+public class Replay {
+
+    static final int MAGIC = 0x504D5250;
+    static final int FOOTER_MAGIC = 0x504D4958;
+    static final byte VERSION = 2;
+    static final int TYPE_BITS = 3;
+    static final int END_RECORD = 0;
+    static final int FIRST_MOVE_RECORD = 1;
+    static final int KEYFRAME_RECORD = 5;
+
+    private static final int HEADER_SIZE = 17;
+    private static final int FOOTER_SIZE = 24;
+
+    private final ByteBuffer data;
+    private final long seed;
+    private final int keyframeInterval;
+    private long[] keyframeTicks;
+    private int[] keyframeOffsets;
+    private int keyframeCount;
+    private long endTick;
+    private int moveCount;
+
+    private Replay(ByteBuffer data) throws IOException {
+        this.data = data;
+        if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC || data.get(4) != VERSION) {
+            throw new IOException("Not a supported replay file");
+        }
+        this.seed = data.getLong(5);
+        this.keyframeInterval = data.getInt(13);
+
+        int footer = data.limit() - FOOTER_SIZE;
+        if (footer >= HEADER_SIZE && data.getInt(footer + 20) == FOOTER_MAGIC) {
+            readIndex(footer);
+        } else {
+            // the recording was cut short, e.g. by the game being killed, so index whatever was written
+            scanRecords();
+        }
+    }
+
+    /**
+     * Opens a replay file by mapping it into memory
+     *
+     * @param path path of the replay file
+     * @return the replay
+     * @throws IOException if the file could not be read or is not a replay
+     */
+    public static Replay open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping stays valid once the channel is closed
+            return new Replay(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new IOException(path + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void readIndex(int footer) {
+        this.endTick = data.getLong(footer);
+        this.moveCount = data.getInt(footer + 8);
+        int indexOffset = data.getInt(footer + 12);
+        this.keyframeCount = data.getInt(footer + 16);
+        this.keyframeTicks = new long[keyframeCount];
+        this.keyframeOffsets = new int[keyframeCount];
+        for (int i = 0; i < keyframeCount; i++) {
+            keyframeTicks[i] = data.getLong(indexOffset + i * 12);
+            keyframeOffsets[i] = data.getInt(indexOffset + i * 12 + 8);
+        }
+    }
+
+    private void scanRecords() {
+        this.keyframeTicks = new long[16];
+        this.keyframeOffsets = new int[16];
+        ByteBuffer records = data.duplicate().position(HEADER_SIZE);
+        long tick = 0;
+        try {
+            while (records.hasRemaining()) {
+                int offset = records.position();
+                long value = Varints.read(records);
+                tick += value >>> TYPE_BITS;
+                int type = (int) (value & ((1 << TYPE_BITS) - 1));
+                if (type == END_RECORD) {
+                    break;
+                } else if (type == KEYFRAME_RECORD) {
+                    int length = (int) Varints.read(records);
+                    if (length > records.remaining()) {
+                        break;
+                    }
+                    records.position(records.position() + length);
+                    addKeyframe(tick, offset);
+                } else {
+                    moveCount++;
+                }
+                endTick = tick;
+            }
+        } catch (IOException e) {
+            // keep everything before the incomplete record
+        }
+    }
+
+    private void addKeyframe(long tick, int offset) {
+        if (keyframeCount == keyframeTicks.length) {
+            keyframeTicks = Arrays.copyOf(keyframeTicks, keyframeCount * 2);
+            keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframeCount * 2);
+        }
+        keyframeTicks[keyframeCount] = tick;
+        keyframeOffsets[keyframeCount] = offset;
+        keyframeCount++;
+    }
+
+    /**
+     * Starts the game and plays every recorded move as fast as possible, without rendering
+     *
+     * @param model new game created with the seed of the replay
+     * @return number of ticks played
+     */
+    public long play(GameEngine model) {
+        checkSeed(model);
+        model.startGame();
+        return advance(model, data.duplicate().position(HEADER_SIZE), 0, endTick);
+    }
+
+    /**
+     * Brings the game to the state it was in once the given number of ticks were played, by restoring the latest
+     * keyframe at or before the tick and playing the recorded moves from there
+     *
+     * @param model game created with the seed of the replay and started
+     * @param tick  number of ticks played to seek to
+     * @return number of ticks played in the game, less than the tick if the recording ends before it
+     */
+    public long seek(GameEngine model, long tick) {
+        checkSeed(model);
+        int keyframe = Arrays.binarySearch(keyframeTicks, 0, keyframeCount, tick);
+        if (keyframe < 0) {
+            keyframe = -keyframe - 2;
+        }
+        if (keyframe < 0) {
+            throw new IllegalStateException("Replay has no keyframe to seek from");
+        }
+
+        ByteBuffer records = data.duplicate().position(keyframeOffsets[keyframe]);
+        try {
+            Varints.read(records);
+            int length = (int) Varints.read(records);
+            model.restoreState(data.slice(records.position(), length));
+            records.position(records.position() + length);
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt keyframe at tick " + keyframeTicks[keyframe], e);
+        }
+        return advance(model, records, keyframeTicks[keyframe], Math.min(tick, endTick));
+    }
+
+    /**
+     * Plays the game forward from the record at the position of the buffer until the target tick
+     */
+    private long advance(GameEngine model, ByteBuffer records, long tick, long targetTick) {
+        MovementInvoker movementInvoker = model.getMovementInvoker();
+        long recordTick = tick;
+        try {
+            while (records.hasRemaining()) {
+                long value = Varints.read(records);
+                recordTick += value >>> TYPE_BITS;
+                int type = (int) (value & ((1 << TYPE_BITS) - 1));
+
+                while (tick < recordTick && tick < targetTick && !model.isIdle()) {
+                    model.tick();
+                    tick++;
+                }
+                // moves recorded for the target tick are applied before playing it, not after reaching it
+                if (tick < recordTick || tick == targetTick || type == END_RECORD) {
+                    return tick;
+                }
+
+                if (type == KEYFRAME_RECORD) {
+                    int length = (int) Varints.read(records);
+                    records.position(records.position() + length);
+                } else {
+                    Direction direction = Direction.values()[type - FIRST_MOVE_RECORD];
+                    movementInvoker.addCommand(movementInvoker.getCommand(direction));
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // an incomplete record ends the replay
+        }
+
+        while (tick < targetTick && !model.isIdle()) {
+            model.tick();
+            tick++;
+        }
+        return tick;
+    }
+
+    private void checkSeed(GameEngine model) {
+        if (model.getSeed() != seed) {
+            throw new IllegalArgumentException("Replay was recorded with seed " + seed + ", not " + model.getSeed());
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    public int getKeyframeCount() {
+        return keyframeCount;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public long getEndTick() {
+        return endTick;
+    }
+}
@@ -0,0 +1,167 @@
+package pacman.model.engine.replay;
+
+import pacman.model.engine.GameEngine;
+import pacman.model.engine.state.StateBuffers;
+import pacman.model.entity.dynamic.physics.Direction;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Records a game into a replay file as it is played on the simulation thread.
+ * <p>
+ * After a header holding the seed and keyframe interval, the file is a sequence of records, each starting with a
+ * number holding the ticks since the previous record shifted left by three bits, with the record type in the low
+ * bits. Moves carry their direction in the type. Every keyframe interval, a keyframe record holds the full saved
+ * state of the game. Finishing the recording writes an end record, then a footer indexing the tick and file offset of
+ * every keyframe and the length of the game, so the replay can be entered at any keyframe.
+ */
+public class ReplayWriter {
+
+    /**
+     * Ticks between keyframes by default, about twenty seconds of play
+     */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 600;
+
+    private final Path path;
+    private final GameEngine model;
+    private final int keyframeInterval;
+    private final DataOutputStream out;
+    private final ByteBuffer stateBuffer;
+    private long[] keyframeTicks;
+    private int[] keyframeOffsets;
+    private int keyframeCount;
+    private int moveCount;
+    private long lastTick;
+    private boolean finished;
+
+    public ReplayWriter(Path path, GameEngine model) throws IOException {
+        this(path, model, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Creates the replay file and writes its header
+     *
+     * @param path             path of the replay file
+     * @param model            game being recorded
+     * @param keyframeInterval ticks between keyframes
+     * @throws IOException if the file could not be created
+     */
+    public ReplayWriter(Path path, GameEngine model, int keyframeInterval) throws IOException {
+        this.path = path;
+        this.model = model;
+        this.keyframeInterval = keyframeInterval;
+        this.stateBuffer = ByteBuffer.allocate(StateBuffers.MAX_STATE_SIZE);
+        this.keyframeTicks = new long[16];
+        this.keyframeOffsets = new int[16];
+
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        out.writeInt(Replay.MAGIC);
+        out.writeByte(Replay.VERSION);
+        out.writeLong(model.getSeed());
+        out.writeInt(keyframeInterval);
+    }
+
+    /**
+     * @return path of the replay file
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Records a move applied just before the given tick
+     *
+     * @param tick      number of ticks played before the move was applied
+     * @param direction direction of the move
+     */
+    public void recordMove(long tick, Direction direction) {
+        if (finished) {
+            return;
+        }
+        try {
+            writeRecord(tick, Replay.FIRST_MOVE_RECORD + direction.ordinal());
+            moveCount++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Notes that the given number of ticks have been played, saving a keyframe of the game if one is due
+     *
+     * @param tick number of ticks played
+     */
+    public void recordTick(long tick) {
+        if (finished || tick % keyframeInterval != 0) {
+            return;
+        }
+        try {
+            if (keyframeCount == keyframeTicks.length) {
+                keyframeTicks = Arrays.copyOf(keyframeTicks, keyframeCount * 2);
+                keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframeCount * 2);
+            }
+            keyframeTicks[keyframeCount] = tick;
+            keyframeOffsets[keyframeCount] = out.size();
+            keyframeCount++;
+
+            stateBuffer.clear();
+            model.saveState(stateBuffer);
+            writeRecord(tick, Replay.KEYFRAME_RECORD);
+            Varints.write(out, stateBuffer.position());
+            out.write(stateBuffer.array(), 0, stateBuffer.position());
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Marks the end of the recording, writes the keyframe index and closes the file. Later calls have no effect.
+     *
+     * @param tick number of ticks played in the recorded game
+     */
+    public void finish(long tick) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            writeRecord(tick, Replay.END_RECORD);
+
+            int indexOffset = out.size();
+            for (int i = 0; i < keyframeCount; i++) {
+                out.writeLong(keyframeTicks[i]);
+                out.writeInt(keyframeOffsets[i]);
+            }
+            out.writeLong(tick);
+            out.writeInt(moveCount);
+            out.writeInt(indexOffset);
+            out.writeInt(keyframeCount);
+            out.writeInt(Replay.FOOTER_MAGIC);
+            out.close();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void writeRecord(long tick, int type) throws IOException {
+        Varints.write(out, (tick - lastTick) << Replay.TYPE_BITS | type);
+        lastTick = tick;
+    }
+
+    private void fail(IOException e) {
+        // stop recording rather than interrupt the game
+        System.out.println("Error writing replay " + path + ": " + e.getMessage());
+        finished = true;
+        try {
+            out.close();
+        } catch (IOException closeException) {
+            System.out.println("Error closing replay " + path + ": " + closeException.getMessage());
+        }
+    }
+}
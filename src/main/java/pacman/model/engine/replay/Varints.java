@@ -0,0 +1,45 @@
+package pacman.model.engine.replay;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * LEB128 encoding of unsigned numbers, seven bits per byte with the high bit marking that more bytes follow
+ */
+final class Varints {
+
+    private Varints() {
+    }
+
+    static void write(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * Reads a number from the position of the buffer, advancing it past the number
+     *
+     * @throws IOException if the buffer ends in the middle of the number or the number is malformed
+     */
+    static long read(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        try {
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("Replay ended in the middle of a number");
+        }
+        throw new IOException("Malformed number in replay");
+    }
+}
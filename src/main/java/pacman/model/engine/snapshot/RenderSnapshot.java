@@ -0,0 +1,333 @@
+package pacman.model.engine.snapshot;
+
+import pacman.model.engine.observer.GameState;
+import pacman.model.entity.Renderable;
+import pacman.model.entity.Sprite;
+import pacman.model.entity.dynamic.ghost.GhostMode;
+import pacman.model.level.observer.LevelEvent;
+
+import java.util.Arrays;
+
+/**
+ * Copy of everything needed to draw one simulation tick of the game.
+ * <p>
+ * Snapshots are filled in by the simulation thread and handed to the view through a
+ * {@link pacman.model.engine.concurrent.TripleBuffer}; readers only ever see a snapshot once it is complete,
+ * so none of its state changes while it is being drawn.
+ */
+public class RenderSnapshot {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The kinds of entities in a snapshot, which renderers may draw in different ways
+     */
+    public enum EntityType {
+        /**
+         * Entity that never moves or changes, such as a wall
+         */
+        STATIC,
+        /**
+         * Static entity that disappears once collected, such as a pellet
+         */
+        COLLECTABLE,
+        /**
+         * Entity that moves around the maze
+         */
+        DYNAMIC
+    }
+
+    private int entityCount;
+    private int[] entityIds;
+    private int[] versions;
+    private EntityType[] entityTypes;
+    private double[] xPositions;
+    private double[] yPositions;
+    private double[] previousXPositions;
+    private double[] previousYPositions;
+    private double[] widths;
+    private double[] heights;
+    private Sprite[] sprites;
+    private Renderable.Layer[] layers;
+    private int playerIndex;
+    private int ghostCount;
+    private GhostMode[] ghostModes;
+    private double worldWidth;
+    private double worldHeight;
+
+    private long tickCount;
+    private long tickTime;
+    private int score;
+    private int numLives;
+    private GameState gameState;
+    private boolean idle;
+    private final long[] eventCounts;
+
+    public RenderSnapshot() {
+        this.entityIds = new int[INITIAL_CAPACITY];
+        this.versions = new int[INITIAL_CAPACITY];
+        this.entityTypes = new EntityType[INITIAL_CAPACITY];
+        this.xPositions = new double[INITIAL_CAPACITY];
+        this.yPositions = new double[INITIAL_CAPACITY];
+        this.previousXPositions = new double[INITIAL_CAPACITY];
+        this.previousYPositions = new double[INITIAL_CAPACITY];
+        this.widths = new double[INITIAL_CAPACITY];
+        this.heights = new double[INITIAL_CAPACITY];
+        this.sprites = new Sprite[INITIAL_CAPACITY];
+        this.layers = new Renderable.Layer[INITIAL_CAPACITY];
+        this.eventCounts = new long[LevelEvent.values().length];
+        this.ghostModes = new GhostMode[4];
+    }
+
+    /**
+     * @return number of entities in the snapshot
+     */
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    /**
+     * Gets the stable id of an entity, which identifies the same renderable across snapshots
+     *
+     * @param index index of the entity in this snapshot
+     * @return id of the entity
+     */
+    public int getEntityId(int index) {
+        return entityIds[index];
+    }
+
+    /**
+     * Gets the version of an entity, which changes whenever the position, image or layer of the entity changes
+     *
+     * @param index index of the entity in this snapshot
+     * @return version of the entity
+     */
+    public int getVersion(int index) {
+        return versions[index];
+    }
+
+    public EntityType getEntityType(int index) {
+        return entityTypes[index];
+    }
+
+    public double getX(int index) {
+        return xPositions[index];
+    }
+
+    public double getY(int index) {
+        return yPositions[index];
+    }
+
+    /**
+     * @param index index of the entity in this snapshot
+     * @return x position of the entity one tick before this snapshot
+     */
+    public double getPreviousX(int index) {
+        return previousXPositions[index];
+    }
+
+    /**
+     * @param index index of the entity in this snapshot
+     * @return y position of the entity one tick before this snapshot
+     */
+    public double getPreviousY(int index) {
+        return previousYPositions[index];
+    }
+
+    /**
+     * Checks if the entity moved in the tick leading up to this snapshot
+     *
+     * @param index index of the entity in this snapshot
+     * @return true, if the previous and current positions differ
+     */
+    public boolean isMoving(int index) {
+        return previousXPositions[index] != xPositions[index] || previousYPositions[index] != yPositions[index];
+    }
+
+    /**
+     * Interpolates the x position of the entity between the previous and current tick
+     *
+     * @param index index of the entity in this snapshot
+     * @param alpha fraction of the tick that has elapsed, between 0 and 1
+     * @return interpolated x position
+     */
+    public double getInterpolatedX(int index, double alpha) {
+        return previousXPositions[index] + (xPositions[index] - previousXPositions[index]) * alpha;
+    }
+
+    /**
+     * Interpolates the y position of the entity between the previous and current tick
+     *
+     * @param index index of the entity in this snapshot
+     * @param alpha fraction of the tick that has elapsed, between 0 and 1
+     * @return interpolated y position
+     */
+    public double getInterpolatedY(int index, double alpha) {
+        return previousYPositions[index] + (yPositions[index] - previousYPositions[index]) * alpha;
+    }
+
+    public double getWidth(int index) {
+        return widths[index];
+    }
+
+    public double getHeight(int index) {
+        return heights[index];
+    }
+
+    public Sprite getSprite(int index) {
+        return sprites[index];
+    }
+
+    public Renderable.Layer getLayer(int index) {
+        return layers[index];
+    }
+
+    /**
+     * @return index of the player in this snapshot, or -1 if the snapshot has no player
+     */
+    public int getPlayerIndex() {
+        return playerIndex;
+    }
+
+    /**
+     * @return number of ghosts in this snapshot
+     */
+    public int getGhostCount() {
+        return ghostCount;
+    }
+
+    /**
+     * @param ghostNo number of the ghost, in the order the ghosts appear in the snapshot
+     * @return mode the ghost was in
+     */
+    public GhostMode getGhostMode(int ghostNo) {
+        return ghostModes[ghostNo];
+    }
+
+    /**
+     * @return width of the area covered by all entities in this snapshot
+     */
+    public double getWorldWidth() {
+        return worldWidth;
+    }
+
+    /**
+     * @return height of the area covered by all entities in this snapshot
+     */
+    public double getWorldHeight() {
+        return worldHeight;
+    }
+
+    /**
+     * @return number of ticks simulated before this snapshot was taken
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} at which the tick of this snapshot was due
+     */
+    public long getTickTime() {
+        return tickTime;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getNumLives() {
+        return numLives;
+    }
+
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    /**
+     * Gets how many times an event has happened since the game started. Readers compare this against the count
+     * they last saw, so no events are missed when snapshots are skipped.
+     *
+     * @param event event to count
+     * @return number of times the event has happened
+     */
+    public long getEventCount(LevelEvent event) {
+        return eventCounts[event.ordinal()];
+    }
+
+    /**
+     * @return true, if the game was idle when the snapshot was taken
+     */
+    public boolean isIdle() {
+        return idle;
+    }
+
+    void clear() {
+        entityCount = 0;
+        playerIndex = -1;
+        ghostCount = 0;
+        worldWidth = 0;
+        worldHeight = 0;
+    }
+
+    void addEntity(int entityId, int version, EntityType entityType, double x, double y, double previousX, double previousY, double width,
+                   double height, Sprite sprite, Renderable.Layer layer) {
+        if (entityCount == entityIds.length) {
+            grow();
+        }
+
+        entityIds[entityCount] = entityId;
+        versions[entityCount] = version;
+        entityTypes[entityCount] = entityType;
+        xPositions[entityCount] = x;
+        yPositions[entityCount] = y;
+        previousXPositions[entityCount] = previousX;
+        previousYPositions[entityCount] = previousY;
+        widths[entityCount] = width;
+        heights[entityCount] = height;
+        sprites[entityCount] = sprite;
+        layers[entityCount] = layer;
+        worldWidth = Math.max(worldWidth, x + width);
+        worldHeight = Math.max(worldHeight, y + height);
+        entityCount++;
+    }
+
+    void markPlayer() {
+        playerIndex = entityCount - 1;
+    }
+
+    void addGhostMode(GhostMode ghostMode) {
+        if (ghostCount == ghostModes.length) {
+            ghostModes = Arrays.copyOf(ghostModes, ghostCount * 2);
+        }
+        ghostModes[ghostCount++] = ghostMode;
+    }
+
+    void setEventCounts(long[] eventCounts) {
+        System.arraycopy(eventCounts, 0, this.eventCounts, 0, this.eventCounts.length);
+    }
+
+    void setGameStatus(long tickCount, long tickTime, int score, int numLives, GameState gameState, boolean idle) {
+        this.tickCount = tickCount;
+        this.tickTime = tickTime;
+        this.score = score;
+        this.numLives = numLives;
+        this.gameState = gameState;
+        this.idle = idle;
+    }
+
+    private void grow() {
+        int capacity = entityIds.length * 2;
+        entityIds = Arrays.copyOf(entityIds, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        entityTypes = Arrays.copyOf(entityTypes, capacity);
+        xPositions = Arrays.copyOf(xPositions, capacity);
+        yPositions = Arrays.copyOf(yPositions, capacity);
+        previousXPositions = Arrays.copyOf(previousXPositions, capacity);
+        previousYPositions = Arrays.copyOf(previousYPositions, capacity);
+        widths = Arrays.copyOf(widths, capacity);
+        heights = Arrays.copyOf(heights, capacity);
+        sprites = Arrays.copyOf(sprites, capacity);
+        layers = Arrays.copyOf(layers, capacity);
+    }
+}
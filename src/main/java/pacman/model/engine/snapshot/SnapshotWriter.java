@@ -0,0 +1,141 @@
+package pacman.model.engine.snapshot;
+
+import pacman.model.engine.GameEngine;
+import pacman.model.engine.observer.GameState;
+import pacman.model.engine.observer.GameStateObserver;
+import pacman.model.entity.Renderable;
+import pacman.model.entity.dynamic.DynamicEntity;
+import pacman.model.entity.dynamic.ghost.Ghost;
+import pacman.model.entity.dynamic.physics.Vector2D;
+import pacman.model.entity.dynamic.player.Controllable;
+import pacman.model.entity.staticentity.collectable.Collectable;
+import pacman.model.level.observer.LevelEvent;
+import pacman.model.level.observer.LevelStateObserver;
+import pacman.model.maze.MazeCreator;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copies the state of the model into render snapshots. Observes the model for the HUD values, so it must be
+ * registered with the game engine before the game is started.
+ */
+public class SnapshotWriter implements LevelStateObserver, GameStateObserver {
+
+    // moves further than this in one tick are teleports (respawns, resets) and must not be interpolated
+    private static final double MAX_INTERPOLATION_DISTANCE = MazeCreator.RESIZING_FACTOR;
+
+    private final Map<Renderable, Integer> entityIds;
+    private int[] versions;
+    private int score;
+    private int numLives;
+    private GameState gameState;
+    private final long[] eventCounts;
+
+    public SnapshotWriter() {
+        this.entityIds = new IdentityHashMap<>();
+        this.versions = new int[0];
+        this.gameState = GameState.READY;
+        this.eventCounts = new long[LevelEvent.values().length];
+    }
+
+    /**
+     * Overwrites the snapshot with the current state of the model
+     *
+     * @param model     model to copy
+     * @param tickCount number of ticks simulated so far
+     * @param tickTime  time at which the last tick was due
+     * @param snapshot  snapshot to fill in
+     */
+    public void write(GameEngine model, long tickCount, long tickTime, RenderSnapshot snapshot) {
+        snapshot.clear();
+
+        List<Renderable> renderables = model.getRenderables();
+        for (Renderable renderable : renderables) {
+            int entityId = getEntityId(renderable);
+            if (renderable.pollChanged()) {
+                versions[entityId]++;
+            }
+
+            Vector2D position = renderable.getPosition();
+            Vector2D previousPosition = getPreviousPosition(renderable, position);
+            snapshot.addEntity(
+                    entityId,
+                    versions[entityId],
+                    getEntityType(renderable),
+                    position.getX(),
+                    position.getY(),
+                    previousPosition.getX(),
+                    previousPosition.getY(),
+                    renderable.getWidth(),
+                    renderable.getHeight(),
+                    renderable.getSprite(),
+                    renderable.getLayer()
+            );
+            if (renderable instanceof Controllable) {
+                snapshot.markPlayer();
+            } else if (renderable instanceof Ghost) {
+                snapshot.addGhostMode(((Ghost) renderable).getGhostMode());
+            }
+        }
+
+        snapshot.setEventCounts(eventCounts);
+        snapshot.setGameStatus(tickCount, tickTime, score, numLives, gameState, model.isIdle());
+    }
+
+    private static RenderSnapshot.EntityType getEntityType(Renderable renderable) {
+        if (renderable instanceof DynamicEntity) {
+            return RenderSnapshot.EntityType.DYNAMIC;
+        } else if (renderable instanceof Collectable) {
+            return RenderSnapshot.EntityType.COLLECTABLE;
+        }
+        return RenderSnapshot.EntityType.STATIC;
+    }
+
+    private static Vector2D getPreviousPosition(Renderable renderable, Vector2D position) {
+        if (!(renderable instanceof DynamicEntity)) {
+            return position;
+        }
+
+        Vector2D previousPosition = ((DynamicEntity) renderable).getPositionBeforeLastUpdate();
+        if (Math.abs(previousPosition.getX() - position.getX()) > MAX_INTERPOLATION_DISTANCE ||
+                Math.abs(previousPosition.getY() - position.getY()) > MAX_INTERPOLATION_DISTANCE) {
+            return position;
+        }
+        return previousPosition;
+    }
+
+    private int getEntityId(Renderable renderable) {
+        Integer entityId = entityIds.get(renderable);
+        if (entityId == null) {
+            entityId = entityIds.size();
+            entityIds.put(renderable, entityId);
+            if (entityId == versions.length) {
+                versions = Arrays.copyOf(versions, Math.max(64, versions.length * 2));
+            }
+        }
+        return entityId;
+    }
+
+    @Override
+    public void updateNumLives(int numLives) {
+        this.numLives = numLives;
+    }
+
+    @Override
+    public void updateScore(int scoreChange) {
+        this.score += scoreChange;
+    }
+
+    @Override
+    public void updateGameState(GameState gameState) {
+        this.gameState = gameState;
+    }
+
+    @Override
+    public void updateLevelEvent(LevelEvent event) {
+        eventCounts[event.ordinal()]++;
+    }
+}
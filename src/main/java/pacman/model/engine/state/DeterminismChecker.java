@@ -0,0 +1,174 @@
+package pacman.model.engine.state;
+
+import pacman.model.engine.GameEngine;
+import pacman.model.entity.Renderable;
+import pacman.model.entity.dynamic.DynamicEntity;
+import pacman.model.entity.dynamic.ghost.Ghost;
+import pacman.model.entity.dynamic.physics.Direction;
+import pacman.model.entity.dynamic.player.MovementInvoker;
+import pacman.model.entity.staticentity.collectable.Collectable;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Plays the same moves in a reference and a candidate engine and reports the first tick where their state hashes
+ * diverge, along with the fields that differ.
+ * <p>
+ * Changes meant to leave the game behaving the same, such as ticking parts of a level in parallel, can be checked
+ * by building the candidate engine with the change and the reference engine without it, from the same seed.
+ */
+public class DeterminismChecker {
+
+    private final Supplier<GameEngine> referenceFactory;
+    private final Supplier<GameEngine> candidateFactory;
+    private final IntFunction<Direction> moves;
+
+    /**
+     * @param referenceFactory creates the engine the candidate is compared against
+     * @param candidateFactory creates the engine being checked
+     * @param moves            move the player requests before the given tick, or null for none
+     */
+    public DeterminismChecker(Supplier<GameEngine> referenceFactory, Supplier<GameEngine> candidateFactory,
+                              IntFunction<Direction> moves) {
+        this.referenceFactory = referenceFactory;
+        this.candidateFactory = candidateFactory;
+        this.moves = moves;
+    }
+
+    /**
+     * Creates random moves from a seed, changing direction every few ticks like a player would
+     *
+     * @param seed seed of the moves
+     * @return moves to request before each tick
+     */
+    public static IntFunction<Direction> randomMoves(long seed) {
+        return tick -> {
+            SplittableRandom random = new SplittableRandom(seed ^ StateHash.mix(tick));
+            return random.nextInt(8) == 0 ? Direction.values()[random.nextInt(Direction.values().length)] : null;
+        };
+    }
+
+    /**
+     * Runs both engines for the given number of ticks
+     *
+     * @param ticks number of ticks to run for
+     * @return the first divergence, or null if the engines agreed on every tick
+     */
+    public Divergence check(int ticks) {
+        GameEngine reference = referenceFactory.get();
+        GameEngine candidate = candidateFactory.get();
+        reference.startGame();
+        candidate.startGame();
+
+        for (int tick = 0; tick < ticks; tick++) {
+            Direction move = moves.apply(tick);
+            if (move != null) {
+                submit(reference, move);
+                submit(candidate, move);
+            }
+            reference.tick();
+            candidate.tick();
+
+            if (reference.getStateHash() != candidate.getStateHash()) {
+                return new Divergence(tick, diff(reference, candidate));
+            }
+        }
+        return null;
+    }
+
+    private static void submit(GameEngine engine, Direction direction) {
+        MovementInvoker invoker = engine.getMovementInvoker();
+        invoker.addCommand(invoker.getCommand(direction));
+    }
+
+    private static List<String> diff(GameEngine reference, GameEngine candidate) {
+        List<String> differences = new ArrayList<>();
+        Map<String, Object> referenceFields = describe(reference);
+        Map<String, Object> candidateFields = describe(candidate);
+        for (Map.Entry<String, Object> field : referenceFields.entrySet()) {
+            Object candidateValue = candidateFields.get(field.getKey());
+            if (!Objects.equals(field.getValue(), candidateValue)) {
+                differences.add(field.getKey() + ": " + field.getValue() + " != " + candidateValue);
+            }
+        }
+        for (String name : candidateFields.keySet()) {
+            if (!referenceFields.containsKey(name)) {
+                differences.add(name + ": missing != " + candidateFields.get(name));
+            }
+        }
+
+        // timers and other fields without getters only show up in the saved state
+        ByteBuffer referenceState = ByteBuffer.allocate(StateBuffers.MAX_STATE_SIZE);
+        ByteBuffer candidateState = ByteBuffer.allocate(StateBuffers.MAX_STATE_SIZE);
+        reference.saveState(referenceState);
+        candidate.saveState(candidateState);
+        int mismatch = referenceState.flip().mismatch(candidateState.flip());
+        if (mismatch >= 0) {
+            differences.add("saved state: first difference at byte " + mismatch);
+        }
+        return differences;
+    }
+
+    private static Map<String, Object> describe(GameEngine engine) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("levelNo", engine.getLevelNo());
+        fields.put("gameState", engine.getGameState());
+        fields.put("score", engine.getScore());
+        fields.put("numLives", engine.getNumLives());
+
+        List<Renderable> renderables = engine.getRenderables();
+        for (int i = 0; i < renderables.size(); i++) {
+            Renderable renderable = renderables.get(i);
+            String name = renderable.getClass().getSimpleName() + "[" + i + "].";
+            if (renderable instanceof DynamicEntity) {
+                DynamicEntity entity = (DynamicEntity) renderable;
+                fields.put(name + "position", entity.getPosition().toString());
+                fields.put(name + "previousPosition", entity.getPositionBeforeLastUpdate().toString());
+                fields.put(name + "direction", entity.getDirection());
+                fields.put(name + "sprite", entity.getSprite());
+            }
+            if (renderable instanceof Ghost) {
+                fields.put(name + "ghostMode", ((Ghost) renderable).getGhostMode());
+            }
+            if (renderable instanceof Collectable) {
+                fields.put(name + "collectable", ((Collectable) renderable).isCollectable());
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * First tick where the engines diverged and the differences found after it
+     */
+    public static class Divergence {
+        private final int tick;
+        private final List<String> differences;
+
+        public Divergence(int tick, List<String> differences) {
+            this.tick = tick;
+            this.differences = differences;
+        }
+
+        public int getTick() {
+            return tick;
+        }
+
+        public List<String> getDifferences() {
+            return differences;
+        }
+
+        @Override
+        public String toString() {
+            return "Diverged at tick " + tick + System.lineSeparator() + "  " +
+                    String.join(System.lineSeparator() + "  ", differences);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package pacman.model.engine.state;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Seeded SplitMix64 random number generator whose state can be saved and restored with the game.
+ * <p>
+ * Independent streams are split off a root stream, so each consumer of randomness draws from its own sequence and
+ * the order consumers draw in does not affect the others.
+ */
+public class RandomStream implements Restorable {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    public RandomStream(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Splits off a new stream, seeded from the next value of this stream
+     *
+     * @return independent stream
+     */
+    public RandomStream split() {
+        return new RandomStream(nextLong());
+    }
+
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return StateHash.mix(state);
+    }
+
+    /**
+     * @param bound upper bound, exclusive, must be positive
+     * @return random value between 0 and bound
+     */
+    public int nextInt(int bound) {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        buffer.putLong(state);
+    }
+
+    @Override
+    public void restoreState(ByteBuffer buffer) {
+        this.state = buffer.getLong();
+    }
+}
@@ -0,0 +1,23 @@
+package pacman.model.engine.state;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Part of the model whose mutable state can be saved into a buffer and later restored in place
+ */
+public interface Restorable {
+
+    /**
+     * Writes the mutable state into the buffer
+     *
+     * @param buffer buffer to write to
+     */
+    void saveState(ByteBuffer buffer);
+
+    /**
+     * Overwrites the mutable state with state read from the buffer, as written by {@link #saveState(ByteBuffer)}
+     *
+     * @param buffer buffer to read from
+     */
+    void restoreState(ByteBuffer buffer);
+}
@@ -0,0 +1,254 @@
+package pacman.model.engine.state;
+
+import pacman.model.engine.GameEngine;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Keeps the recent history of a game so it can be rewound tick by tick, in memory fixed when it is created.
+ * <p>
+ * Every tick, the saved state of the game is stored as its difference from the state of the previous tick: runs of
+ * changed bytes, XORed with the previous bytes. As the state layout stays the same between ticks, this only holds
+ * the moved entities, collected pellets and changed timers. Every keyframe interval, or whenever the layout changes,
+ * the full state is stored instead, so any tick can be rebuilt from the keyframe before it and at most one
+ * interval of differences.
+ * <p>
+ * Entries live in a ring of bytes, with the oldest entries dropped to make room for new ones.
+ */
+public class RewindBuffer {
+
+    private static final int DEFAULT_KEYFRAME_INTERVAL = 30;
+    // unchanged bytes between two changed runs below which the runs are merged, as a run costs two extra bytes
+    private static final int MIN_GAP = 3;
+
+    private final int keyframeInterval;
+    private final byte[] data;
+    private final int[] entryOffsets;
+    private final int[] entryLengths;
+    private final boolean[] entryKeyframes;
+    private int oldestEntry;
+    private int entryCount;
+    private int writeOffset;
+    private int ticksSinceKeyframe;
+
+    // state of the newest entry, and scratch space for saving or rebuilding states
+    private byte[] currentState;
+    private int currentLength;
+    private byte[] scratchState;
+    private final ByteBuffer encodeBuffer;
+    private long lastCapturedHash;
+
+    /**
+     * @param maxTicks         number of ticks that can be rewound at most
+     * @param keyframeInterval ticks between keyframes
+     * @param capacity         bytes available for stored states
+     */
+    public RewindBuffer(int maxTicks, int keyframeInterval, int capacity) {
+        this.keyframeInterval = keyframeInterval;
+        this.data = new byte[capacity];
+        this.entryOffsets = new int[maxTicks + 1];
+        this.entryLengths = new int[maxTicks + 1];
+        this.entryKeyframes = new boolean[maxTicks + 1];
+        this.currentState = new byte[StateBuffers.MAX_STATE_SIZE];
+        this.scratchState = new byte[StateBuffers.MAX_STATE_SIZE];
+        this.encodeBuffer = ByteBuffer.allocate(StateBuffers.MAX_STATE_SIZE);
+    }
+
+    /**
+     * Creates a buffer able to rewind the given number of seconds of play, sized for the states of typical mazes
+     *
+     * @param seconds seconds of play that can be rewound at most
+     * @return rewind buffer
+     */
+    public static RewindBuffer forSeconds(double seconds) {
+        int maxTicks = GameEngine.secondsToTicks(seconds);
+        // room for every tick to be a full state of the default maze, although most ticks take a tenth of that
+        return new RewindBuffer(maxTicks, DEFAULT_KEYFRAME_INTERVAL, maxTicks * 640);
+    }
+
+    /**
+     * @return bytes of memory held by the buffer, fixed when it is created
+     */
+    public long getMemoryFootprint() {
+        return data.length + entryOffsets.length * 9L + currentState.length * 2L + encodeBuffer.capacity();
+    }
+
+    /**
+     * @return number of ticks that can currently be rewound
+     */
+    public int getRewindableTicks() {
+        for (int i = 0; i < entryCount; i++) {
+            if (entryKeyframes[entryIndex(i)]) {
+                return entryCount - 1 - i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Stores the state of the game after a tick. States that did not change since the last capture, such as those
+     * of a finished game, are skipped.
+     *
+     * @param model game to capture
+     */
+    public void capture(GameEngine model) {
+        long hash = model.getStateHash();
+        if (entryCount > 0 && hash == lastCapturedHash) {
+            return;
+        }
+        lastCapturedHash = hash;
+
+        ByteBuffer state = ByteBuffer.wrap(scratchState);
+        model.saveState(state);
+        int length = state.position();
+
+        boolean keyframe = entryCount == 0 || length != currentLength || ticksSinceKeyframe + 1 >= keyframeInterval;
+        if (!keyframe) {
+            encodeDelta(scratchState, currentState, length);
+            // a delta larger than the state itself is not worth keeping
+            keyframe = encodeBuffer.position() >= length;
+        }
+
+        if (keyframe) {
+            append(scratchState, length, true);
+            ticksSinceKeyframe = 0;
+        } else {
+            append(encodeBuffer.array(), encodeBuffer.position(), false);
+            ticksSinceKeyframe++;
+        }
+
+        byte[] previousState = currentState;
+        this.currentState = scratchState;
+        this.scratchState = previousState;
+        this.currentLength = length;
+    }
+
+    /**
+     * Rewinds the game by one captured tick, dropping the newest tick from the buffer
+     *
+     * @param model game to rewind
+     * @return false, if there is no earlier tick left to rewind to
+     */
+    public boolean stepBack(GameEngine model) {
+        if (getRewindableTicks() == 0) {
+            return false;
+        }
+
+        // drop the newest entry, reclaiming its space
+        int newest = entryIndex(entryCount - 1);
+        writeOffset = entryOffsets[newest];
+        entryCount--;
+
+        int keyframe = entryCount - 1;
+        while (!entryKeyframes[entryIndex(keyframe)]) {
+            keyframe--;
+        }
+        int keyframeEntry = entryIndex(keyframe);
+        currentLength = entryLengths[keyframeEntry];
+        System.arraycopy(data, entryOffsets[keyframeEntry], currentState, 0, currentLength);
+        for (int i = keyframe + 1; i < entryCount; i++) {
+            applyDelta(entryIndex(i));
+        }
+        ticksSinceKeyframe = entryCount - 1 - keyframe;
+
+        model.restoreState(ByteBuffer.wrap(currentState, 0, currentLength));
+        lastCapturedHash = model.getStateHash();
+        return true;
+    }
+
+    /**
+     * Drops every stored tick
+     */
+    public void clear() {
+        entryCount = 0;
+        oldestEntry = 0;
+        writeOffset = 0;
+        ticksSinceKeyframe = 0;
+    }
+
+    private int entryIndex(int age) {
+        return (oldestEntry + age) % entryOffsets.length;
+    }
+
+    private void encodeDelta(byte[] state, byte[] previous, int length) {
+        encodeBuffer.clear();
+        int runEnd = 0;
+        int i = 0;
+        while (i < length) {
+            if (state[i] == previous[i]) {
+                i++;
+                continue;
+            }
+
+            int runStart = i;
+            int lastChange = i;
+            while (i < length && i - lastChange <= MIN_GAP) {
+                if (state[i] != previous[i]) {
+                    lastChange = i;
+                }
+                i++;
+            }
+            int runLength = lastChange + 1 - runStart;
+            if (encodeBuffer.remaining() < runLength + 10) {
+                // cannot be smaller than the state anyway
+                encodeBuffer.position(encodeBuffer.limit());
+                return;
+            }
+
+            StateBuffers.putVarint(encodeBuffer, runStart - runEnd);
+            StateBuffers.putVarint(encodeBuffer, runLength);
+            for (int j = runStart; j <= lastChange; j++) {
+                encodeBuffer.put((byte) (state[j] ^ previous[j]));
+            }
+            runEnd = lastChange + 1;
+            i = runEnd;
+        }
+    }
+
+    private void applyDelta(int entry) {
+        ByteBuffer delta = ByteBuffer.wrap(data, entryOffsets[entry], entryLengths[entry]);
+        int position = 0;
+        while (delta.hasRemaining()) {
+            position += StateBuffers.getVarint(delta);
+            int runLength = StateBuffers.getVarint(delta);
+            for (int j = 0; j < runLength; j++) {
+                currentState[position++] ^= delta.get();
+            }
+        }
+    }
+
+    private void append(byte[] bytes, int length, boolean keyframe) {
+        if (length > data.length) {
+            throw new IllegalStateException("Game state of " + length + " bytes does not fit the rewind buffer");
+        }
+
+        if (writeOffset + length > data.length) {
+            // entries in the tail left unused are the oldest, drop them before wrapping around
+            while (entryCount > 0 && entryOffsets[oldestEntry] >= writeOffset) {
+                dropOldest();
+            }
+            writeOffset = 0;
+        }
+        while (entryCount > 0 && (entryCount == entryOffsets.length ||
+                overlaps(oldestEntry, writeOffset, length))) {
+            dropOldest();
+        }
+
+        int entry = entryIndex(entryCount);
+        System.arraycopy(bytes, 0, data, writeOffset, length);
+        entryOffsets[entry] = writeOffset;
+        entryLengths[entry] = length;
+        entryKeyframes[entry] = keyframe;
+        entryCount++;
+        writeOffset += length;
+    }
+
+    private boolean overlaps(int entry, int offset, int length) {
+        return entryOffsets[entry] < offset + length && offset < entryOffsets[entry] + entryLengths[entry];
+    }
+
+    private void dropOldest() {
+        oldestEntry = (oldestEntry + 1) % entryOffsets.length;
+        entryCount--;
+    }
+}
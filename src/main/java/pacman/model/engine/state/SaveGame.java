@@ -0,0 +1,91 @@
+package pacman.model.engine.state;
+
+import pacman.model.engine.GameEngine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Saves games in progress to small binary files and resumes them.
+ * <p>
+ * A save file holds the hash of the map the game was played on and the saved state of the game. Resuming restores
+ * the state into the maze of an already started game, so the map is not read again.
+ */
+public final class SaveGame {
+
+    private static final int MAGIC = 0x504D5356;
+    private static final int HEADER_SIZE = 16;
+
+    private SaveGame() {
+    }
+
+    /**
+     * Writes the game to the file, replacing it atomically so a crash never leaves a partly written save behind.
+     * Only to be called between ticks, from the thread ticking the game.
+     *
+     * @param model game to save
+     * @param path  path of the save file
+     * @throws IOException if the file could not be written
+     */
+    public static void write(GameEngine model, Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + StateBuffers.MAX_STATE_SIZE);
+        buffer.putInt(MAGIC);
+        buffer.putLong(model.getMapHash());
+        buffer.putInt(0);
+        model.saveState(buffer);
+        buffer.putInt(HEADER_SIZE - 4, buffer.position() - HEADER_SIZE);
+        buffer.flip();
+
+        Path directory = path.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Restores the game saved in the file into the given game, which must be started and played on the same map.
+     * Only to be called between ticks, from the thread ticking the game.
+     *
+     * @param model game to restore into
+     * @param path  path of the save file
+     * @throws IOException if the file could not be read, or was saved on another map
+     */
+    public static void read(GameEngine model, Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException(path + " is not a save file");
+        }
+        if (buffer.getLong() != model.getMapHash()) {
+            throw new IOException(path + " was saved on a different map");
+        }
+        int length = buffer.getInt();
+        if (length != buffer.remaining()) {
+            throw new IOException(path + " is incomplete");
+        }
+
+        try {
+            model.restoreState(buffer);
+        } catch (RuntimeException e) {
+            throw new IOException(path + " could not be restored: " + e.getMessage(), e);
+        }
+    }
+}
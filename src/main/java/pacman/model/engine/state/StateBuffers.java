@@ -0,0 +1,121 @@
+package pacman.model.engine.state;
+
+import pacman.model.entity.dynamic.physics.Vector2D;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Helpers for compactly writing common model values into state buffers.
+ * <p>
+ * Positions and speeds are usually multiples of a half pixel, so they are written as floats whenever that is exact,
+ * falling back to doubles otherwise.
+ */
+public final class StateBuffers {
+
+    /**
+     * Upper bound of the size of a saved game state, enough for mazes of thousands of pellets
+     */
+    public static final int MAX_STATE_SIZE = 16 * 1024;
+
+    private static final byte NULL = 0;
+    private static final byte FLOAT = 1;
+    private static final byte DOUBLE = 2;
+
+    private StateBuffers() {
+    }
+
+    public static void putNumber(ByteBuffer buffer, double value) {
+        if ((double) (float) value == value) {
+            buffer.put(FLOAT).putFloat((float) value);
+        } else {
+            buffer.put(DOUBLE).putDouble(value);
+        }
+    }
+
+    public static double getNumber(ByteBuffer buffer) {
+        return buffer.get() == FLOAT ? buffer.getFloat() : buffer.getDouble();
+    }
+
+    public static void putVector(ByteBuffer buffer, Vector2D vector) {
+        if (vector == null) {
+            buffer.put(NULL);
+        } else if ((double) (float) vector.getX() == vector.getX() && (double) (float) vector.getY() == vector.getY()) {
+            buffer.put(FLOAT).putFloat((float) vector.getX()).putFloat((float) vector.getY());
+        } else {
+            buffer.put(DOUBLE).putDouble(vector.getX()).putDouble(vector.getY());
+        }
+    }
+
+    public static Vector2D getVector(ByteBuffer buffer) {
+        return switch (buffer.get()) {
+            case NULL -> null;
+            case FLOAT -> new Vector2D(buffer.getFloat(), buffer.getFloat());
+            default -> new Vector2D(buffer.getDouble(), buffer.getDouble());
+        };
+    }
+
+    /**
+     * Writes an enum constant, which may be null, as a single byte
+     */
+    public static void putEnum(ByteBuffer buffer, Enum<?> value) {
+        buffer.put((byte) (value == null ? -1 : value.ordinal()));
+    }
+
+    public static <E extends Enum<E>> E getEnum(ByteBuffer buffer, E[] values) {
+        byte ordinal = buffer.get();
+        return ordinal < 0 ? null : values[ordinal];
+    }
+
+    public static void putBoolean(ByteBuffer buffer, boolean value) {
+        buffer.put((byte) (value ? 1 : 0));
+    }
+
+    public static boolean getBoolean(ByteBuffer buffer) {
+        return buffer.get() != 0;
+    }
+
+    /**
+     * Writes a non-negative number in as few bytes as possible, seven bits per byte
+     */
+    public static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Writes a non-negative number in as few bytes as possible, seven bits per byte, for numbers that may not fit in
+     * an int
+     */
+    public static void putVarlong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    public static long getVarlong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
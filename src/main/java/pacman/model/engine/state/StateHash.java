@@ -0,0 +1,72 @@
+package pacman.model.engine.state;
+
+import java.util.SplittableRandom;
+
+/**
+ * Helpers for Zobrist-style hashing of the game state.
+ * <p>
+ * A state hash is the XOR of one key per feature of the state, so a feature changing only costs XORing out its old
+ * key and XORing in its new one. Features with few values, such as pellets, use keys from a fixed random table;
+ * features with continuous values, such as positions, derive their keys by mixing the value into the feature key.
+ * <p>
+ * Features must not share identifiers, or equal values would cancel each other out. Each family of counters takes a
+ * block of 0x100 identifiers below {@link #ENTITY_FEATURES} (level 0x200, frightened mode 0x300, movement invoker
+ * 0x400, engine 0x500), and the moving entities take the identifiers from {@link #ENTITY_FEATURES} up.
+ */
+public final class StateHash {
+
+    /**
+     * First feature identifier of the moving entities, all other features lie below it
+     */
+    public static final long ENTITY_FEATURES = 0x1000;
+
+    private static final long TABLE_SEED = 0x5DEECE66DL;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private StateHash() {
+    }
+
+    /**
+     * Creates a table of random keys, the same for every game
+     *
+     * @param count number of keys
+     * @param salt  distinguishes tables of different features
+     * @return table of keys
+     */
+    public static long[] createKeys(int count, long salt) {
+        SplittableRandom random = new SplittableRandom(TABLE_SEED ^ mix(salt));
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = random.nextLong();
+        }
+        return keys;
+    }
+
+    /**
+     * Derives the key of a feature having the given value
+     *
+     * @param feature identifies the feature, e.g. an entity index combined with a field number
+     * @param value   value of the feature
+     * @return key of the feature value
+     */
+    public static long key(long feature, long value) {
+        return mix(mix(feature * GOLDEN_GAMMA) ^ value);
+    }
+
+    public static long key(long feature, double value) {
+        return key(feature, Double.doubleToLongBits(value));
+    }
+
+    public static long key(long feature, Enum<?> value) {
+        return key(feature, value == null ? -1 : value.ordinal());
+    }
+
+    /**
+     * SplitMix64 finaliser, spreading every input bit over the whole output
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,216 @@
+package pacman.model.engine.telemetry;
+
+import pacman.model.engine.state.StateBuffers;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Reads a telemetry file written by {@link TelemetryRecorder}.
+ * <p>
+ * The file is memory-mapped and its chunks indexed when it is opened, so iterating a column only decodes the bytes
+ * of that column and skips over the others.
+ */
+public class TelemetryReader {
+
+    static final int MAGIC = 0x504D544C;
+    static final byte VERSION = 1;
+    // number of rows of a chunk, which is followed by the encoded length of each of its columns
+    static final int CHUNK_HEADER_SIZE = 4;
+
+    private final MappedByteBuffer file;
+    private final long seed;
+    private final List<String> columnNames;
+    private final int[] chunkRows;
+    // offset of every column of every chunk, indexed by chunk and then column, plus the end of the last chunk
+    private final int[] columnOffsets;
+    private final long rowCount;
+
+    private TelemetryReader(MappedByteBuffer file, long seed, List<String> columnNames, int[] chunkRows,
+                            int[] columnOffsets, long rowCount) {
+        this.file = file;
+        this.seed = seed;
+        this.columnNames = columnNames;
+        this.chunkRows = chunkRows;
+        this.columnOffsets = columnOffsets;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Maps a telemetry file and indexes its chunks. A chunk cut short, such as by a crash, ends the file.
+     *
+     * @param path path of the telemetry file
+     * @return reader of the file
+     * @throws IOException if the file could not be read or is not a telemetry file
+     */
+    public static TelemetryReader open(Path path) throws IOException {
+        MappedByteBuffer file;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            if (file.getInt() != MAGIC || file.get() != VERSION) {
+                throw new IOException(path + " is not a telemetry file");
+            }
+            long seed = file.getLong();
+            int columnCount = file.getShort();
+            List<String> columnNames = new ArrayList<>(columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                byte[] name = new byte[file.get()];
+                file.get(name);
+                columnNames.add(new String(name, StandardCharsets.UTF_8));
+            }
+
+            int[] chunkRows = new int[16];
+            int[] columnOffsets = new int[16 * columnCount + 1];
+            int chunkCount = 0;
+            long rowCount = 0;
+            int offset = file.position();
+            while (file.limit() - offset >= CHUNK_HEADER_SIZE + columnCount * 4) {
+                int rows = file.getInt(offset);
+                int columnOffset = offset + CHUNK_HEADER_SIZE + columnCount * 4;
+                if (chunkCount == chunkRows.length) {
+                    chunkRows = Arrays.copyOf(chunkRows, chunkCount * 2);
+                    columnOffsets = Arrays.copyOf(columnOffsets, chunkCount * 2 * columnCount + 1);
+                }
+                for (int column = 0; column < columnCount; column++) {
+                    columnOffsets[chunkCount * columnCount + column] = columnOffset;
+                    columnOffset += file.getInt(offset + CHUNK_HEADER_SIZE + column * 4);
+                }
+                if (rows <= 0 || columnOffset > file.limit() || columnOffset < offset) {
+                    break;
+                }
+                chunkRows[chunkCount++] = rows;
+                rowCount += rows;
+                offset = columnOffset;
+            }
+            columnOffsets[chunkCount * columnCount] = offset;
+
+            return new TelemetryReader(file, seed, Collections.unmodifiableList(columnNames),
+                    Arrays.copyOf(chunkRows, chunkCount), Arrays.copyOf(columnOffsets, chunkCount * columnCount + 1),
+                    rowCount);
+        } catch (BufferUnderflowException e) {
+            throw new IOException(path + " has an incomplete header");
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return names of the columns, in the order they are stored
+     */
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Passes every value of a column to the consumer, in row order
+     *
+     * @param name     name of the column
+     * @param consumer consumer of the values
+     */
+    public void forEach(String name, IntConsumer consumer) {
+        ColumnCursor cursor = cursor(name);
+        while (cursor.hasNext()) {
+            consumer.accept(cursor.next());
+        }
+    }
+
+    /**
+     * Reads every value of a column
+     *
+     * @param name name of the column
+     * @return values of the column, in row order
+     */
+    public int[] readColumn(String name) {
+        int[] values = new int[Math.toIntExact(rowCount)];
+        ColumnCursor cursor = cursor(name);
+        for (int row = 0; cursor.hasNext(); row++) {
+            values[row] = cursor.next();
+        }
+        return values;
+    }
+
+    /**
+     * Starts iterating the values of a column
+     *
+     * @param name name of the column
+     * @return cursor before the first value of the column
+     */
+    public ColumnCursor cursor(String name) {
+        int column = columnNames.indexOf(name);
+        if (column < 0) {
+            throw new IllegalArgumentException("No telemetry column " + name);
+        }
+        return new ColumnCursor(column);
+    }
+
+    /**
+     * Decodes the values of one column, chunk by chunk
+     */
+    public class ColumnCursor {
+        private final int column;
+        private final ByteBuffer data;
+        private int chunk = -1;
+        private int rowsLeft;
+        private int unchangedLeft;
+        private int value;
+
+        private ColumnCursor(int column) {
+            this.column = column;
+            this.data = file.duplicate();
+        }
+
+        public boolean hasNext() {
+            while (rowsLeft == 0) {
+                if (chunk + 1 == chunkRows.length) {
+                    return false;
+                }
+                chunk++;
+                rowsLeft = chunkRows[chunk];
+                data.position(columnOffsets[chunk * columnNames.size() + column]);
+                value = 0;
+                unchangedLeft = 0;
+            }
+            return true;
+        }
+
+        public int next() {
+            if (!hasNext()) {
+                throw new IllegalStateException("No more values in column " + columnNames.get(column));
+            }
+            rowsLeft--;
+            if (unchangedLeft > 0) {
+                unchangedLeft--;
+                return value;
+            }
+
+            long encoded = StateBuffers.getVarlong(data);
+            if ((encoded & 1) != 0) {
+                unchangedLeft = (int) (encoded >>> 1) - 1;
+                return value;
+            }
+            int delta = (int) (encoded >>> 1);
+            value += (delta >>> 1) ^ -(delta & 1);
+            return value;
+        }
+    }
+}
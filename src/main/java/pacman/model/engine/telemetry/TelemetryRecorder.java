@@ -0,0 +1,337 @@
+package pacman.model.engine.telemetry;
+
+import pacman.model.engine.GameEngine;
+import pacman.model.engine.observer.GameState;
+import pacman.model.engine.state.StateBuffers;
+import pacman.model.entity.Renderable;
+import pacman.model.entity.dynamic.ghost.Ghost;
+import pacman.model.entity.dynamic.physics.Vector2D;
+import pacman.model.entity.dynamic.player.Controllable;
+import pacman.model.level.observer.LevelEvent;
+import pacman.model.level.observer.LevelStateObserver;
+import pacman.model.maze.MazeCreator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records a row of telemetry for every tick of a game into a columnar file, for offline analysis.
+ * <p>
+ * Rows are collected column by column into pooled chunks on the simulation thread, and encoded and written by a
+ * background thread. Each column of a chunk is stored as the differences between consecutive values, as zigzag
+ * variable length numbers, with runs of unchanged values collapsed into a single number, so columns that rarely
+ * change take a few bytes per chunk.
+ * When every chunk is in use, because writing has fallen behind, rows are dropped instead of stalling the game.
+ * <p>
+ * A row holds the tick, level, game state, score and lives, the tile of Pac-Man, the tile and mode of every ghost, and
+ * how many of each {@link LevelEvent} happened during the tick. The file is read back by {@link TelemetryReader}.
+ */
+public class TelemetryRecorder implements LevelStateObserver {
+
+    static final int CHUNK_ROWS = 1024;
+    private static final int CHUNK_POOL_SIZE = 4;
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final Path path;
+    private final long seed;
+    private final BlockingQueue<Chunk> freeChunks;
+    private final BlockingQueue<Chunk> pendingChunks;
+    private final AtomicLong droppedRows;
+    private final int[] eventCounts;
+    private Thread writer;
+    private volatile boolean running;
+
+    // known after the first row, as the number of ghosts depends on the maze
+    private List<String> columnNames;
+    private int ghostCount;
+    private Chunk chunk;
+
+    /**
+     * Chunk of rows, stored column by column
+     */
+    private static final class Chunk {
+        private final int[][] columns;
+        private int rowCount;
+
+        private Chunk(int columnCount) {
+            this.columns = new int[columnCount][CHUNK_ROWS];
+        }
+    }
+
+    /**
+     * Creates a recorder for the game, which should be registered with the game as a level state observer before it
+     * is started, to count the events of each tick
+     *
+     * @param path  path of the telemetry file
+     * @param model game to record
+     */
+    public TelemetryRecorder(Path path, GameEngine model) {
+        this.path = path;
+        this.seed = model.getSeed();
+        this.freeChunks = new ArrayBlockingQueue<>(CHUNK_POOL_SIZE);
+        this.pendingChunks = new ArrayBlockingQueue<>(CHUNK_POOL_SIZE);
+        this.droppedRows = new AtomicLong();
+        this.eventCounts = new int[LevelEvent.values().length];
+    }
+
+    /**
+     * Records a row for the current state of the game. Only to be called from the thread ticking the game.
+     *
+     * @param model     game to record
+     * @param tickCount number of ticks simulated so far
+     */
+    public void record(GameEngine model, long tickCount) {
+        if (columnNames == null) {
+            start(model);
+        } else if (!running) {
+            return;
+        }
+
+        if (chunk == null) {
+            chunk = freeChunks.poll();
+            if (chunk == null) {
+                droppedRows.incrementAndGet();
+                clearEvents();
+                return;
+            }
+            chunk.rowCount = 0;
+        }
+
+        int[][] columns = chunk.columns;
+        int row = chunk.rowCount;
+        columns[0][row] = (int) tickCount;
+        columns[1][row] = model.getLevelNo();
+        columns[2][row] = model.getGameState().ordinal();
+        columns[3][row] = model.getScore();
+        columns[4][row] = model.getNumLives();
+        columns[5][row] = -1;
+        columns[6][row] = -1;
+
+        int column = 7;
+        int ghostColumnsEnd = column + ghostCount * 3;
+        for (Renderable renderable : model.getRenderables()) {
+            if (renderable instanceof Controllable) {
+                columns[5][row] = getTile(renderable, true);
+                columns[6][row] = getTile(renderable, false);
+            } else if (renderable instanceof Ghost && column < ghostColumnsEnd) {
+                columns[column++][row] = getTile(renderable, true);
+                columns[column++][row] = getTile(renderable, false);
+                columns[column++][row] = ((Ghost) renderable).getGhostMode().ordinal();
+            }
+        }
+        for (; column < ghostColumnsEnd; column++) {
+            columns[column][row] = -1;
+        }
+
+        for (int i = 0; i < eventCounts.length; i++) {
+            columns[ghostColumnsEnd + i][row] = eventCounts[i];
+        }
+        clearEvents();
+
+        chunk.rowCount++;
+        if (chunk.rowCount == CHUNK_ROWS) {
+            submitChunk();
+        }
+    }
+
+    /**
+     * Writes the rows recorded so far and waits for the file to be closed. Only to be called from the thread ticking
+     * the game.
+     */
+    public void finish() {
+        if (!running) {
+            return;
+        }
+        if (chunk != null && chunk.rowCount > 0) {
+            submitChunk();
+        }
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return number of rows dropped because writing fell behind
+     */
+    public long getDroppedRows() {
+        return droppedRows.get();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public void updateNumLives(int numLives) {
+    }
+
+    @Override
+    public void updateGameState(GameState gameState) {
+    }
+
+    @Override
+    public void updateScore(int scoreChange) {
+    }
+
+    @Override
+    public void updateLevelEvent(LevelEvent event) {
+        eventCounts[event.ordinal()]++;
+    }
+
+    private void start(GameEngine model) {
+        columnNames = new ArrayList<>(List.of("tick", "level", "gameState", "score", "lives", "player.tileX",
+                "player.tileY"));
+        for (Renderable renderable : model.getRenderables()) {
+            if (renderable instanceof Ghost) {
+                columnNames.add("ghost" + ghostCount + ".tileX");
+                columnNames.add("ghost" + ghostCount + ".tileY");
+                columnNames.add("ghost" + ghostCount + ".mode");
+                ghostCount++;
+            }
+        }
+        for (LevelEvent event : LevelEvent.values()) {
+            columnNames.add("events." + event.name());
+        }
+
+        for (int i = 0; i < CHUNK_POOL_SIZE; i++) {
+            freeChunks.add(new Chunk(columnNames.size()));
+        }
+        running = true;
+        writer = new Thread(this::write, "pacman-telemetry");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private void submitChunk() {
+        if (!pendingChunks.offer(chunk)) {
+            droppedRows.addAndGet(chunk.rowCount);
+            freeChunks.offer(chunk);
+        }
+        chunk = null;
+    }
+
+    private void clearEvents() {
+        for (int i = 0; i < eventCounts.length; i++) {
+            eventCounts[i] = 0;
+        }
+    }
+
+    private static int getTile(Renderable renderable, boolean horizontal) {
+        Vector2D position = renderable.getPosition();
+        double centre = horizontal ? position.getX() + renderable.getWidth() / 2 :
+                position.getY() + renderable.getHeight() / 2;
+        return (int) Math.floor(centre / MazeCreator.RESIZING_FACTOR);
+    }
+
+    private void write() {
+        ByteBuffer buffer = ByteBuffer.allocate(getMaxChunkSize(columnNames.size()));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeHeader(channel, buffer);
+
+            while (running || !pendingChunks.isEmpty()) {
+                Chunk pending = pendingChunks.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (pending == null) {
+                    continue;
+                }
+                encode(pending.columns, pending.rowCount, buffer);
+                freeChunks.offer(pending);
+                writeFully(channel, buffer);
+            }
+        } catch (IOException e) {
+            System.out.println("Error writing telemetry " + path + ": " + e.getMessage());
+            running = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeHeader(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        putHeader(buffer, seed, columnNames);
+        buffer.flip();
+        writeFully(channel, buffer);
+    }
+
+    /**
+     * Writes the header of a telemetry file at the position of the buffer
+     */
+    static void putHeader(ByteBuffer buffer, long seed, List<String> columnNames) {
+        buffer.putInt(TelemetryReader.MAGIC);
+        buffer.put(TelemetryReader.VERSION);
+        buffer.putLong(seed);
+        buffer.putShort((short) columnNames.size());
+        for (String name : columnNames) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            buffer.put((byte) bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    /**
+     * @return the most bytes a chunk with the given number of columns can take once encoded
+     */
+    static int getMaxChunkSize(int columnCount) {
+        // a zigzag encoded difference takes at most five bytes
+        return TelemetryReader.CHUNK_HEADER_SIZE + columnCount * 4 + columnCount * CHUNK_ROWS * 5;
+    }
+
+    /**
+     * Encodes the first rows of the columns as a chunk, replacing the contents of the buffer and leaving it flipped
+     * for writing
+     */
+    static void encode(int[][] columns, int rowCount, ByteBuffer buffer) {
+        int columnCount = columns.length;
+        buffer.clear();
+        buffer.putInt(rowCount);
+        int lengthsStart = buffer.position();
+        buffer.position(lengthsStart + columnCount * 4);
+
+        for (int column = 0; column < columnCount; column++) {
+            int start = buffer.position();
+            int[] values = columns[column];
+            int previous = 0;
+            int unchanged = 0;
+            for (int row = 0; row < rowCount; row++) {
+                int delta = values[row] - previous;
+                previous = values[row];
+                if (delta == 0) {
+                    unchanged++;
+                    continue;
+                }
+                if (unchanged > 0) {
+                    StateBuffers.putVarint(buffer, (unchanged << 1) | 1);
+                    unchanged = 0;
+                }
+                // the low bit tells a changed value from a run of unchanged ones, which takes a 33rd bit for the
+                // largest differences
+                StateBuffers.putVarlong(buffer, Integer.toUnsignedLong((delta << 1) ^ (delta >> 31)) << 1);
+            }
+            if (unchanged > 0) {
+                StateBuffers.putVarint(buffer, (unchanged << 1) | 1);
+            }
+            buffer.putInt(lengthsStart + column * 4, buffer.position() - start);
+        }
+        buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
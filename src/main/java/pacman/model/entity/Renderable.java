@@ -1,6 +1,5 @@
 package pacman.model.entity;
 
-import javafx.scene.image.Image;
 import pacman.model.entity.dynamic.physics.BoundingBox;
 import pacman.model.entity.dynamic.physics.Vector2D;
 
@@ -10,9 +9,9 @@ import pacman.model.entity.dynamic.physics.Vector2D;
 public interface Renderable {
 
     /**
-     * @return image of renderable
+     * @return sprite of renderable
      */
-    Image getImage();
+    Sprite getSprite();
 
     /**
      * @return width of renderable image
@@ -51,6 +50,14 @@ public interface Renderable {
      */
     void reset();
 
+    /**
+     * Returns whether the position, image or layer of the renderable has changed since the last call,
+     * and clears the change flag
+     *
+     * @return true, if the renderable has changed
+     */
+    boolean pollChanged();
+
     /**
      * The set of available layers
      */
@@ -0,0 +1,46 @@
+package pacman.model.entity;
+
+/**
+ * The sprites renderables can be drawn with, along with their natural size in pixels
+ */
+public enum Sprite {
+    BLINKY(28, 28),
+    PINKY(28, 28),
+    INKY(28, 28),
+    CLYDE(28, 28),
+    FRIGHTENED_GHOST(28, 28),
+    PACMAN_UP(26, 24),
+    PACMAN_DOWN(26, 24),
+    PACMAN_LEFT(24, 26),
+    PACMAN_RIGHT(24, 26),
+    PACMAN_CLOSED(24, 26),
+    PELLET(16, 16),
+    HORIZONTAL_WALL(16, 16),
+    VERTICAL_WALL(16, 16),
+    UP_LEFT_WALL(16, 16),
+    UP_RIGHT_WALL(16, 16),
+    DOWN_LEFT_WALL(16, 16),
+    DOWN_RIGHT_WALL(16, 16);
+
+    private final double width;
+    private final double height;
+
+    Sprite(double width, double height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * @return natural width of the sprite
+     */
+    public double getWidth() {
+        return width;
+    }
+
+    /**
+     * @return natural height of the sprite
+     */
+    public double getHeight() {
+        return height;
+    }
+}
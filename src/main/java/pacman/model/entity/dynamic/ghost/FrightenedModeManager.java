@@ -1,7 +1,9 @@
 package pacman.model.entity.dynamic.ghost;
 
-import javafx.animation.PauseTransition;
-import javafx.util.Duration;
+import pacman.model.engine.GameEngine;
+import pacman.model.engine.state.Restorable;
+import pacman.model.engine.state.StateBuffers;
+import pacman.model.engine.state.StateHash;
 import pacman.model.entity.Renderable;
 import pacman.model.entity.dynamic.physics.Vector2D;
 import pacman.model.level.Level;
@@ -9,13 +11,20 @@ import pacman.model.level.LevelConfigurationReader;
 import pacman.model.level.LevelImpl;
 import pacman.model.maze.Maze;
 
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Iterator;
 import java.util.Map;
 
-public class FrightenedModeManager {
+public class FrightenedModeManager implements Restorable {
+    private static final int GHOST_RESPAWN_TICKS = GameEngine.secondsToTicks(1);
+    private static final long FRIGHTENED_FEATURE = 0x300;
     private Maze maze;
     private boolean isFrightenedActive;
     private Map<GhostMode, Double> ghostSpeeds;
-    private PauseTransition frightenedTransition;
+    private final int frightenedDurationTicks;
+    private int frightenedTicksRemaining;
+    private final Map<Ghost, Integer> respawnTicksRemaining;
     private final LevelImpl level;
 
     /**
@@ -30,11 +39,32 @@ public class FrightenedModeManager {
         this.maze = maze;
         this.ghostSpeeds = configReader.getGhostSpeeds();
         this.isFrightenedActive = false;
+        this.respawnTicksRemaining = new LinkedHashMap<>();
 
         // Set up the frightened mode timer
         int frightenedDurationInSeconds = configReader.getGhostModeLengths().get(GhostMode.FRIGHTENED);
-        frightenedTransition = new PauseTransition(Duration.seconds(frightenedDurationInSeconds));
-        frightenedTransition.setOnFinished(event -> endFrightenedMode());
+        this.frightenedDurationTicks = GameEngine.secondsToTicks(frightenedDurationInSeconds);
+    }
+
+    /**
+     * Advances the frightened mode and ghost respawn timers by one tick.
+     */
+    public void tick() {
+        if (isFrightenedActive && --frightenedTicksRemaining <= 0) {
+            endFrightenedMode();
+        }
+
+        Iterator<Map.Entry<Ghost, Integer>> respawns = respawnTicksRemaining.entrySet().iterator();
+        while (respawns.hasNext()) {
+            Map.Entry<Ghost, Integer> respawn = respawns.next();
+            int ticksRemaining = respawn.getValue() - 1;
+            if (ticksRemaining > 0) {
+                respawn.setValue(ticksRemaining);
+            } else {
+                respawns.remove();
+                respawnGhost(respawn.getKey());
+            }
+        }
     }
 
     /**
@@ -43,7 +73,7 @@ public class FrightenedModeManager {
      */
     public void activateFrightenedMode() {
         isFrightenedActive = true;
-        frightenedTransition.playFromStart();
+        frightenedTicksRemaining = frightenedDurationTicks;
 
         for (Renderable renderable : maze.getGhosts()) {
             if (renderable instanceof Ghost) {
@@ -72,16 +102,7 @@ public class FrightenedModeManager {
             ghost.setGhostMode(GhostMode.SCATTER);
 
             // Set up a 1-second delay before respawning the ghost
-            PauseTransition respawnDelay = new PauseTransition(Duration.seconds(1));
-            respawnDelay.setOnFinished(event -> {
-                // Respawn the ghost after 1 second
-                ghost.reset(); // Reset to starting position
-                ghost.setGhostMode(GhostMode.SCATTER); // Ensure mode is SCATTER
-                ghost.setSpeed(ghostSpeeds.get(GhostMode.SCATTER)); // Set SCATTER mode speed
-            });
-
-            // Start the respawn delay timer
-            respawnDelay.play();
+            respawnTicksRemaining.put(ghost, GHOST_RESPAWN_TICKS);
 
             // Calculate the score reward
             int scoreReward = 200;
@@ -89,12 +110,17 @@ public class FrightenedModeManager {
         }
     }
 
+    private void respawnGhost(Ghost ghost) {
+        ghost.reset(); // Reset to starting position
+        ghost.setGhostMode(GhostMode.SCATTER); // Ensure mode is SCATTER
+        ghost.setSpeed(ghostSpeeds.get(GhostMode.SCATTER)); // Set SCATTER mode speed
+    }
+
     /**
      * Ends frightened mode, resetting all ghosts to SCATTER mode
      * and adjusting their speed to match SCATTER mode speed.
      */
     public void endFrightenedMode() {
-        System.out.println("Frightened mode ended");
         isFrightenedActive = false;
         for (Renderable renderable : maze.getGhosts()) {
             if (renderable instanceof Ghost) {
@@ -104,4 +130,45 @@ public class FrightenedModeManager {
             }
         }
     }
+
+    /**
+     * @return hash of the frightened mode and respawn timers
+     */
+    public long getStateHash() {
+        long hash = StateHash.key(FRIGHTENED_FEATURE, isFrightenedActive ? 1 : 0) ^
+                StateHash.key(FRIGHTENED_FEATURE + 1, frightenedTicksRemaining);
+        for (Map.Entry<Ghost, Integer> respawn : respawnTicksRemaining.entrySet()) {
+            hash ^= StateHash.key(FRIGHTENED_FEATURE + 2 + maze.getGhosts().indexOf(respawn.getKey()),
+                    respawn.getValue());
+        }
+        return hash;
+    }
+
+    /**
+     * Saves the frightened mode timer and the respawn timers, with ghosts identified by their index in the maze.
+     *
+     * @param buffer buffer to write to
+     */
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        StateBuffers.putBoolean(buffer, isFrightenedActive);
+        buffer.putShort((short) frightenedTicksRemaining);
+        buffer.put((byte) respawnTicksRemaining.size());
+        for (Map.Entry<Ghost, Integer> respawn : respawnTicksRemaining.entrySet()) {
+            buffer.put((byte) maze.getGhosts().indexOf(respawn.getKey()));
+            buffer.putShort(respawn.getValue().shortValue());
+        }
+    }
+
+    @Override
+    public void restoreState(ByteBuffer buffer) {
+        this.isFrightenedActive = StateBuffers.getBoolean(buffer);
+        this.frightenedTicksRemaining = buffer.getShort();
+        respawnTicksRemaining.clear();
+        int respawnCount = buffer.get();
+        for (int i = 0; i < respawnCount; i++) {
+            Ghost ghost = (Ghost) maze.getGhosts().get(buffer.get());
+            respawnTicksRemaining.put(ghost, (int) buffer.getShort());
+        }
+    }
 }
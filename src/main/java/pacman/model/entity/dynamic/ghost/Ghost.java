@@ -1,5 +1,6 @@
 package pacman.model.entity.dynamic.ghost;
 
+import pacman.model.engine.state.Restorable;
 import pacman.model.entity.dynamic.DynamicEntity;
 import pacman.model.entity.dynamic.player.observer.PlayerPositionObserver;
 
@@ -8,7 +9,7 @@ import java.util.Map;
 /**
  * Represents Ghost entity in Pac-Man Game
  */
-public interface Ghost extends DynamicEntity, PlayerPositionObserver {
+public interface Ghost extends DynamicEntity, PlayerPositionObserver, Restorable {
 
     /***
      * Sets the speeds of the Ghost for each GhostMode
@@ -23,6 +24,11 @@ public interface Ghost extends DynamicEntity, PlayerPositionObserver {
      */
     void setGhostMode(GhostMode ghostMode);
 
+    /**
+     * @return mode the Ghost is currently in
+     */
+    GhostMode getGhostMode();
+
     Object getChaseStrategy();
 
     void setSpeed(double aDouble);
@@ -1,7 +1,9 @@
 package pacman.model.entity.dynamic.ghost;
 
-import javafx.scene.image.Image;
+import pacman.model.engine.state.StateBuffers;
 import pacman.model.entity.Renderable;
+import pacman.model.entity.Sprite;
+import pacman.model.entity.dynamic.ghost.strategy.FrightenedStrategy;
 import pacman.model.entity.dynamic.ghost.strategy.GhostStrategy;
 import pacman.model.entity.dynamic.ghost.template.ChaseBehavior;
 import pacman.model.entity.dynamic.ghost.template.FrightenedBehavior;
@@ -11,6 +13,7 @@ import pacman.model.entity.dynamic.physics.*;
 import pacman.model.level.Level;
 import pacman.model.maze.Maze;
 
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
@@ -20,7 +23,7 @@ public class GhostImpl implements Ghost {
 
     private static final int minimumDirectionCount = 8;
     private final Layer layer = Layer.FOREGROUND;
-    private Image image;
+    private Sprite sprite;
     private final BoundingBox boundingBox;
     private final Vector2D startingPosition;
     private final Vector2D targetCorner;
@@ -32,6 +35,7 @@ public class GhostImpl implements Ghost {
     private Set<Direction> possibleDirections;
     private Map<GhostMode, Double> speeds;
     private int currentDirectionCount = 0;
+    private boolean changed = true;
 
     private GhostStrategy chaseStrategy;
     private GhostBehavior chaseBehavior;
@@ -39,12 +43,11 @@ public class GhostImpl implements Ghost {
     private GhostBehavior frightenedBehavior;
     private GhostBehavior currentBehavior;
 
-    private Image normalImage;
-    private static final Image FRIGHTENED_IMAGE = new Image("maze/ghosts/frightened.png");
+    private final Sprite normalSprite;
 
-    public GhostImpl(Image image, BoundingBox boundingBox, KinematicState kinematicState, GhostMode ghostMode, Vector2D targetCorner, GhostStrategy chaseStrategy, GhostStrategy scatterStrategy) {
-        this.image = image;
-        this.normalImage = image;
+    public GhostImpl(Sprite sprite, BoundingBox boundingBox, KinematicState kinematicState, GhostMode ghostMode, Vector2D targetCorner, GhostStrategy chaseStrategy, GhostStrategy scatterStrategy, FrightenedStrategy frightenedStrategy) {
+        this.sprite = sprite;
+        this.normalSprite = sprite;
         this.boundingBox = boundingBox;
         this.kinematicState = kinematicState;
         this.startingPosition = kinematicState.getPosition();
@@ -60,16 +63,23 @@ public class GhostImpl implements Ghost {
 
         this.targetCorner = targetCorner;
         this.targetLocation = getTargetLocation();
-        this.frightenedBehavior = new FrightenedBehavior(this.kinematicState.getPosition(), currentDirection, possibleDirections);
+        this.frightenedBehavior = new FrightenedBehavior(this.kinematicState.getPosition(), currentDirection, possibleDirections, frightenedStrategy);
         this.currentDirection = null;
     }
 
     public void switchToFrightenedImage() {
-        this.image = FRIGHTENED_IMAGE;
+        setSprite(Sprite.FRIGHTENED_GHOST);
     }
 
     public void restoreNormalImage() {
-        this.image = normalImage;
+        setSprite(normalSprite);
+    }
+
+    private void setSprite(Sprite sprite) {
+        if (this.sprite != sprite) {
+            this.sprite = sprite;
+            this.changed = true;
+        }
     }
 
     @Override
@@ -78,8 +88,8 @@ public class GhostImpl implements Ghost {
     }
 
     @Override
-    public Image getImage() {
-        return image;
+    public Sprite getSprite() {
+        return sprite;
     }
 
     @Override
@@ -87,6 +97,7 @@ public class GhostImpl implements Ghost {
         this.updateDirection();
         this.kinematicState.update();
         this.boundingBox.setTopLeft(this.kinematicState.getPosition());
+        this.changed = true;
     }
 
     private void updateDirection() {
@@ -131,7 +142,7 @@ public class GhostImpl implements Ghost {
             return currentDirection;
         }
 
-        Map<Direction, Double> distances = new HashMap<>();
+        Map<Direction, Double> distances = new EnumMap<>(Direction.class);
 
         for (Direction direction : possibleDirections) {
             // Ghosts never choose to reverse travel unless trapped
@@ -153,6 +164,11 @@ public class GhostImpl implements Ghost {
         this.kinematicState.setSpeed(speed);
     }
 
+    @Override
+    public GhostMode getGhostMode() {
+        return ghostMode;
+    }
+
     @Override
     public void setGhostMode(GhostMode ghostMode) {
         this.ghostMode = ghostMode;
@@ -235,6 +251,7 @@ public class GhostImpl implements Ghost {
     @Override
     public void setPosition(Vector2D position) {
         this.kinematicState.setPosition(position);
+        this.changed = true;
     }
 
     @Override
@@ -256,6 +273,52 @@ public class GhostImpl implements Ghost {
         this.boundingBox.setTopLeft(startingPosition);
         this.ghostMode = GhostMode.SCATTER;
         this.currentDirectionCount = minimumDirectionCount;
+        this.changed = true;
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        kinematicState.saveState(buffer);
+        StateBuffers.putNumber(buffer, boundingBox.getLeftX());
+        StateBuffers.putNumber(buffer, boundingBox.getTopY());
+        StateBuffers.putEnum(buffer, ghostMode);
+        StateBuffers.putEnum(buffer, sprite);
+        StateBuffers.putVector(buffer, targetLocation);
+        StateBuffers.putVector(buffer, playerPosition);
+        StateBuffers.putEnum(buffer, currentDirection);
+        buffer.put((byte) currentDirectionCount);
+        buffer.put((byte) (currentBehavior == chaseBehavior ? 0 : currentBehavior == scatterBehavior ? 1 : 2));
+        chaseBehavior.saveState(buffer);
+        scatterBehavior.saveState(buffer);
+        frightenedBehavior.saveState(buffer);
+    }
+
+    @Override
+    public void restoreState(ByteBuffer buffer) {
+        kinematicState.restoreState(buffer);
+        boundingBox.setTopLeft(new Vector2D(StateBuffers.getNumber(buffer), StateBuffers.getNumber(buffer)));
+        this.ghostMode = StateBuffers.getEnum(buffer, GhostMode.values());
+        this.sprite = StateBuffers.getEnum(buffer, Sprite.values());
+        this.targetLocation = StateBuffers.getVector(buffer);
+        this.playerPosition = StateBuffers.getVector(buffer);
+        this.currentDirection = StateBuffers.getEnum(buffer, Direction.values());
+        this.currentDirectionCount = buffer.get();
+        this.currentBehavior = switch (buffer.get()) {
+            case 0 -> chaseBehavior;
+            case 1 -> scatterBehavior;
+            default -> frightenedBehavior;
+        };
+        chaseBehavior.restoreState(buffer);
+        scatterBehavior.restoreState(buffer);
+        frightenedBehavior.restoreState(buffer);
+        this.changed = true;
+    }
+
+    @Override
+    public boolean pollChanged() {
+        boolean changed = this.changed;
+        this.changed = false;
+        return changed;
     }
 
     @Override
@@ -1,14 +1,23 @@
 // FrightenedStrategy.java
 package pacman.model.entity.dynamic.ghost.strategy;
 
+import pacman.model.engine.state.RandomStream;
+import pacman.model.engine.state.Restorable;
 import pacman.model.entity.dynamic.physics.Direction;
 import pacman.model.entity.dynamic.physics.Vector2D;
 
+import java.nio.ByteBuffer;
 import java.util.Set;
-import java.util.Random;
 
-public class FrightenedStrategy implements GhostStrategy {
-    private final Random random = new Random();
+public class FrightenedStrategy implements GhostStrategy, Restorable {
+    private final RandomStream random;
+
+    /**
+     * @param random source of the random directions, seeded so games can be reproduced
+     */
+    public FrightenedStrategy(RandomStream random) {
+        this.random = random;
+    }
 
     @Override
     public Vector2D getTargetLocation(Vector2D ghostPosition, Vector2D playerPosition, Direction currentDirection, Vector2D scatterTarget) {
@@ -21,4 +30,13 @@ public class FrightenedStrategy implements GhostStrategy {
             return (Direction) possibleDirections.toArray()[index];
         }
 
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        random.saveState(buffer);
+    }
+
+    @Override
+    public void restoreState(ByteBuffer buffer) {
+        random.restoreState(buffer);
     }
+}
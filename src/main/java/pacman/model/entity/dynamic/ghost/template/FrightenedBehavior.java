@@ -5,6 +5,7 @@ import pacman.model.entity.dynamic.ghost.strategy.FrightenedStrategy;
 import pacman.model.entity.dynamic.physics.Vector2D;
 import pacman.model.entity.dynamic.physics.Direction;
 
+import java.nio.ByteBuffer;
 import java.util.Set;
 
 public class FrightenedBehavior extends GhostBehavior {
@@ -17,10 +18,11 @@ public class FrightenedBehavior extends GhostBehavior {
      * @param ghostPosition    The current position of the ghost
      * @param currentDirection The current direction the ghost is moving
      * @param possibleDirections Set of possible directions the ghost can move in
+     * @param frightenedStrategy The strategy used to pick random directions in FRIGHTENED mode
      */
-    public FrightenedBehavior(Vector2D ghostPosition, Direction currentDirection, Set<Direction> possibleDirections) {
+    public FrightenedBehavior(Vector2D ghostPosition, Direction currentDirection, Set<Direction> possibleDirections, FrightenedStrategy frightenedStrategy) {
         super(ghostPosition, null, currentDirection);
-        this.frightenedStrategy = new FrightenedStrategy();
+        this.frightenedStrategy = frightenedStrategy;
         this.possibleDirections = possibleDirections;
     }
 
@@ -46,6 +48,23 @@ public class FrightenedBehavior extends GhostBehavior {
         this.possibleDirections = possibleDirections;
     }
 
+    /**
+     * Saves the state of the random directions along with the position and direction.
+     *
+     * @param buffer buffer to write to
+     */
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        super.saveState(buffer);
+        frightenedStrategy.saveState(buffer);
+    }
+
+    @Override
+    public void restoreState(ByteBuffer buffer) {
+        super.restoreState(buffer);
+        frightenedStrategy.restoreState(buffer);
+    }
+
     /**
      * Unsupported operation for CHASE mode in FrightenedBehavior.
      */
@@ -1,13 +1,16 @@
 // GhostBehavior.java
 package pacman.model.entity.dynamic.ghost.template;
 
+import pacman.model.engine.state.Restorable;
+import pacman.model.engine.state.StateBuffers;
 import pacman.model.entity.dynamic.ghost.GhostMode;
 import pacman.model.entity.dynamic.physics.Vector2D;
 import pacman.model.entity.dynamic.physics.Direction;
 
+import java.nio.ByteBuffer;
 import java.util.Set;
 
-public abstract class GhostBehavior {
+public abstract class GhostBehavior implements Restorable {
     protected Vector2D ghostPosition;
     protected Vector2D playerPosition;
     protected Direction currentDirection;
@@ -67,4 +70,28 @@ public abstract class GhostBehavior {
      * @return The new location or direction in FRIGHTENED mode
      */
     protected abstract Vector2D moveInFrightenedMode();
+
+    /**
+     * Saves the ghost position, player position and direction last given to this behavior.
+     *
+     * @param buffer buffer to write to
+     */
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        StateBuffers.putVector(buffer, ghostPosition);
+        StateBuffers.putVector(buffer, playerPosition);
+        StateBuffers.putEnum(buffer, currentDirection);
+    }
+
+    /**
+     * Restores the ghost position, player position and direction saved by {@link #saveState(ByteBuffer)}.
+     *
+     * @param buffer buffer to read from
+     */
+    @Override
+    public void restoreState(ByteBuffer buffer) {
+        this.ghostPosition = StateBuffers.getVector(buffer);
+        this.playerPosition = StateBuffers.getVector(buffer);
+        this.currentDirection = StateBuffers.getEnum(buffer, Direction.values());
+    }
 }
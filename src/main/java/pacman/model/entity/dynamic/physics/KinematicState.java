@@ -1,9 +1,11 @@
 package pacman.model.entity.dynamic.physics;
 
+import pacman.model.engine.state.Restorable;
+
 /**
  * Encapsulation of a dynamic entity's motion.
  */
-public interface KinematicState {
+public interface KinematicState extends Restorable {
 
     /**
      * @return Vector2 The previous position before the last update.
@@ -1,5 +1,9 @@
 package pacman.model.entity.dynamic.physics;
 
+import pacman.model.engine.state.StateBuffers;
+
+import java.nio.ByteBuffer;
+
 /**
  * Discrete kinematic state implementation.
  */
@@ -97,6 +101,23 @@ public class KinematicStateImpl implements KinematicState {
         return previousPosition;
     }
 
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        StateBuffers.putVector(buffer, position);
+        StateBuffers.putVector(buffer, previousPosition);
+        StateBuffers.putNumber(buffer, speed);
+        StateBuffers.putEnum(buffer, direction);
+    }
+
+    @Override
+    public void restoreState(ByteBuffer buffer) {
+        this.position = StateBuffers.getVector(buffer);
+        this.previousPosition = StateBuffers.getVector(buffer);
+        this.speed = StateBuffers.getNumber(buffer);
+        this.direction = StateBuffers.getEnum(buffer, Direction.values());
+        this.velocity = createVelocityVector(direction);
+    }
+
     public static class KinematicStateBuilder {
         private Vector2D position = Vector2D.ZERO;
         private double speed = 0;
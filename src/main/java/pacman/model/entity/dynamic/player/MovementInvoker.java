@@ -1,32 +1,49 @@
 package pacman.model.entity.dynamic.player;
 
+import pacman.model.engine.state.Restorable;
+import pacman.model.engine.state.StateBuffers;
+import pacman.model.engine.state.StateHash;
 import pacman.model.entity.dynamic.physics.Direction;
 import pacman.view.keyboard.command.MoveCommand;
 
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Set;
 
 /**
- * Handles the execution of moves requested by player
+ * Handles the execution of moves requested by player. Each game engine has its own invoker, so several games
+ * can run side by side.
  */
-public class MovementInvoker {
+public class MovementInvoker implements Restorable {
 
-    private static MovementInvoker instance;
+    private static final long INVOKER_FEATURE = 0x400;
+
+    private final Map<Direction, MoveCommand> commands;
     private MoveCommand currentCommand;
     private MoveCommand queuedCommand;
 
-    private MovementInvoker() {
+    public MovementInvoker() {
+        this.commands = new EnumMap<>(Direction.class);
     }
 
     /**
-     * Retrieves the singleton instance of MovementInvoker
+     * Registers the command used to move in its direction
      *
-     * @return MovementInvoker object
+     * @param command command moving the player
      */
-    public static MovementInvoker getInstance() {
-        if (instance == null) {
-            instance = new MovementInvoker();
-        }
-        return instance;
+    public void registerCommand(MoveCommand command) {
+        this.commands.put(command.getDirection(), command);
+    }
+
+    /**
+     * Gets the registered command moving in the given direction
+     *
+     * @param direction direction to move in
+     * @return command moving in the direction, or null if none is registered
+     */
+    public MoveCommand getCommand(Direction direction) {
+        return commands.get(direction);
     }
 
     /**
@@ -71,4 +88,25 @@ public class MovementInvoker {
         this.currentCommand = null;
     }
 
+    /**
+     * @return hash of the current and queued commands
+     */
+    public long getStateHash() {
+        return StateHash.key(INVOKER_FEATURE, currentCommand == null ? null : currentCommand.getDirection()) ^
+                StateHash.key(INVOKER_FEATURE + 1, queuedCommand == null ? null : queuedCommand.getDirection());
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        StateBuffers.putEnum(buffer, currentCommand == null ? null : currentCommand.getDirection());
+        StateBuffers.putEnum(buffer, queuedCommand == null ? null : queuedCommand.getDirection());
+    }
+
+    @Override
+    public void restoreState(ByteBuffer buffer) {
+        Direction current = StateBuffers.getEnum(buffer, Direction.values());
+        Direction queued = StateBuffers.getEnum(buffer, Direction.values());
+        this.currentCommand = current == null ? null : commands.get(current);
+        this.queuedCommand = queued == null ? null : commands.get(queued);
+    }
 }
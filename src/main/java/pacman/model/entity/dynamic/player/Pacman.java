@@ -1,7 +1,8 @@
 package pacman.model.entity.dynamic.player;
 
-import javafx.scene.image.Image;
+import pacman.model.engine.state.StateBuffers;
 import pacman.model.entity.Renderable;
+import pacman.model.entity.Sprite;
 import pacman.model.entity.dynamic.ghost.FrightenedModeManager;
 import pacman.model.entity.dynamic.physics.*;
 import pacman.model.entity.dynamic.player.observer.PlayerPositionObserver;
@@ -10,6 +11,7 @@ import pacman.model.entity.staticentity.collectable.Collectable;
 import pacman.model.entity.staticentity.collectable.Pellet;
 import pacman.model.level.Level;
 
+import java.nio.ByteBuffer;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -18,39 +20,42 @@ public class Pacman implements Controllable, PlayerPositionSubject {
 
     public static final int PACMAN_IMAGE_SWAP_TICK_COUNT = 8;
     private final Layer layer = Layer.FOREGROUND;
-    private final Map<PacmanVisual, Image> images;
+    private final Map<PacmanVisual, Sprite> sprites;
     private final BoundingBox boundingBox;
     private final Vector2D startingPosition;
     private final Set<PlayerPositionObserver> observers;
     private final MovementInvoker movementInvoker;
     private KinematicState kinematicState;
-    private Image currentImage;
+    private Sprite currentSprite;
     private Set<Direction> possibleDirections;
     private boolean isClosedImage;
+    private boolean changed;
 
     public Pacman(
-            Image currentImage,
-            Map<PacmanVisual, Image> images,
+            Sprite currentSprite,
+            Map<PacmanVisual, Sprite> sprites,
             BoundingBox boundingBox,
-            KinematicState kinematicState
+            KinematicState kinematicState,
+            MovementInvoker movementInvoker
     ) {
-        this.currentImage = currentImage;
-        this.images = images;
+        this.currentSprite = currentSprite;
+        this.sprites = sprites;
         this.boundingBox = boundingBox;
         this.kinematicState = kinematicState;
         this.startingPosition = kinematicState.getPosition();
         this.observers = new HashSet<>();
         this.possibleDirections = new HashSet<>();
         this.isClosedImage = false;
-        this.movementInvoker = MovementInvoker.getInstance();
+        this.changed = true;
+        this.movementInvoker = movementInvoker;
     }
 
     @Override
-    public Image getImage() {
+    public Sprite getSprite() {
         if (isClosedImage) {
-            return images.get(PacmanVisual.CLOSED);
+            return sprites.get(PacmanVisual.CLOSED);
         } else {
-            return currentImage;
+            return currentSprite;
         }
     }
 
@@ -62,6 +67,7 @@ public class Pacman implements Controllable, PlayerPositionSubject {
     @Override
     public void setPosition(Vector2D position) {
         this.kinematicState.setPosition(position);
+        this.changed = true;
     }
 
     @Override
@@ -73,6 +79,7 @@ public class Pacman implements Controllable, PlayerPositionSubject {
         movementInvoker.update(this.possibleDirections);
         kinematicState.update();
         this.boundingBox.setTopLeft(this.kinematicState.getPosition());
+        this.changed = true;
         notifyObservers();
     }
 
@@ -84,25 +91,33 @@ public class Pacman implements Controllable, PlayerPositionSubject {
     @Override
     public void up() {
         this.kinematicState.up();
-        this.currentImage = images.get(PacmanVisual.UP);
+        setCurrentImage(PacmanVisual.UP);
     }
 
     @Override
     public void down() {
         this.kinematicState.down();
-        this.currentImage = images.get(PacmanVisual.DOWN);
+        setCurrentImage(PacmanVisual.DOWN);
     }
 
     @Override
     public void left() {
         this.kinematicState.left();
-        this.currentImage = images.get(PacmanVisual.LEFT);
+        setCurrentImage(PacmanVisual.LEFT);
     }
 
     @Override
     public void right() {
         this.kinematicState.right();
-        this.currentImage = images.get(PacmanVisual.RIGHT);
+        setCurrentImage(PacmanVisual.RIGHT);
+    }
+
+    private void setCurrentImage(PacmanVisual visual) {
+        Sprite sprite = sprites.get(visual);
+        if (this.currentSprite != sprite) {
+            this.currentSprite = sprite;
+            this.changed = true;
+        }
     }
 
     @Override
@@ -141,6 +156,32 @@ public class Pacman implements Controllable, PlayerPositionSubject {
         left();
         movementInvoker.reset();
         this.isClosedImage = false;
+        this.changed = true;
+    }
+
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        kinematicState.saveState(buffer);
+        StateBuffers.putNumber(buffer, boundingBox.getLeftX());
+        StateBuffers.putNumber(buffer, boundingBox.getTopY());
+        StateBuffers.putEnum(buffer, currentSprite);
+        StateBuffers.putBoolean(buffer, isClosedImage);
+    }
+
+    @Override
+    public void restoreState(ByteBuffer buffer) {
+        kinematicState.restoreState(buffer);
+        boundingBox.setTopLeft(new Vector2D(StateBuffers.getNumber(buffer), StateBuffers.getNumber(buffer)));
+        this.currentSprite = StateBuffers.getEnum(buffer, Sprite.values());
+        this.isClosedImage = StateBuffers.getBoolean(buffer);
+        this.changed = true;
+    }
+
+    @Override
+    public boolean pollChanged() {
+        boolean changed = this.changed;
+        this.changed = false;
+        return changed;
     }
 
     @Override
@@ -193,5 +234,6 @@ public class Pacman implements Controllable, PlayerPositionSubject {
     @Override
     public void switchImage() {
         this.isClosedImage = !this.isClosedImage;
+        this.changed = true;
     }
 }
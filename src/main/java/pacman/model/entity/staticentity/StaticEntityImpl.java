@@ -1,18 +1,19 @@
 package pacman.model.entity.staticentity;
 
-import javafx.scene.image.Image;
 import pacman.model.entity.Renderable;
+import pacman.model.entity.Sprite;
 import pacman.model.entity.dynamic.physics.BoundingBox;
 import pacman.model.entity.dynamic.physics.Vector2D;
 
 public class StaticEntityImpl implements Renderable, StaticEntity {
 
-    private final Image image;
+    private final Sprite sprite;
     private final BoundingBox boundingBox;
     private Layer layer;
+    private boolean changed = true;
 
-    public StaticEntityImpl(BoundingBox boundingBox, Layer layer, Image image) {
-        this.image = image;
+    public StaticEntityImpl(BoundingBox boundingBox, Layer layer, Sprite sprite) {
+        this.sprite = sprite;
         this.layer = layer;
         this.boundingBox = boundingBox;
     }
@@ -28,8 +29,8 @@ public class StaticEntityImpl implements Renderable, StaticEntity {
     }
 
     @Override
-    public Image getImage() {
-        return image;
+    public Sprite getSprite() {
+        return sprite;
     }
 
     @Override
@@ -43,13 +44,23 @@ public class StaticEntityImpl implements Renderable, StaticEntity {
     }
 
     protected void setLayer(Layer layer) {
-        this.layer = layer;
+        if (this.layer != layer) {
+            this.layer = layer;
+            this.changed = true;
+        }
     }
 
     @Override
     public void reset() {
     }
 
+    @Override
+    public boolean pollChanged() {
+        boolean changed = this.changed;
+        this.changed = false;
+        return changed;
+    }
+
     @Override
     public BoundingBox getBoundingBox() {
         return this.boundingBox;
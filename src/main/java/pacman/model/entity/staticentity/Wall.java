@@ -0,0 +1,22 @@
+package pacman.model.entity.staticentity;
+
+import pacman.model.entity.Sprite;
+import pacman.model.entity.dynamic.physics.BoundingBox;
+
+/**
+ * Represents a Wall in Pac-Man game.
+ * <p>
+ * A wall never changes once created, so one instance is shared by every game played on the same maze.
+ */
+public class Wall extends StaticEntityImpl {
+
+    public Wall(BoundingBox boundingBox, Layer layer, Sprite sprite) {
+        super(boundingBox, layer, sprite);
+    }
+
+    @Override
+    public boolean pollChanged() {
+        // nothing to track, and games on other threads may poll the same wall
+        return false;
+    }
+}
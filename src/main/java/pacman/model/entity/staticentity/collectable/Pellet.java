@@ -1,6 +1,6 @@
 package pacman.model.entity.staticentity.collectable;
 
-import javafx.scene.image.Image;
+import pacman.model.entity.Sprite;
 import pacman.model.entity.dynamic.physics.BoundingBox;
 import pacman.model.entity.staticentity.StaticEntityImpl;
 
@@ -12,13 +12,22 @@ public class Pellet extends StaticEntityImpl implements Collectable {
     private final int points;
     private boolean isCollectable;
     private final boolean isPowerPellet;
-    public Pellet(BoundingBox boundingBox, Layer layer, Image image, int points, boolean isPowerPellet) {
-        super(boundingBox, layer, image);
+    public Pellet(BoundingBox boundingBox, Layer layer, Sprite sprite, int points, boolean isPowerPellet) {
+        super(boundingBox, layer, sprite);
         this.points = points;
         this.isPowerPellet = isPowerPellet;
         this.isCollectable = true;
     }
 
+    /**
+     * Creates an uncollected pellet in the same place, sharing the bounding box, which never moves
+     *
+     * @return copy of the pellet
+     */
+    public Pellet copy() {
+        return new Pellet(getBoundingBox(), Layer.BACKGROUND, getSprite(), points, isPowerPellet);
+    }
+
     public boolean isPowerPellet() {
         return isPowerPellet;
     }
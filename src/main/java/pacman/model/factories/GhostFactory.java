@@ -1,8 +1,9 @@
 package pacman.model.factories;
 
-import javafx.scene.image.Image;
 import pacman.ConfigurationParseException;
+import pacman.model.engine.state.RandomStream;
 import pacman.model.entity.Renderable;
+import pacman.model.entity.Sprite;
 import pacman.model.entity.dynamic.ghost.GhostImpl;
 import pacman.model.entity.dynamic.ghost.GhostMode;
 import pacman.model.entity.dynamic.ghost.strategy.*;
@@ -18,18 +19,13 @@ public class GhostFactory implements RenderableFactory {
     private char ghostType;
     private GhostStrategy chaseStrategy;
     private GhostStrategy scatterStrategy;
+    private final RandomStream random;
 
     // Constants defining map boundaries for positioning the ghosts' target corners.
     private static final int RIGHT_X_POSITION_OF_MAP = 448;
     private static final int TOP_Y_POSITION_OF_MAP = 16 * 3;
     private static final int BOTTOM_Y_POSITION_OF_MAP = 16 * 34;
 
-    // Ghost images based on type.
-    private static final Image BLINKY_IMAGE = new Image("maze/ghosts/blinky.png");
-    private static final Image INKY_IMAGE = new Image("maze/ghosts/inky.png");
-    private static final Image CLYDE_IMAGE = new Image("maze/ghosts/clyde.png");
-    private static final Image PINKY_IMAGE = new Image("maze/ghosts/pinky.png");
-
     // List of target corners for each ghost in SCATTER mode.
     private List<Vector2D> targetCorners = Arrays.asList(
             new Vector2D(0, TOP_Y_POSITION_OF_MAP), // Top left corner
@@ -38,38 +34,43 @@ public class GhostFactory implements RenderableFactory {
             new Vector2D(RIGHT_X_POSITION_OF_MAP, BOTTOM_Y_POSITION_OF_MAP) // Bottom right corner
     );
 
-    public GhostFactory(char ghostType) {
+    /**
+     * @param ghostType type of ghost to create
+     * @param random    seeded stream each created ghost splits its own stream of random directions off
+     */
+    public GhostFactory(char ghostType, RandomStream random) {
         this.ghostType = ghostType;
+        this.random = random;
     }
 
     @Override
     public Renderable createRenderable(Vector2D position) {
         try {
-            Image ghostImage;
+            Sprite ghostSprite;
             Vector2D targetCorner;
 
             // Determine ghost properties based on type.
             switch (ghostType) {
                 case RenderableType.BLINKY -> {
-                    ghostImage = BLINKY_IMAGE;
+                    ghostSprite = Sprite.BLINKY;
                     targetCorner = targetCorners.get(1); // Top right corner
                     chaseStrategy = new BlinkyChaseStrategy();
                     scatterStrategy = new ScatterStrategy(targetCorner);
                 }
                 case RenderableType.PINKY -> {
-                    ghostImage = PINKY_IMAGE;
+                    ghostSprite = Sprite.PINKY;
                     targetCorner = targetCorners.get(0); // Top left corner
                     chaseStrategy = new PinkyChaseStrategy();
                     scatterStrategy = new ScatterStrategy(targetCorner);
                 }
                 case RenderableType.INKY -> {
-                    ghostImage = INKY_IMAGE;
+                    ghostSprite = Sprite.INKY;
                     targetCorner = targetCorners.get(3); // Bottom right corner
                     chaseStrategy = new InkyChaseStrategy();
                     scatterStrategy = new ScatterStrategy(targetCorner);
                 }
                 case RenderableType.CLYDE -> {
-                    ghostImage = CLYDE_IMAGE;
+                    ghostSprite = Sprite.CLYDE;
                     targetCorner = targetCorners.get(2); // Bottom left corner
                     chaseStrategy = new ClydeChaseStrategy();
                     scatterStrategy = new ScatterStrategy(targetCorner);
@@ -83,8 +84,8 @@ public class GhostFactory implements RenderableFactory {
             // Define the ghost's bounding box for collision detection.
             BoundingBox boundingBox = new BoundingBoxImpl(
                     position,
-                    ghostImage.getHeight(),
-                    ghostImage.getWidth()
+                    ghostSprite.getHeight(),
+                    ghostSprite.getWidth()
             );
 
             // Initialize the ghost's kinematic state.
@@ -94,13 +95,14 @@ public class GhostFactory implements RenderableFactory {
 
             // Return a new GhostImpl instance with the configured properties.
             return new GhostImpl(
-                    ghostImage,
+                    ghostSprite,
                     boundingBox,
                     kinematicState,
                     GhostMode.SCATTER, // Initial mode set to SCATTER
                     targetCorner,
                     chaseStrategy,
-                    scatterStrategy
+                    scatterStrategy,
+                    new FrightenedStrategy(random.split())
             );
         } catch (Exception e) {
             throw new ConfigurationParseException(
@@ -1,9 +1,10 @@
 package pacman.model.factories;
 
-import javafx.scene.image.Image;
 import pacman.ConfigurationParseException;
 import pacman.model.entity.Renderable;
+import pacman.model.entity.Sprite;
 import pacman.model.entity.dynamic.physics.*;
+import pacman.model.entity.dynamic.player.MovementInvoker;
 import pacman.model.entity.dynamic.player.Pacman;
 import pacman.model.entity.dynamic.player.PacmanVisual;
 
@@ -14,31 +15,31 @@ import java.util.Map;
  * Concrete renderable factory for Pac-Man objects
  */
 public class PacmanFactory implements RenderableFactory {
-    private static final Image playerLeftImage = new Image("maze/pacman/playerLeft.png");
-    private static final Image playerRightImage = new Image("maze/pacman/playerRight.png");
-    private static final Image playerUpImage = new Image("maze/pacman/playerUp.png");
-    private static final Image playerDownImage = new Image("maze/pacman/playerDown.png");
-    private static final Image playerClosedImage = new Image("maze/pacman/playerClosed.png");
+    private final MovementInvoker movementInvoker;
+
+    public PacmanFactory(MovementInvoker movementInvoker) {
+        this.movementInvoker = movementInvoker;
+    }
 
     @Override
     public Renderable createRenderable(
             Vector2D position
     ) {
         try {
-            Map<PacmanVisual, Image> images = new HashMap<>();
-            images.put(PacmanVisual.UP, playerUpImage);
-            images.put(PacmanVisual.DOWN, playerDownImage);
-            images.put(PacmanVisual.LEFT, playerLeftImage);
-            images.put(PacmanVisual.RIGHT, playerRightImage);
-            images.put(PacmanVisual.CLOSED, playerClosedImage);
-
-            Image currentImage = playerLeftImage;
+            Map<PacmanVisual, Sprite> sprites = new HashMap<>();
+            sprites.put(PacmanVisual.UP, Sprite.PACMAN_UP);
+            sprites.put(PacmanVisual.DOWN, Sprite.PACMAN_DOWN);
+            sprites.put(PacmanVisual.LEFT, Sprite.PACMAN_LEFT);
+            sprites.put(PacmanVisual.RIGHT, Sprite.PACMAN_RIGHT);
+            sprites.put(PacmanVisual.CLOSED, Sprite.PACMAN_CLOSED);
+
+            Sprite currentSprite = Sprite.PACMAN_LEFT;
             position = position.add(new Vector2D(4, -4));
 
             BoundingBox boundingBox = new BoundingBoxImpl(
                     position,
-                    currentImage.getHeight(),
-                    currentImage.getWidth()
+                    currentSprite.getHeight(),
+                    currentSprite.getWidth()
             );
 
             KinematicState kinematicState = new KinematicStateImpl.KinematicStateBuilder()
@@ -47,10 +48,11 @@ public class PacmanFactory implements RenderableFactory {
                     .build();
 
             return new Pacman(
-                    currentImage,
-                    images,
+                    currentSprite,
+                    sprites,
                     boundingBox,
-                    kinematicState
+                    kinematicState,
+                    movementInvoker
             );
 
         } catch (Exception e) {
@@ -1,8 +1,8 @@
 package pacman.model.factories;
 
-import javafx.scene.image.Image;
 import pacman.ConfigurationParseException;
 import pacman.model.entity.Renderable;
+import pacman.model.entity.Sprite;
 import pacman.model.entity.dynamic.physics.BoundingBox;
 import pacman.model.entity.dynamic.physics.BoundingBoxImpl;
 import pacman.model.entity.dynamic.physics.Vector2D;
@@ -12,7 +12,7 @@ import pacman.model.entity.staticentity.collectable.Pellet;
  * Concrete renderable factory for creating Pellet objects.
  */
 public class PelletFactory implements RenderableFactory {
-    private static final Image PELLET_IMAGE = new Image("maze/pellet.png");
+    private static final Sprite PELLET_SPRITE = Sprite.PELLET;
 
     // Point values for normal pellets and power pellets.
     private static final int PELLET_POINTS = 10;
@@ -31,19 +31,19 @@ public class PelletFactory implements RenderableFactory {
     @Override
     public Renderable createRenderable(Vector2D position) {
         try {
-            Image image = PELLET_IMAGE;
+            Sprite sprite = PELLET_SPRITE;
             int points = (pelletType == RenderableType.POWER_PELLET) ? POWER_PELLET_POINTS : PELLET_POINTS;
             boolean isPowerPellet = (pelletType == RenderableType.POWER_PELLET);
             Vector2D adjustedPosition;
 
             // Set size of BoundingBox; Power Pellets are twice the size of normal Pellets.
-            double width = (pelletType == RenderableType.POWER_PELLET) ? image.getWidth() * 2 : image.getWidth();
-            double height = (pelletType == RenderableType.POWER_PELLET) ? image.getHeight() * 2 : image.getHeight();
+            double width = (pelletType == RenderableType.POWER_PELLET) ? sprite.getWidth() * 2 : sprite.getWidth();
+            double height = (pelletType == RenderableType.POWER_PELLET) ? sprite.getHeight() * 2 : sprite.getHeight();
 
             if (pelletType == RenderableType.POWER_PELLET) {
                 // Adjust position to center-align the Power Pellet image.
-                double offsetX = image.getWidth() / 2;
-                double offsetY = image.getHeight() / 2;
+                double offsetX = sprite.getWidth() / 2;
+                double offsetY = sprite.getHeight() / 2;
                 adjustedPosition = new Vector2D(position.getX() - offsetX, position.getY() - offsetY);
             } else {
                 adjustedPosition = position; // No adjustment needed for normal Pellets.
@@ -60,7 +60,7 @@ public class PelletFactory implements RenderableFactory {
             return new Pellet(
                     boundingBox,
                     layer,
-                    image,
+                    sprite,
                     points,
                     isPowerPellet
             );
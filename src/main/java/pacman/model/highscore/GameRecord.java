@@ -0,0 +1,81 @@
+package pacman.model.highscore;
+
+/**
+ * Outcome of a finished game, as kept by the high score store
+ */
+public class GameRecord {
+
+    private final int score;
+    private final int levelReached;
+    private final long durationTicks;
+    private final long finishedAt;
+    private final long seed;
+    private final String replay;
+    private final long logOffset;
+
+    /**
+     * @param score         final score of the game
+     * @param levelReached  number of the last level played, starting from 1
+     * @param durationTicks ticks the game lasted
+     * @param finishedAt    time the game finished, in milliseconds since the epoch
+     * @param seed          seed the game was played with
+     * @param replay        path of the replay of the game, or null if it was not recorded
+     */
+    public GameRecord(int score, int levelReached, long durationTicks, long finishedAt, long seed, String replay) {
+        this(score, levelReached, durationTicks, finishedAt, seed, replay, -1);
+    }
+
+    GameRecord(int score, int levelReached, long durationTicks, long finishedAt, long seed, String replay,
+               long logOffset) {
+        this.score = score;
+        this.levelReached = levelReached;
+        this.durationTicks = durationTicks;
+        this.finishedAt = finishedAt;
+        this.seed = seed;
+        this.replay = replay;
+        this.logOffset = logOffset;
+    }
+
+    GameRecord withLogOffset(long logOffset) {
+        return new GameRecord(score, levelReached, durationTicks, finishedAt, seed, replay, logOffset);
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getLevelReached() {
+        return levelReached;
+    }
+
+    public long getDurationTicks() {
+        return durationTicks;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return path of the replay of the game, or null if it was not recorded or is not held by this record
+     */
+    public String getReplay() {
+        return replay;
+    }
+
+    /**
+     * @return offset of the record in the log of finished games, or -1 if it has not been stored yet
+     */
+    public long getLogOffset() {
+        return logOffset;
+    }
+
+    @Override
+    public String toString() {
+        return score + " points, level " + levelReached + ", " + durationTicks + " ticks";
+    }
+}
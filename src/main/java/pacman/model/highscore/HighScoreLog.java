@@ -0,0 +1,245 @@
+package pacman.model.highscore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of every finished game.
+ * <p>
+ * Each record holds its length, the fields of the game, the replay path and a checksum. Appending threads reserve
+ * their space in the file with a single atomic add and write their record at that position independently, so
+ * sessions never wait on each other. A record that fails to be written gives its space back, or if later records
+ * already follow it, is overwritten with a skip record that only keeps their offsets. When the log is opened, records
+ * after the last one with a valid checksum, such as one torn by a crash, are cut off.
+ */
+public class HighScoreLog {
+
+    // length, score, level, duration, finish time, seed, replay length and checksum
+    private static final int FIXED_SIZE = 4 + 4 + 4 + 8 + 8 + 8 + 2 + 4;
+    private static final int MAX_REPLAY_BYTES = Short.MAX_VALUE;
+    // replay length of a skip record, which fills the space of a record that could not be written
+    private static final short SKIP_REPLAY_LENGTH = -1;
+    private static final GameRecord SKIPPED = new GameRecord(0, 0, 0, 0, 0, null, -1);
+    private static final int SCAN_BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final AtomicLong appendOffset;
+
+    private HighScoreLog(FileChannel channel) {
+        this.channel = channel;
+        this.appendOffset = new AtomicLong();
+    }
+
+    /**
+     * Opens the log, creating it if needed, and cuts off any incomplete records at its end
+     *
+     * @param path       path of the log file
+     * @param fromOffset offset up to which the records are known to be complete, to skip checking them
+     * @param consumer   consumer of the records found after that offset
+     * @return the opened log
+     * @throws IOException if the file could not be opened
+     */
+    public static HighScoreLog open(Path path, long fromOffset, Consumer<GameRecord> consumer) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        HighScoreLog log = new HighScoreLog(channel);
+        long validLength = log.scan(Math.min(fromOffset, channel.size()), consumer);
+        channel.truncate(validLength);
+        log.appendOffset.set(validLength);
+        return log;
+    }
+
+    /**
+     * Appends a record to the log. Can be called from any thread.
+     *
+     * @param record record to append
+     * @return the record, along with its offset in the log
+     * @throws IOException if the record could not be written
+     */
+    public GameRecord append(GameRecord record) throws IOException {
+        byte[] replay = record.getReplay() == null ? new byte[0] :
+                record.getReplay().getBytes(StandardCharsets.UTF_8);
+        if (replay.length > MAX_REPLAY_BYTES) {
+            throw new IOException("Replay path of " + replay.length + " bytes is too long");
+        }
+
+        int length = FIXED_SIZE + replay.length;
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.putInt(length);
+        buffer.putInt(record.getScore());
+        buffer.putInt(record.getLevelReached());
+        buffer.putLong(record.getDurationTicks());
+        buffer.putLong(record.getFinishedAt());
+        buffer.putLong(record.getSeed());
+        buffer.putShort((short) replay.length);
+        buffer.put(replay);
+        buffer.putInt(checksum(buffer.array(), 0, length - 4));
+        buffer.flip();
+
+        long offset = appendOffset.getAndAdd(length);
+        try {
+            writeFully(buffer, offset);
+        } catch (IOException e) {
+            releaseSlot(offset, length);
+            throw e;
+        }
+        return record.withLogOffset(offset);
+    }
+
+    /**
+     * Gives back the space of a record that could not be written, so no hole is left in front of later records
+     */
+    private void releaseSlot(long offset, int length) {
+        if (appendOffset.compareAndSet(offset + length, offset)) {
+            return;
+        }
+        ByteBuffer skip = ByteBuffer.allocate(length);
+        skip.putInt(0, length);
+        skip.putShort(FIXED_SIZE - 6, SKIP_REPLAY_LENGTH);
+        skip.putInt(length - 4, checksum(skip.array(), 0, length - 4));
+        try {
+            writeFully(skip, offset);
+        } catch (IOException e) {
+            System.out.println("Error skipping high score record at " + offset + ": " + e.getMessage());
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long offset) throws IOException {
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Reads the record at the given offset. Can be called from any thread.
+     *
+     * @param offset offset of the record, as returned when it was appended
+     * @return the record
+     * @throws IOException if there is no valid record at the offset
+     */
+    public GameRecord read(long offset) throws IOException {
+        GameRecord record = readRecord(offset);
+        if (record == null || record == SKIPPED) {
+            throw new IOException("No record at offset " + offset);
+        }
+        return record;
+    }
+
+    /**
+     * Reads every complete record from the given offset onwards, in the order they are stored
+     *
+     * @param fromOffset offset of the first record to read
+     * @param consumer   consumer of the records
+     * @return offset just after the last complete record
+     * @throws IOException if the log could not be read
+     */
+    private long scan(long fromOffset, Consumer<GameRecord> consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long offset = fromOffset;
+        long readOffset = fromOffset;
+        buffer.limit(0);
+        while (true) {
+            if (buffer.remaining() < FIXED_SIZE + MAX_REPLAY_BYTES) {
+                buffer.compact();
+                int read = readFully(buffer, readOffset);
+                readOffset += read;
+                buffer.flip();
+            }
+
+            GameRecord record = decode(buffer, offset);
+            if (record == null) {
+                return offset;
+            }
+            if (record != SKIPPED) {
+                consumer.accept(record);
+            }
+            int length = buffer.getInt(buffer.position());
+            buffer.position(buffer.position() + length);
+            offset += length;
+        }
+    }
+
+    /**
+     * @return length of the log, including space reserved for records still being written
+     */
+    public long getLength() {
+        return appendOffset.get();
+    }
+
+    /**
+     * Forces every written record to disk and closes the log
+     *
+     * @throws IOException if the log could not be closed
+     */
+    public void close() throws IOException {
+        channel.force(true);
+        channel.close();
+    }
+
+    private GameRecord readRecord(long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_SIZE + MAX_REPLAY_BYTES);
+        readFully(buffer, offset);
+        return decode(buffer.flip(), offset);
+    }
+
+    /**
+     * Decodes the record at the position of the buffer, leaving the position unchanged
+     *
+     * @return the record, {@link #SKIPPED} for a skip record, or null if there is no valid record
+     */
+    private static GameRecord decode(ByteBuffer buffer, long offset) {
+        int start = buffer.position();
+        if (buffer.remaining() < FIXED_SIZE) {
+            return null;
+        }
+        int length = buffer.getInt(start);
+        if (length < FIXED_SIZE || length > buffer.remaining() ||
+                buffer.getInt(start + length - 4) != checksum(buffer.array(), start, length - 4)) {
+            return null;
+        }
+
+        int replayLength = buffer.getShort(start + FIXED_SIZE - 6);
+        if (replayLength == SKIP_REPLAY_LENGTH) {
+            return SKIPPED;
+        }
+        if (FIXED_SIZE + replayLength != length) {
+            return null;
+        }
+        String replay = replayLength == 0 ? null :
+                new String(buffer.array(), start + FIXED_SIZE - 4, replayLength, StandardCharsets.UTF_8);
+        return new GameRecord(buffer.getInt(start + 4), buffer.getInt(start + 8), buffer.getLong(start + 12),
+                buffer.getLong(start + 20), buffer.getLong(start + 28), replay, offset);
+    }
+
+    /**
+     * Reads from the offset until the buffer is full or the end of the log is reached
+     *
+     * @return number of bytes read
+     */
+    private int readFully(ByteBuffer buffer, long offset) throws IOException {
+        int start = buffer.position();
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+        }
+        return buffer.position() - start;
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,118 @@
+package pacman.model.highscore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Keeps every finished game in an append-only log and the best of them in a memory-mapped index, shared by every
+ * session of the application.
+ * <p>
+ * Submitting a game appends it to the log and offers it to the index, neither of which takes a lock, so sessions
+ * finishing at the same time do not wait on each other. Opening the store only reads the index and the part of the log
+ * written after the index was last closed, so it stays fast however many games have been played.
+ */
+public class HighScoreStore {
+
+    /**
+     * Number of best games kept by default
+     */
+    public static final int DEFAULT_CAPACITY = 100;
+
+    private static final String LOG_FILE = "games.log";
+    private static final String INDEX_FILE = "top.idx";
+
+    private final HighScoreLog log;
+    private final TopScoreIndex index;
+
+    private HighScoreStore(HighScoreLog log, TopScoreIndex index) {
+        this.log = log;
+        this.index = index;
+    }
+
+    public static HighScoreStore open(Path directory) throws IOException {
+        return open(directory, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Opens the store in the given directory, creating it if needed
+     *
+     * @param directory directory holding the files of the store
+     * @param capacity  number of best games kept
+     * @return the opened store
+     * @throws IOException if the files of the store could not be opened
+     */
+    public static HighScoreStore open(Path directory, int capacity) throws IOException {
+        Files.createDirectories(directory);
+        TopScoreIndex index = TopScoreIndex.open(directory.resolve(INDEX_FILE), capacity);
+        // games finished after the index was last closed, or every game if it has to be rebuilt
+        HighScoreLog log = HighScoreLog.open(directory.resolve(LOG_FILE), index.getCoveredLength(), index::offer);
+        return new HighScoreStore(log, index);
+    }
+
+    /**
+     * Stores a finished game. Can be called from any thread.
+     *
+     * @param record finished game
+     * @return rank of the game among the best games, starting from 0, or -1 if it did not make the table
+     * @throws IOException if the game could not be written to the log
+     */
+    public int submit(GameRecord record) throws IOException {
+        GameRecord stored = log.append(record);
+        if (!index.offer(stored)) {
+            return -1;
+        }
+        List<GameRecord> entries = index.getEntries();
+        for (int rank = 0; rank < entries.size(); rank++) {
+            if (entries.get(rank).getLogOffset() == stored.getLogOffset()) {
+                return rank;
+            }
+        }
+        // pushed out again by better games submitted meanwhile
+        return -1;
+    }
+
+    /**
+     * @param rank rank of the game, starting from 0 for the best
+     * @return the game at the rank, without its replay path, or null if fewer games have been played
+     */
+    public GameRecord getTopScore(int rank) {
+        return index.get(rank);
+    }
+
+    /**
+     * @return the best games, best first, without their replay paths
+     */
+    public List<GameRecord> getTopScores() {
+        return index.getEntries();
+    }
+
+    /**
+     * @return best score of all time, or 0 if no game has been played
+     */
+    public int getBestScore() {
+        return index.getBestScore();
+    }
+
+    /**
+     * Reads a game back from the log in full, including its replay path
+     *
+     * @param record game as listed by the index
+     * @return the game as stored in the log
+     * @throws IOException if the game could not be read
+     */
+    public GameRecord readFull(GameRecord record) throws IOException {
+        return log.read(record.getLogOffset());
+    }
+
+    /**
+     * Closes the store. No games may be submitted while it is closing.
+     *
+     * @throws IOException if the files of the store could not be closed
+     */
+    public void close() throws IOException {
+        log.close();
+        index.close(log.getLength());
+    }
+}
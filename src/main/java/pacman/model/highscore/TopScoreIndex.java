@@ -0,0 +1,211 @@
+package pacman.model.highscore;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The best games of all time, kept sorted in memory and mirrored into a memory-mapped file.
+ * <p>
+ * The entries are an immutable sorted array, replaced with a compare-and-set when a game makes the table, so reading
+ * any rank is a single array access and games below the lowest entry of a full table are turned away without any
+ * writes. Whichever thread finds the file idle writes the latest entries to it; threads arriving while it is being
+ * written leave it to that thread.
+ * <p>
+ * The file also records how much of the log it covers. It is marked as in use while open, so an index left behind by
+ * a crash is rebuilt from the log instead of trusted.
+ */
+public class TopScoreIndex {
+
+    private static final int MAGIC = 0x504D4853;
+    private static final int VERSION = 1;
+    // magic, version, capacity, entry count, in use flag and covered log length
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 4 + 8;
+    // score, level, duration, finish time, seed and log offset
+    private static final int ENTRY_SIZE = 4 + 4 + 8 + 8 + 8 + 8;
+    private static final int ENTRY_COUNT_OFFSET = 12;
+    private static final int IN_USE_OFFSET = 16;
+    private static final int COVERED_LENGTH_OFFSET = 20;
+
+    private final int capacity;
+    private final FileChannel channel;
+    private final MappedByteBuffer file;
+    private final AtomicReference<GameRecord[]> entries;
+    private final AtomicBoolean writing;
+    private final AtomicInteger pendingWrites;
+    private final long coveredLength;
+
+    private TopScoreIndex(int capacity, FileChannel channel, MappedByteBuffer file, GameRecord[] entries,
+                          long coveredLength) {
+        this.capacity = capacity;
+        this.channel = channel;
+        this.file = file;
+        this.entries = new AtomicReference<>(entries);
+        this.writing = new AtomicBoolean();
+        this.pendingWrites = new AtomicInteger();
+        this.coveredLength = coveredLength;
+    }
+
+    /**
+     * Opens the index, creating it if needed. An index that was not closed cleanly or has another capacity is
+     * emptied, and covers none of the log.
+     *
+     * @param path     path of the index file
+     * @param capacity number of best games kept
+     * @return the opened index
+     * @throws IOException if the file could not be opened
+     */
+    public static TopScoreIndex open(Path path, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        boolean existed = channel.size() > 0;
+        MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_SIZE + (long) capacity * ENTRY_SIZE);
+
+        boolean valid = existed && file.getInt(0) == MAGIC && file.getInt(4) == VERSION &&
+                file.getInt(8) == capacity && file.getInt(IN_USE_OFFSET) == 0;
+        GameRecord[] entries = new GameRecord[0];
+        long coveredLength = 0;
+        if (valid) {
+            entries = new GameRecord[Math.min(file.getInt(ENTRY_COUNT_OFFSET), capacity)];
+            for (int i = 0; i < entries.length; i++) {
+                entries[i] = readEntry(file, i);
+            }
+            coveredLength = file.getLong(COVERED_LENGTH_OFFSET);
+        }
+
+        file.putInt(0, MAGIC);
+        file.putInt(4, VERSION);
+        file.putInt(8, capacity);
+        file.putInt(IN_USE_OFFSET, 1);
+        TopScoreIndex index = new TopScoreIndex(capacity, channel, file, entries, coveredLength);
+        index.writeEntries(entries);
+        file.force();
+        return index;
+    }
+
+    /**
+     * @return length of the log whose games were all offered to the index when it was last closed
+     */
+    public long getCoveredLength() {
+        return coveredLength;
+    }
+
+    /**
+     * Adds a game to the table if it is good enough. Can be called from any thread.
+     *
+     * @param record game to add, stored in the log
+     * @return true, if the game made the table
+     */
+    public boolean offer(GameRecord record) {
+        while (true) {
+            GameRecord[] current = entries.get();
+            if (current.length == capacity && record.getScore() <= current[capacity - 1].getScore()) {
+                return false;
+            }
+
+            // ties go to the game that reached them first
+            int rank = 0;
+            while (rank < current.length && current[rank].getScore() >= record.getScore()) {
+                rank++;
+            }
+            GameRecord[] updated = new GameRecord[Math.min(current.length + 1, capacity)];
+            System.arraycopy(current, 0, updated, 0, rank);
+            updated[rank] = record;
+            System.arraycopy(current, rank, updated, rank + 1, updated.length - rank - 1);
+
+            if (entries.compareAndSet(current, updated)) {
+                break;
+            }
+        }
+
+        pendingWrites.incrementAndGet();
+        while (pendingWrites.get() > 0 && writing.compareAndSet(false, true)) {
+            try {
+                pendingWrites.set(0);
+                writeEntries(entries.get());
+            } finally {
+                writing.set(false);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param rank rank of the game, starting from 0 for the best
+     * @return the game at the rank, or null if fewer games have been played
+     */
+    public GameRecord get(int rank) {
+        GameRecord[] current = entries.get();
+        return rank < current.length ? current[rank] : null;
+    }
+
+    /**
+     * @return best score of all time, or 0 if no game has been played
+     */
+    public int getBestScore() {
+        GameRecord[] current = entries.get();
+        return current.length == 0 ? 0 : current[0].getScore();
+    }
+
+    /**
+     * @return every game in the table, best first
+     */
+    public List<GameRecord> getEntries() {
+        return List.of(entries.get());
+    }
+
+    /**
+     * @return number of best games kept
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Marks the index as covering the given length of the log and closes it
+     *
+     * @param logLength length of the log, after every game appended to it was offered
+     * @throws IOException if the index could not be closed
+     */
+    public void close(long logLength) throws IOException {
+        writeEntries(entries.get());
+        file.putLong(COVERED_LENGTH_OFFSET, logLength);
+        file.force();
+        file.putInt(IN_USE_OFFSET, 0);
+        file.force();
+        channel.close();
+    }
+
+    private void writeEntries(GameRecord[] current) {
+        for (int i = 0; i < current.length; i++) {
+            int offset = HEADER_SIZE + i * ENTRY_SIZE;
+            GameRecord record = current[i];
+            file.putInt(offset, record.getScore());
+            file.putInt(offset + 4, record.getLevelReached());
+            file.putLong(offset + 8, record.getDurationTicks());
+            file.putLong(offset + 16, record.getFinishedAt());
+            file.putLong(offset + 24, record.getSeed());
+            file.putLong(offset + 32, record.getLogOffset());
+        }
+        file.putInt(ENTRY_COUNT_OFFSET, current.length);
+    }
+
+    private static GameRecord readEntry(MappedByteBuffer file, int rank) {
+        int offset = HEADER_SIZE + rank * ENTRY_SIZE;
+        return new GameRecord(file.getInt(offset), file.getInt(offset + 4), file.getLong(offset + 8),
+                file.getLong(offset + 16), file.getLong(offset + 24), null, file.getLong(offset + 32));
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(entries.get());
+    }
+}
@@ -1,5 +1,7 @@
 package pacman.model.level;
 
+import pacman.model.engine.observer.GameState;
+import pacman.model.engine.state.Restorable;
 import pacman.model.entity.Renderable;
 import pacman.model.entity.dynamic.ghost.FrightenedModeManager;
 import pacman.model.entity.staticentity.collectable.Collectable;
@@ -10,7 +12,7 @@ import java.util.List;
 /**
  * The base interface for a Pac-Man level.
  */
-public interface Level extends LevelStateSubject {
+public interface Level extends LevelStateSubject, Restorable {
     /**
      * Return a list of the currently existing Renderables
      *
@@ -72,6 +74,14 @@ public interface Level extends LevelStateSubject {
      */
     int getNumLives();
 
+    /**
+     * Gets the state of the level: READY while the player waits for the level to start or restart after losing a
+     * life, IN_PROGRESS while playing
+     *
+     * @return state of the level
+     */
+    GameState getGameState();
+
     /**
      * Checks if the current level has been finished (i.e. if the player has collected all collectables)
      *
@@ -98,6 +108,14 @@ public interface Level extends LevelStateSubject {
      */
     void handleGameEnd();
 
+    /**
+     * Gets a 64-bit hash of the level state, kept up to date as the level changes. Levels in the same state have
+     * the same hash.
+     *
+     * @return hash of the level state
+     */
+    long getStateHash();
+
     FrightenedModeManager getFrightenedModeManager();
 
     void addPoints(int scoreReward);
@@ -2,7 +2,10 @@ package pacman.model.level;
 
 import org.json.simple.JSONObject;
 import pacman.ConfigurationParseException;
+import pacman.model.engine.GameEngine;
 import pacman.model.engine.observer.GameState;
+import pacman.model.engine.state.StateBuffers;
+import pacman.model.engine.state.StateHash;
 import pacman.model.entity.Renderable;
 import pacman.model.entity.dynamic.DynamicEntity;
 import pacman.model.entity.dynamic.ghost.FrightenedModeManager;
@@ -13,16 +16,18 @@ import pacman.model.entity.dynamic.player.Controllable;
 import pacman.model.entity.dynamic.player.Pacman;
 import pacman.model.entity.staticentity.StaticEntity;
 import pacman.model.entity.staticentity.collectable.Collectable;
+import pacman.model.entity.staticentity.collectable.Pellet;
+import pacman.model.level.observer.LevelEvent;
 import pacman.model.level.observer.LevelStateObserver;
 import pacman.model.maze.Maze;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
-import javafx.animation.PauseTransition;
-import javafx.util.Duration;
 
 /**
  * Concrete implementation of the Pac-Man game level.
@@ -30,6 +35,11 @@ import javafx.util.Duration;
 public class LevelImpl implements Level {
 
     private static final int START_LEVEL_TIME = 100;
+    private static final long PELLET_KEYS_SALT = 1;
+    private static final long LEVEL_FEATURE = 0x200;
+    // every moving entity gets its own block of features, above those of the counters
+    private static final long ENTITY_FEATURE = StateHash.ENTITY_FEATURES;
+    private static final long ENTITY_FEATURE_STRIDE = 0x10;
     private final Maze maze;
     private final List<LevelStateObserver> observers;
     private List<Renderable> renderables;
@@ -39,18 +49,34 @@ public class LevelImpl implements Level {
     public Map<GhostMode, Integer> modeLengths;
     private int numLives;
     private int points;
+    // score gained during the current tick, sent to observers once the tick is over
+    private int pendingScoreChange;
     private GameState gameState;
     private List<Renderable> collectables;
     public GhostMode currentGhostMode;
     private final FrightenedModeManager frightenedModeManager;
-    private PauseTransition modeTransition;
+    private int modeTicksRemaining;
     private int frightenedGhostMultiplier = 0;
+    // false once the moving entities have been removed at the end of the game
+    private boolean entitiesInPlay;
+    // renderables split by kind, only changing when entities are removed at the end of the game or restored
+    private List<DynamicEntity> dynamicEntities;
+    private List<StaticEntity> staticEntities;
+
+    // the state hash is kept as the XOR of the pellets left, the moving entities and the level counters
+    private long[] pelletKeys;
+    private long pelletHash;
+    private long[] entityHashes;
+    private long entityHash;
+    private long counterHash;
 
     public LevelImpl(JSONObject levelConfiguration, Maze maze) {
         LevelConfigurationReader configReader = new LevelConfigurationReader(levelConfiguration);
         this.frightenedModeManager = new FrightenedModeManager(maze, configReader, this);
 
         this.renderables = new ArrayList<>();
+        this.dynamicEntities = new ArrayList<>();
+        this.staticEntities = new ArrayList<>();
         this.maze = maze;
         this.tickCount = 0;
         this.observers = new ArrayList<>();
@@ -62,19 +88,20 @@ public class LevelImpl implements Level {
         initLevel(new LevelConfigurationReader(levelConfiguration));
 
         // Initialize mode transition timer
-        int initialModeDuration = modeLengths.get(currentGhostMode);
-        modeTransition = new PauseTransition(Duration.seconds(initialModeDuration));
-        modeTransition.setOnFinished(event -> switchGhostMode());
+        resetModeTransition();
+        rehash();
     }
 
-
-
+    /**
+     * Restarts the countdown of the current ghost mode from its full length.
+     */
     public void resetModeTransition() {
-        if (modeTransition != null) {
-            modeTransition.stop();
-            int duration = modeLengths.get(currentGhostMode);
-            modeTransition.setDuration(Duration.seconds(duration));
-            modeTransition.playFromStart();
+        this.modeTicksRemaining = GameEngine.secondsToTicks(modeLengths.get(currentGhostMode));
+    }
+
+    private void tickModeTransition() {
+        if (--modeTicksRemaining <= 0) {
+            switchGhostMode();
         }
     }
     public void startFrightenedMode() {
@@ -89,7 +116,6 @@ public class LevelImpl implements Level {
     public void switchGhostMode() {
         // Get the next mode in the sequence
         this.currentGhostMode = GhostMode.getNextGhostMode(currentGhostMode);
-        System.out.println("Switching mode to " + currentGhostMode);
 
         // Update the mode for all ghosts
         for (Ghost ghost : this.ghosts) {
@@ -97,9 +123,7 @@ public class LevelImpl implements Level {
         }
 
         // Reset mode transition duration based on the new mode
-        int nextModeDuration = modeLengths.get(currentGhostMode);
-        modeTransition.setDuration(Duration.seconds(nextModeDuration));
-        modeTransition.playFromStart();
+        resetModeTransition();
     }
 
     public FrightenedModeManager getFrightenedModeManager() {
@@ -112,6 +136,8 @@ public class LevelImpl implements Level {
     private void initLevel(LevelConfigurationReader levelConfigurationReader) {
         // Fetch all renderable entities for the level
         this.renderables = maze.getRenderables();
+        this.entitiesInPlay = renderables.contains(maze.getControllable());
+        partitionRenderables();
 
         // Set up player
         if (!(maze.getControllable() instanceof Controllable)) {
@@ -136,6 +162,8 @@ public class LevelImpl implements Level {
 
         // Set up collectable items like pellets
         this.collectables = new ArrayList<>(maze.getPellets());
+        this.pelletKeys = StateHash.createKeys(maze.getPellets().size(), PELLET_KEYS_SALT);
+        this.entityHashes = new long[ghosts.size() + 1];
     }
 
     @Override
@@ -143,14 +171,10 @@ public class LevelImpl implements Level {
         return this.renderables;
     }
 
-    private List<DynamicEntity> getDynamicEntities() {
-        return renderables.stream().filter(e -> e instanceof DynamicEntity).map(e -> (DynamicEntity) e).collect(
-                Collectors.toList());
-    }
-
-    private List<StaticEntity> getStaticEntities() {
-        return renderables.stream().filter(e -> e instanceof StaticEntity).map(e -> (StaticEntity) e).collect(
-                Collectors.toList());
+    private void partitionRenderables() {
+        // walls and pellets always stay in the renderables, only the moving entities are removed at the end of the game
+        this.dynamicEntities = entitiesInPlay ? maze.getDynamicEntities() : List.of();
+        this.staticEntities = maze.getStaticEntities();
     }
 
     /**
@@ -168,8 +192,14 @@ public class LevelImpl implements Level {
 
         } else {
 
+            // Advance the ghost mode timers
+            tickModeTransition();
+            frightenedModeManager.tick();
+
             // Update dynamic entities and check for collisions
-            List<DynamicEntity> dynamicEntities = getDynamicEntities();
+            // the lists are replaced rather than changed if the game ends during the tick, so iterating them is safe
+            List<DynamicEntity> dynamicEntities = this.dynamicEntities;
+            List<StaticEntity> staticEntities = this.staticEntities;
 
             for (DynamicEntity dynamicEntity : dynamicEntities) {
                 maze.updatePossibleDirections(dynamicEntity);
@@ -191,7 +221,7 @@ public class LevelImpl implements Level {
                 }
 
                 // Handle collisions between dynamic entities and static entities
-                for (StaticEntity staticEntity : getStaticEntities()) {
+                for (StaticEntity staticEntity : staticEntities) {
                     if (dynamicEntityA.collidesWith(staticEntity)) {
                         dynamicEntityA.collideWith(this, staticEntity);
                         PhysicsEngine.resolveCollision(dynamicEntityA, staticEntity);
@@ -200,7 +230,9 @@ public class LevelImpl implements Level {
             }
         }
 
+        flushScoreChange();
         tickCount++;
+        refreshHash();
     }
 
     @Override
@@ -210,13 +242,16 @@ public class LevelImpl implements Level {
 
     @Override
     public boolean isCollectable(Renderable renderable) {
-        return maze.getPellets().contains(renderable) && ((Collectable) renderable).isCollectable();
+        return maze.getPelletIndex(renderable) >= 0 && ((Collectable) renderable).isCollectable();
     }
 
     @Override
     public void collect(Collectable collectable) {
         this.points += collectable.getPoints();
-        notifyObserversWithScoreChange(collectable.getPoints());
+        this.pendingScoreChange += collectable.getPoints();
+        this.pelletHash ^= pelletKeys[maze.getPelletIndex(collectable)];
+        boolean isPowerPellet = collectable instanceof Pellet && ((Pellet) collectable).isPowerPellet();
+        notifyObserversWithLevelEvent(isPowerPellet ? LevelEvent.POWER_PELLET_EATEN : LevelEvent.PELLET_EATEN);
         this.collectables.remove(collectable);
     }
 
@@ -226,7 +261,7 @@ public class LevelImpl implements Level {
     @Override
     public void handleLoseLife() {
         if (gameState == GameState.IN_PROGRESS) {
-            for (DynamicEntity dynamicEntity : getDynamicEntities()) {
+            for (DynamicEntity dynamicEntity : dynamicEntities) {
                 dynamicEntity.reset();
             }
             for (Renderable renderable : maze.getGhosts()) {
@@ -235,6 +270,7 @@ public class LevelImpl implements Level {
                     ghost.setGhostMode(GhostMode.SCATTER);
                 }
             }
+            notifyObserversWithLevelEvent(LevelEvent.PLAYER_DIED);
             setNumLives(numLives - 1);
             setGameState(GameState.READY);
             tickCount = 0;
@@ -248,7 +284,8 @@ public class LevelImpl implements Level {
     public void addPoints(int basePoints) {
         int pointsToAdd = basePoints * (int) Math.pow(2, frightenedGhostMultiplier);
         this.points += pointsToAdd;
-        notifyObserversWithScoreChange(pointsToAdd);
+        this.pendingScoreChange += pointsToAdd;
+        notifyObserversWithLevelEvent(LevelEvent.GHOST_EATEN);
         frightenedGhostMultiplier++;
     }
 
@@ -312,6 +349,16 @@ public class LevelImpl implements Level {
         }
     }
 
+    /**
+     * Sends the score gained during the tick to observers in a single notification.
+     */
+    private void flushScoreChange() {
+        if (pendingScoreChange != 0) {
+            notifyObserversWithScoreChange(pendingScoreChange);
+            pendingScoreChange = 0;
+        }
+    }
+
     /**
      * Notifies observers about a change in score.
      */
@@ -321,6 +368,13 @@ public class LevelImpl implements Level {
         }
     }
 
+    @Override
+    public void notifyObserversWithLevelEvent(LevelEvent event) {
+        for (LevelStateObserver observer : observers) {
+            observer.updateLevelEvent(event);
+        }
+    }
+
     @Override
     public int getPoints() {
         return this.points;
@@ -331,6 +385,11 @@ public class LevelImpl implements Level {
         return this.numLives;
     }
 
+    @Override
+    public GameState getGameState() {
+        return this.gameState;
+    }
+
     private void setNumLives(int numLives) {
         this.numLives = numLives;
         notifyObserversWithNumLives();
@@ -338,6 +397,156 @@ public class LevelImpl implements Level {
 
     @Override
     public void handleGameEnd() {
-        this.renderables.removeAll(getDynamicEntities());
+        this.renderables.removeAll(dynamicEntities);
+        this.entitiesInPlay = false;
+        partitionRenderables();
+        refreshHash();
+    }
+
+    /**
+     * Saves the level timers, score, lives, which pellets are left as a bitset and the state of every moving entity.
+     * Only to be called between ticks.
+     *
+     * @param buffer buffer to write to
+     */
+    @Override
+    public void saveState(ByteBuffer buffer) {
+        buffer.putInt(tickCount);
+        buffer.put((byte) numLives);
+        buffer.putInt(points);
+        StateBuffers.putEnum(buffer, gameState);
+        StateBuffers.putEnum(buffer, currentGhostMode);
+        buffer.putInt(modeTicksRemaining);
+        buffer.put((byte) frightenedGhostMultiplier);
+        StateBuffers.putBoolean(buffer, entitiesInPlay);
+
+        List<Renderable> pellets = maze.getPellets();
+        int bits = 0;
+        for (int i = 0; i < pellets.size(); i++) {
+            if (((Collectable) pellets.get(i)).isCollectable()) {
+                bits |= 1 << (i & 7);
+            }
+            if ((i & 7) == 7 || i == pellets.size() - 1) {
+                buffer.put((byte) bits);
+                bits = 0;
+            }
+        }
+
+        player.saveState(buffer);
+        for (Ghost ghost : ghosts) {
+            ghost.saveState(buffer);
+        }
+        frightenedModeManager.saveState(buffer);
+    }
+
+    /**
+     * Restores the level saved by {@link #saveState(ByteBuffer)} in place, then notifies observers of the restored
+     * lives and game state.
+     *
+     * @param buffer buffer to read from
+     */
+    @Override
+    public void restoreState(ByteBuffer buffer) {
+        this.tickCount = buffer.getInt();
+        this.numLives = buffer.get();
+        this.points = buffer.getInt();
+        this.gameState = StateBuffers.getEnum(buffer, GameState.values());
+        this.currentGhostMode = StateBuffers.getEnum(buffer, GhostMode.values());
+        this.modeTicksRemaining = buffer.getInt();
+        this.frightenedGhostMultiplier = buffer.get();
+        if (StateBuffers.getBoolean(buffer)) {
+            maze.restoreRenderables();
+            this.entitiesInPlay = true;
+            partitionRenderables();
+        } else if (entitiesInPlay) {
+            handleGameEnd();
+        }
+
+        List<Renderable> pellets = maze.getPellets();
+        collectables.clear();
+        int bits = 0;
+        for (int i = 0; i < pellets.size(); i++) {
+            if ((i & 7) == 0) {
+                bits = buffer.get();
+            }
+            Collectable pellet = (Collectable) pellets.get(i);
+            boolean isCollectable = (bits & (1 << (i & 7))) != 0;
+            if (isCollectable) {
+                if (!pellet.isCollectable()) {
+                    pellet.reset();
+                }
+                collectables.add(pellet);
+            } else if (pellet.isCollectable()) {
+                pellet.collect();
+            }
+        }
+
+        player.restoreState(buffer);
+        for (Ghost ghost : ghosts) {
+            ghost.restoreState(buffer);
+        }
+        frightenedModeManager.restoreState(buffer);
+        rehash();
+
+        notifyObserversWithNumLives();
+        notifyObserversWithGameState();
+    }
+
+    @Override
+    public long getStateHash() {
+        return pelletHash ^ entityHash ^ counterHash ^ frightenedModeManager.getStateHash();
+    }
+
+    /**
+     * Recomputes the whole state hash, after the state was changed without the hash being kept up to date.
+     */
+    private void rehash() {
+        this.pelletHash = 0;
+        List<Renderable> pellets = maze.getPellets();
+        for (int i = 0; i < pellets.size(); i++) {
+            if (((Collectable) pellets.get(i)).isCollectable()) {
+                pelletHash ^= pelletKeys[i];
+            }
+        }
+
+        this.entityHash = 0;
+        Arrays.fill(entityHashes, 0);
+        refreshHash();
+    }
+
+    /**
+     * Replaces the hash keys of the moving entities and level counters with their current keys. Collected pellets
+     * already update the hash when they are collected.
+     */
+    private void refreshHash() {
+        refreshEntityHash(0, player);
+        for (int i = 0; i < ghosts.size(); i++) {
+            refreshEntityHash(i + 1, ghosts.get(i));
+        }
+
+        this.counterHash = StateHash.key(LEVEL_FEATURE, tickCount) ^
+                StateHash.key(LEVEL_FEATURE + 1, numLives) ^
+                StateHash.key(LEVEL_FEATURE + 2, points) ^
+                StateHash.key(LEVEL_FEATURE + 3, gameState) ^
+                StateHash.key(LEVEL_FEATURE + 4, currentGhostMode) ^
+                StateHash.key(LEVEL_FEATURE + 5, modeTicksRemaining) ^
+                StateHash.key(LEVEL_FEATURE + 6, frightenedGhostMultiplier) ^
+                StateHash.key(LEVEL_FEATURE + 7, entitiesInPlay ? 1 : 0);
+    }
+
+    private void refreshEntityHash(int index, DynamicEntity entity) {
+        long feature = ENTITY_FEATURE + index * ENTITY_FEATURE_STRIDE;
+        long hash = StateHash.key(feature, entity.getPosition().getX()) ^
+                StateHash.key(feature + 1, entity.getPosition().getY()) ^
+                StateHash.key(feature + 2, entity.getPositionBeforeLastUpdate().getX()) ^
+                StateHash.key(feature + 3, entity.getPositionBeforeLastUpdate().getY()) ^
+                StateHash.key(feature + 4, entity.getDirection()) ^
+                StateHash.key(feature + 5, entity.getSprite());
+        if (entity instanceof Ghost) {
+            hash ^= StateHash.key(feature + 6, ((Ghost) entity).getGhostMode());
+        }
+
+        entityHash ^= entityHashes[index] ^ hash;
+        entityHashes[index] = hash;
     }
 }
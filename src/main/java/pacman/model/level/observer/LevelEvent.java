@@ -0,0 +1,11 @@
+package pacman.model.level.observer;
+
+/***
+ * Represents the notable moments during a level that observers may react to, such as by playing a sound
+ */
+public enum LevelEvent {
+    PELLET_EATEN,
+    POWER_PELLET_EATEN,
+    GHOST_EATEN,
+    PLAYER_DIED
+}
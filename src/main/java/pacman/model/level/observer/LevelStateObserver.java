@@ -26,4 +26,11 @@ public interface LevelStateObserver {
      * @param scoreChange the change in score
      */
     void updateScore(int scoreChange);
+
+    /**
+     * Updates observer with an event that happened in the level
+     *
+     * @param event the event that happened
+     */
+    void updateLevelEvent(LevelEvent event);
 }
@@ -35,4 +35,11 @@ public interface LevelStateSubject {
      * @param scoreChange score change of the player
      */
     void notifyObserversWithScoreChange(int scoreChange);
+
+    /**
+     * Notifies observer of an event in the level
+     *
+     * @param event event that happened
+     */
+    void notifyObserversWithLevelEvent(LevelEvent event);
 }
@@ -3,33 +3,63 @@ package pacman.model.maze;
 import pacman.model.entity.Renderable;
 import pacman.model.entity.dynamic.DynamicEntity;
 import pacman.model.entity.dynamic.physics.Direction;
+import pacman.model.entity.staticentity.StaticEntity;
 import pacman.model.factories.RenderableType;
 
 import java.util.*;
 
 
 /**
- * Stores and manages the renderables for the Pac-Man game
+ * Stores and manages the renderables for the Pac-Man game.
+ * <p>
+ * The walls and the layout come from a {@link MazeTemplate} shared with other games on the same map; the maze only
+ * owns the pellets and moving entities of its own game.
  */
 public class Maze {
 
     private static final int MAX_CENTER_DISTANCE = 4;
+    // possible directions for every combination of open directions, shared as no entity changes them
+    private static final List<Set<Direction>> DIRECTION_SETS = createDirectionSets();
+
+    private final MazeTemplate template;
     private final List<Renderable> renderables;
+    // every renderable ever added, in order, as entities can be removed from the renderables when the game ends
+    private final List<Renderable> addedRenderables;
     private final List<Renderable> ghosts;
     private final List<Renderable> pellets;
-    private final Map<String, Boolean> isWall;
+    // added renderables by kind, told apart by their renderable type rather than by type checks, which are slow
+    // for entities implementing several interfaces
+    private final List<DynamicEntity> dynamicEntities;
+    private final List<StaticEntity> staticEntities;
     private Renderable pacman;
     private int numLives;
 
-    public Maze() {
-        this.renderables = new ArrayList<>();
+    /**
+     * @param template layout of the maze, telling where the walls are
+     */
+    public Maze(MazeTemplate template) {
+        this.template = template;
+        this.renderables = new ArrayList<>(template.getCellCount());
+        this.addedRenderables = new ArrayList<>(template.getCellCount());
         this.ghosts = new ArrayList<>();
-        this.pellets = new ArrayList<>();
-        this.isWall = new HashMap<>();
+        this.pellets = new ArrayList<>(template.getPelletCount());
+        this.dynamicEntities = new ArrayList<>();
+        this.staticEntities = new ArrayList<>(template.getCellCount());
     }
 
-    private static String formatCoordinates(int x, int y) {
-        return String.format("(%d, %d)", x, y);
+    private static List<Set<Direction>> createDirectionSets() {
+        List<Set<Direction>> directionSets = new ArrayList<>();
+        for (int open = 0; open < 1 << Direction.values().length; open++) {
+            // an EnumSet iterates in the same order in every run, which keeps seeded games reproducible
+            Set<Direction> directions = EnumSet.noneOf(Direction.class);
+            for (Direction direction : Direction.values()) {
+                if ((open & 1 << direction.ordinal()) != 0) {
+                    directions.add(direction);
+                }
+            }
+            directionSets.add(Collections.unmodifiableSet(directions));
+        }
+        return directionSets;
     }
 
     /**
@@ -60,23 +90,31 @@ public class Maze {
         if (renderable != null) {
             if (renderableType == RenderableType.PACMAN) {
                 this.pacman = renderable;
+                this.dynamicEntities.add((DynamicEntity) renderable);
             } else if (renderableType == RenderableType.BLINKY) {
                 this.ghosts.add(renderable);
+                this.dynamicEntities.add((DynamicEntity) renderable);
             } else if (renderableType == RenderableType.PINKY) {
                 this.ghosts.add(renderable);
+                this.dynamicEntities.add((DynamicEntity) renderable);
             } else if (renderableType == RenderableType.INKY) {
                 this.ghosts.add(renderable);
+                this.dynamicEntities.add((DynamicEntity) renderable);
             } else if (renderableType == RenderableType.CLYDE) {
                 this.ghosts.add(renderable);
+                this.dynamicEntities.add((DynamicEntity) renderable);
             } else if (renderableType == RenderableType.PELLET) {
                 this.pellets.add(renderable);
+                this.staticEntities.add((StaticEntity) renderable);
             }else if (renderableType == RenderableType.POWER_PELLET) {
                 this.pellets.add(renderable);
+                this.staticEntities.add((StaticEntity) renderable);
             } else {
-                this.isWall.put(formatCoordinates(x, y), true);
+                this.staticEntities.add((StaticEntity) renderable);
             }
 
             this.renderables.add(renderable);
+            this.addedRenderables.add(renderable);
         }
     }
 
@@ -84,6 +122,39 @@ public class Maze {
         return renderables;
     }
 
+    /**
+     * Gets a hash of the renderable types at every grid position, identifying the layout of the maze
+     *
+     * @return hash of the maze layout
+     */
+    public long getLayoutHash() {
+        return template.getLayoutHash();
+    }
+
+    /**
+     * Puts back every renderable added to the maze, in the order they were added
+     */
+    public void restoreRenderables() {
+        if (renderables.size() != addedRenderables.size()) {
+            renderables.clear();
+            renderables.addAll(addedRenderables);
+        }
+    }
+
+    /**
+     * @return every moving entity added to the maze, in the order they were added, not to be changed
+     */
+    public List<DynamicEntity> getDynamicEntities() {
+        return dynamicEntities;
+    }
+
+    /**
+     * @return every wall and pellet added to the maze, in the order they were added, not to be changed
+     */
+    public List<StaticEntity> getStaticEntities() {
+        return staticEntities;
+    }
+
     public Renderable getControllable() {
         return pacman;
     }
@@ -96,6 +167,19 @@ public class Maze {
         return pellets;
     }
 
+    /**
+     * Gets the index of a pellet among the pellets of the maze, from the tile it is on
+     *
+     * @param renderable renderable to look up
+     * @return index in {@link #getPellets()}, or -1 if the renderable is not a pellet of this maze
+     */
+    public int getPelletIndex(Renderable renderable) {
+        int xTile = (int) Math.floor(renderable.getBoundingBox().getMiddleX() / MazeCreator.RESIZING_FACTOR);
+        int yTile = (int) Math.floor(renderable.getBoundingBox().getMiddleY() / MazeCreator.RESIZING_FACTOR);
+        int index = template.getPelletIndex(xTile, yTile);
+        return index >= 0 && pellets.get(index) == renderable ? index : -1;
+    }
+
     private int getCenterOfTile(int index) {
         return index * MazeCreator.RESIZING_FACTOR + MazeCreator.RESIZING_FACTOR / 2;
     }
@@ -107,36 +191,15 @@ public class Maze {
         int xTile = (int) Math.floor(dynamicEntity.getCenter().getX() / MazeCreator.RESIZING_FACTOR);
         int yTile = (int) Math.floor(dynamicEntity.getCenter().getY() / MazeCreator.RESIZING_FACTOR);
 
-        Set<Direction> possibleDirections = new HashSet<>();
-
+        int open;
         if (Math.abs(getCenterOfTile(xTile) - dynamicEntity.getCenter().getX()) < MAX_CENTER_DISTANCE &&
                 Math.abs(getCenterOfTile(yTile) - dynamicEntity.getCenter().getY()) < MAX_CENTER_DISTANCE) {
-
-            String aboveCoordinates = formatCoordinates(xTile, yTile - 1);
-            if (isWall.get(aboveCoordinates) == null) {
-                possibleDirections.add(Direction.UP);
-            }
-
-            String belowCoordinates = formatCoordinates(xTile, yTile + 1);
-            if (isWall.get(belowCoordinates) == null) {
-                possibleDirections.add(Direction.DOWN);
-            }
-
-            String leftCoordinates = formatCoordinates(xTile - 1, yTile);
-            if (isWall.get(leftCoordinates) == null) {
-                possibleDirections.add(Direction.LEFT);
-            }
-
-            String rightCoordinates = formatCoordinates(xTile + 1, yTile);
-            if (isWall.get(rightCoordinates) == null) {
-                possibleDirections.add(Direction.RIGHT);
-            }
+            open = template.getOpenDirections(xTile, yTile);
         } else {
-            possibleDirections.add(dynamicEntity.getDirection());
-            possibleDirections.add(dynamicEntity.getDirection().opposite());
+            open = 1 << dynamicEntity.getDirection().ordinal() | 1 << dynamicEntity.getDirection().opposite().ordinal();
         }
 
-        dynamicEntity.setPossibleDirections(possibleDirections);
+        dynamicEntity.setPossibleDirections(DIRECTION_SETS.get(open));
     }
 
     public int getNumLives() {
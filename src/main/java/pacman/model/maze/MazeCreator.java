@@ -5,70 +5,54 @@ import pacman.model.entity.dynamic.ghost.*;
 
 import pacman.model.entity.dynamic.ghost.strategy.InkyChaseStrategy;
 import pacman.model.entity.dynamic.physics.Vector2D;
+import pacman.model.entity.staticentity.collectable.Pellet;
 import pacman.model.factories.RenderableFactoryRegistry;
 import pacman.model.factories.RenderableType;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.Scanner;
-
-import static java.lang.System.exit;
-
 /**
  * Responsible for creating renderables and storing it in the Maze
  */
 public class MazeCreator {
 
     public static final int RESIZING_FACTOR = 16;
-    private final String fileName;
+    private final MazeTemplate template;
     private final RenderableFactoryRegistry renderableFactoryRegistry;
     Ghost blinky = null;
-    public MazeCreator(String fileName,
+
+    /**
+     * @param template                  layout of the maze, providing the shared walls and the starting pellets
+     * @param renderableFactoryRegistry factories of the moving entities of the game
+     */
+    public MazeCreator(MazeTemplate template,
                        RenderableFactoryRegistry renderableFactoryRegistry) {
-        this.fileName = fileName;
+        this.template = template;
         this.renderableFactoryRegistry = renderableFactoryRegistry;
     }
 
     public Maze createMaze() {
-        File f = new File(this.fileName);
-        Maze maze = new Maze();
-
-        try {
-            Scanner scanner = new Scanner(f);
-
-            int y = 0;
-
-            while (scanner.hasNextLine()) {
-
-                String line = scanner.nextLine();
-                char[] row = line.toCharArray();
-
-                for (int x = 0; x < row.length; x++) {
-                    Vector2D position = new Vector2D(x * RESIZING_FACTOR, y * RESIZING_FACTOR);
-
-                    char renderableType = row[x];
-                    Renderable renderable = renderableFactoryRegistry.createRenderable(
-                            renderableType, position
-                    );
-
-                    if (renderableType == RenderableType.BLINKY) {
-                        blinky = (Ghost) renderable;
-                    } else if (renderableType == RenderableType.INKY && blinky != null) {
-                        ((InkyChaseStrategy) ((Ghost) renderable).getChaseStrategy()).setBlinky(blinky);
-                    }
-
-                    maze.addRenderable(renderable, renderableType, x, y);
-                }
-
-                y += 1;
+        Maze maze = new Maze(template);
+
+        // renderables are added in the order of the map file, as before, which the order of ticking depends on
+        for (int cell = 0; cell < template.getCellCount(); cell++) {
+            char renderableType = template.getCellType(cell);
+            int x = template.getCellX(cell);
+            int y = template.getCellY(cell);
+
+            Renderable renderable = template.getCellRenderable(cell);
+            if (renderable instanceof Pellet) {
+                renderable = ((Pellet) renderable).copy();
+            } else if (renderable == null) {
+                Vector2D position = new Vector2D(x * RESIZING_FACTOR, y * RESIZING_FACTOR);
+                renderable = renderableFactoryRegistry.createRenderable(renderableType, position);
             }
 
-            scanner.close();
-
+            if (renderableType == RenderableType.BLINKY) {
+                blinky = (Ghost) renderable;
+            } else if (renderableType == RenderableType.INKY && blinky != null) {
+                ((InkyChaseStrategy) ((Ghost) renderable).getChaseStrategy()).setBlinky(blinky);
+            }
 
-        } catch (FileNotFoundException e) {
-            System.out.println("No maze file was found.");
-            exit(0);
+            maze.addRenderable(renderable, renderableType, x, y);
         }
 
         return maze;
@@ -0,0 +1,273 @@
+package pacman.model.maze;
+
+import pacman.model.engine.state.StateHash;
+import pacman.model.entity.Renderable;
+import pacman.model.entity.dynamic.physics.Direction;
+import pacman.model.entity.dynamic.physics.Vector2D;
+import pacman.model.factories.PelletFactory;
+import pacman.model.factories.RenderableFactoryRegistry;
+import pacman.model.factories.RenderableFactoryRegistryImpl;
+import pacman.model.factories.RenderableType;
+import pacman.model.factories.WallFactory;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.System.exit;
+
+/**
+ * Parsed layout of a map file, shared by every game played on it.
+ * <p>
+ * The template holds everything that never changes during a game: the walls, a grid telling which tiles are walls,
+ * the directions open from every tile, and the pellets as they are at the start of a level. Each game only creates
+ * its own moving entities and copies of the pellets, which are collected independently. Templates are loaded once
+ * per map file and never change afterwards, so games on any thread can share them.
+ */
+public class MazeTemplate {
+
+    private static final Map<String, MazeTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
+    private final int width;
+    private final int height;
+    private final boolean[] walls;
+    // bits of the directions not blocked by a wall, by Direction ordinal, for every tile
+    private final byte[] openDirections;
+    // index of the pellet on every tile among the pellets of the map, or -1
+    private final int[] pelletIndices;
+    private final int pelletCount;
+    private final int movingEntityCount;
+
+    // every renderable of the map file, in the order they appear
+    private final char[] cellTypes;
+    private final int[] cellXs;
+    private final int[] cellYs;
+    private final Renderable[] cellRenderables;
+    private final long layoutHash;
+
+    private MazeTemplate(List<String> rows) {
+        RenderableFactoryRegistry factories = getStaticFactoryRegistry();
+        this.height = rows.size();
+        this.width = rows.stream().mapToInt(String::length).max().orElse(0);
+        this.walls = new boolean[width * height];
+        this.pelletIndices = new int[width * height];
+        Arrays.fill(pelletIndices, -1);
+
+        int cellCount = 0;
+        char[] cellTypes = new char[width * height];
+        int[] cellXs = new int[width * height];
+        int[] cellYs = new int[width * height];
+        Renderable[] cellRenderables = new Renderable[width * height];
+        int pelletCount = 0;
+        int movingEntityCount = 0;
+        long layoutHash = 0;
+
+        for (int y = 0; y < height; y++) {
+            char[] row = rows.get(y).toCharArray();
+            for (int x = 0; x < row.length; x++) {
+                char renderableType = row[x];
+                if (!isRenderableType(renderableType)) {
+                    continue;
+                }
+
+                Vector2D position = new Vector2D(x * MazeCreator.RESIZING_FACTOR, y * MazeCreator.RESIZING_FACTOR);
+                // moving entities belong to a single game, they are created by the game itself
+                Renderable renderable = factories.createRenderable(renderableType, position);
+                if (isPellet(renderableType)) {
+                    pelletIndices[y * width + x] = pelletCount++;
+                } else if (renderable != null) {
+                    walls[y * width + x] = true;
+                } else {
+                    movingEntityCount++;
+                }
+
+                cellTypes[cellCount] = renderableType;
+                cellXs[cellCount] = x;
+                cellYs[cellCount] = y;
+                cellRenderables[cellCount] = renderable;
+                cellCount++;
+                layoutHash ^= StateHash.key(((long) x << 32) | y, renderableType);
+            }
+        }
+
+        this.cellTypes = Arrays.copyOf(cellTypes, cellCount);
+        this.cellXs = Arrays.copyOf(cellXs, cellCount);
+        this.cellYs = Arrays.copyOf(cellYs, cellCount);
+        this.cellRenderables = Arrays.copyOf(cellRenderables, cellCount);
+        this.pelletCount = pelletCount;
+        this.movingEntityCount = movingEntityCount;
+        this.layoutHash = layoutHash;
+
+        this.openDirections = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                openDirections[y * width + x] = (byte) findOpenDirections(x, y);
+            }
+        }
+    }
+
+    /**
+     * Gets the template of a map file, reading it the first time it is asked for
+     *
+     * @param fileName path of the map file
+     * @return template of the map
+     */
+    public static MazeTemplate load(String fileName) {
+        return TEMPLATES.computeIfAbsent(fileName, MazeTemplate::read);
+    }
+
+    private static MazeTemplate read(String fileName) {
+        List<String> rows = new ArrayList<>();
+        try {
+            Scanner scanner = new Scanner(new File(fileName));
+            while (scanner.hasNextLine()) {
+                rows.add(scanner.nextLine());
+            }
+            scanner.close();
+        } catch (FileNotFoundException e) {
+            System.out.println("No maze file was found.");
+            exit(0);
+        }
+        return new MazeTemplate(rows);
+    }
+
+    private static RenderableFactoryRegistry getStaticFactoryRegistry() {
+        RenderableFactoryRegistry renderableFactoryRegistry = new RenderableFactoryRegistryImpl();
+
+        renderableFactoryRegistry.registerFactory(RenderableType.HORIZONTAL_WALL, new WallFactory(RenderableType.HORIZONTAL_WALL));
+        renderableFactoryRegistry.registerFactory(RenderableType.VERTICAL_WALL, new WallFactory(RenderableType.VERTICAL_WALL));
+        renderableFactoryRegistry.registerFactory(RenderableType.UP_LEFT_WALL, new WallFactory(RenderableType.UP_LEFT_WALL));
+        renderableFactoryRegistry.registerFactory(RenderableType.UP_RIGHT_WALL, new WallFactory(RenderableType.UP_RIGHT_WALL));
+        renderableFactoryRegistry.registerFactory(RenderableType.DOWN_LEFT_WALL, new WallFactory(RenderableType.DOWN_LEFT_WALL));
+        renderableFactoryRegistry.registerFactory(RenderableType.DOWN_RIGHT_WALL, new WallFactory(RenderableType.DOWN_RIGHT_WALL));
+        renderableFactoryRegistry.registerFactory(RenderableType.PELLET, new PelletFactory(RenderableType.PELLET));
+        renderableFactoryRegistry.registerFactory(RenderableType.POWER_PELLET, new PelletFactory(RenderableType.POWER_PELLET));
+        return renderableFactoryRegistry;
+    }
+
+    private static boolean isRenderableType(char renderableType) {
+        return switch (renderableType) {
+            case RenderableType.HORIZONTAL_WALL, RenderableType.VERTICAL_WALL, RenderableType.UP_LEFT_WALL,
+                    RenderableType.UP_RIGHT_WALL, RenderableType.DOWN_LEFT_WALL, RenderableType.DOWN_RIGHT_WALL,
+                    RenderableType.PELLET, RenderableType.POWER_PELLET, RenderableType.PACMAN, RenderableType.BLINKY,
+                    RenderableType.PINKY, RenderableType.INKY, RenderableType.CLYDE -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean isPellet(char renderableType) {
+        return renderableType == RenderableType.PELLET || renderableType == RenderableType.POWER_PELLET;
+    }
+
+    private int findOpenDirections(int x, int y) {
+        int open = 0;
+        if (!isWall(x, y - 1)) {
+            open |= 1 << Direction.UP.ordinal();
+        }
+        if (!isWall(x, y + 1)) {
+            open |= 1 << Direction.DOWN.ordinal();
+        }
+        if (!isWall(x - 1, y)) {
+            open |= 1 << Direction.LEFT.ordinal();
+        }
+        if (!isWall(x + 1, y)) {
+            open |= 1 << Direction.RIGHT.ordinal();
+        }
+        return open;
+    }
+
+    /**
+     * @param x grid X position
+     * @param y grid Y position
+     * @return true, if there is a wall at the position; positions outside the map have no walls
+     */
+    public boolean isWall(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height && walls[y * width + x];
+    }
+
+    /**
+     * Gets the directions an entity at the centre of a tile can move in without running into a wall
+     *
+     * @param x grid X position
+     * @param y grid Y position
+     * @return bits of the open directions, by {@link Direction} ordinal
+     */
+    public int getOpenDirections(int x, int y) {
+        if (x >= 0 && x < width && y >= 0 && y < height) {
+            return openDirections[y * width + x];
+        }
+        return findOpenDirections(x, y);
+    }
+
+    /**
+     * Gets the index of the pellet on a tile, in the order the pellets appear in the map file
+     *
+     * @param x grid X position
+     * @param y grid Y position
+     * @return index of the pellet, or -1 if the tile has no pellet
+     */
+    public int getPelletIndex(int x, int y) {
+        if (x >= 0 && x < width && y >= 0 && y < height) {
+            return pelletIndices[y * width + x];
+        }
+        return -1;
+    }
+
+    /**
+     * @return number of pellets in the map file
+     */
+    public int getPelletCount() {
+        return pelletCount;
+    }
+
+    /**
+     * @return number of moving entities in the map file, the player and the ghosts
+     */
+    public int getMovingEntityCount() {
+        return movingEntityCount;
+    }
+
+    /**
+     * @return number of renderables in the map file
+     */
+    public int getCellCount() {
+        return cellTypes.length;
+    }
+
+    public char getCellType(int cell) {
+        return cellTypes[cell];
+    }
+
+    public int getCellX(int cell) {
+        return cellXs[cell];
+    }
+
+    public int getCellY(int cell) {
+        return cellYs[cell];
+    }
+
+    /**
+     * Gets the renderable of a cell made by the template: a wall shared by every game, or a pellet in its starting
+     * state, to be copied by each game
+     *
+     * @param cell index of the cell
+     * @return renderable of the cell, or null for moving entities, which each game creates itself
+     */
+    public Renderable getCellRenderable(int cell) {
+        return cellRenderables[cell];
+    }
+
+    /**
+     * Gets a hash of the renderable types at every grid position, identifying the layout of the maze
+     *
+     * @return hash of the maze layout
+     */
+    public long getLayoutHash() {
+        return layoutHash;
+    }
+}
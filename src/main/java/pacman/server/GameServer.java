@@ -0,0 +1,104 @@
+package pacman.server;
+
+import pacman.model.engine.GameConfigurationReader;
+import pacman.model.engine.GameEngineImpl;
+import pacman.model.maze.MazeTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hosts many games at once without a window, each as a {@link GameSession} ticked by a shared {@link TickScheduler}
+ */
+public class GameServer {
+
+    /**
+     * Time without moves after which a session is hibernated by default
+     */
+    public static final long DEFAULT_HIBERNATE_AFTER_SECONDS = 60;
+
+    // read once, every session shares the configuration and the maze template of its map
+    private final GameConfigurationReader configuration;
+    private final TickScheduler scheduler;
+    private final Map<Integer, GameSession> sessions;
+    private final AtomicInteger nextSessionId;
+
+    public GameServer(String configPath, int workerCount) {
+        this(configPath, workerCount, DEFAULT_HIBERNATE_AFTER_SECONDS);
+    }
+
+    /**
+     * @param configPath            path of the game configuration file
+     * @param workerCount           number of threads ticking the sessions
+     * @param hibernateAfterSeconds time without moves after which a session is hibernated, or 0 to never hibernate
+     */
+    public GameServer(String configPath, int workerCount, long hibernateAfterSeconds) {
+        this.configuration = new GameConfigurationReader(configPath);
+        this.scheduler = new TickScheduler(workerCount, TimeUnit.SECONDS.toNanos(hibernateAfterSeconds));
+        this.sessions = new ConcurrentHashMap<>();
+        this.nextSessionId = new AtomicInteger();
+    }
+
+    public void start() {
+        scheduler.start();
+    }
+
+    public void stop() {
+        scheduler.stop();
+    }
+
+    /**
+     * Starts a new game and schedules its ticks. Can be called from any thread.
+     *
+     * @param seed seed of the game
+     * @return the session of the game
+     */
+    public GameSession createSession(long seed) {
+        GameSession session = new GameSession(nextSessionId.getAndIncrement(),
+                () -> new GameEngineImpl(configuration, seed));
+        sessions.put(session.getId(), session);
+        scheduler.schedule(session);
+        return session;
+    }
+
+    /**
+     * @param id identifier of the session
+     * @return the session, or null if there is no open session with the identifier
+     */
+    public GameSession getSession(int id) {
+        return sessions.get(id);
+    }
+
+    /**
+     * @return every open session
+     */
+    public Collection<GameSession> getSessions() {
+        return sessions.values();
+    }
+
+    /**
+     * Ends a session, which stops being ticked. Can be called from any thread.
+     *
+     * @param id identifier of the session
+     */
+    public void closeSession(int id) {
+        GameSession session = sessions.remove(id);
+        if (session != null) {
+            session.close();
+        }
+    }
+
+    /**
+     * @return template of the map every session is played on
+     */
+    public MazeTemplate getMazeTemplate() {
+        return MazeTemplate.load(configuration.getMapFile());
+    }
+
+    public TickScheduler getScheduler() {
+        return scheduler;
+    }
+}
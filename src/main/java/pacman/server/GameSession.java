@@ -0,0 +1,233 @@
+package pacman.server;
+
+import pacman.model.engine.GameEngine;
+import pacman.model.engine.observer.GameState;
+import pacman.model.engine.concurrent.SpscQueue;
+import pacman.model.entity.dynamic.physics.Direction;
+import pacman.model.entity.dynamic.player.MovementInvoker;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * One game hosted by the server, ticked by a {@link TickScheduler} worker.
+ * <p>
+ * Moves from the client reach the game through a lock-free queue and are applied at the start of the next tick.
+ * Observers are told about every tick on the worker thread, which is the only thread that may touch the game.
+ * <p>
+ * A session left without moves for long enough while its game is waiting, either over or between lives, is hibernated
+ * by its worker: the game is saved off-heap and released, and stops being ticked. Games in play keep being ticked,
+ * so the ghosts never freeze in front of a player who stopped pressing keys. The next move wakes the session, which
+ * rebuilds the game and restores it before ticking on.
+ */
+public class GameSession {
+
+    private static final int INPUT_QUEUE_CAPACITY = 64;
+
+    private final int id;
+    private final Supplier<GameEngine> modelFactory;
+    private final SpscQueue<Direction> inputQueue;
+    private final List<SessionObserver> observers;
+    private GameEngine model;
+    private MovementInvoker movementInvoker;
+    private volatile long tickCount;
+    private volatile boolean closed;
+
+    // moves queued so far, written by the input thread, and whether the game is released, written by the worker
+    private volatile long inputCount;
+    private volatile boolean hibernated;
+
+    // scheduling state, only touched by the worker the session is assigned to
+    long nextTickTime;
+    long lastInputTime;
+    Consumer<GameSession> waker;
+    private int slabSlot = -1;
+
+    /**
+     * Creates a session and starts its game
+     *
+     * @param id           identifier of the session
+     * @param modelFactory creates the game of the session, always in the same starting state, such as from a seed
+     */
+    public GameSession(int id, Supplier<GameEngine> modelFactory) {
+        this.id = id;
+        this.modelFactory = modelFactory;
+        this.inputQueue = new SpscQueue<>(INPUT_QUEUE_CAPACITY);
+        this.observers = new CopyOnWriteArrayList<>();
+        this.model = modelFactory.get();
+        this.movementInvoker = model.getMovementInvoker();
+        model.startGame();
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the game of the session. Only to be used from within {@link SessionObserver#updateSession}, as the game
+     * is replaced whenever the session wakes from hibernation.
+     *
+     * @return game of the session
+     */
+    public GameEngine getModel() {
+        return model;
+    }
+
+    /**
+     * @return number of ticks played so far
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Queues a move from the client, waking the session if it is hibernated. Only to be called from a single input
+     * thread per session.
+     *
+     * @param direction direction the player wants to move in
+     * @return true, if the move was queued
+     */
+    public boolean submitMove(Direction direction) {
+        if (!inputQueue.offer(direction)) {
+            return false;
+        }
+        inputCount++;
+        if (hibernated) {
+            waker.accept(this);
+        }
+        return true;
+    }
+
+    public void registerObserver(SessionObserver observer) {
+        observers.add(observer);
+    }
+
+    public void removeObserver(SessionObserver observer) {
+        observers.remove(observer);
+    }
+
+    /**
+     * Stops the session, which is dropped by its worker before its next tick
+     */
+    public void close() {
+        closed = true;
+        if (hibernated) {
+            waker.accept(this);
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public boolean isHibernated() {
+        return hibernated;
+    }
+
+    /**
+     * @return true, if the game has ended and only needs to be ticked occasionally
+     */
+    boolean isIdle() {
+        return model.isIdle();
+    }
+
+    /**
+     * Applies the queued moves and ticks the game. Only to be called from the worker the session is assigned to.
+     *
+     * @param now time of the tick
+     */
+    void tick(long now) {
+        Direction direction;
+        while ((direction = inputQueue.poll()) != null) {
+            movementInvoker.addCommand(movementInvoker.getCommand(direction));
+            lastInputTime = now;
+        }
+        model.tick();
+        tickCount++;
+
+        for (SessionObserver observer : observers) {
+            // a failing observer is dropped, the game and the other sessions of the worker carry on
+            try {
+                observer.updateSession(this);
+            } catch (RuntimeException e) {
+                System.out.println("Observer of session " + id + " failed: " + e);
+                observers.remove(observer);
+            }
+        }
+    }
+
+    /**
+     * @return true, if the game is over or waiting for the level to start, so freezing it changes nothing the player
+     * can see
+     */
+    boolean canHibernate() {
+        return model.isIdle() || model.getLevelState() == GameState.READY;
+    }
+
+    /**
+     * Saves the game into the slab and releases it, unless a move or close arrives meanwhile. Only to be called from
+     * the worker the session is assigned to.
+     *
+     * @param slab    slab of the worker
+     * @param scratch buffer to save the game into
+     * @return true, if the session was hibernated
+     */
+    boolean hibernate(StateSlab slab, ByteBuffer scratch) {
+        long seenInputs = inputCount;
+        scratch.clear();
+        model.saveState(scratch);
+        scratch.flip();
+        if (scratch.remaining() > slab.getSlotCapacity()) {
+            return false;
+        }
+        slabSlot = slab.store(scratch);
+
+        // a move queued before the input thread could see the flag must not be left waiting for another move
+        hibernated = true;
+        if (inputCount != seenInputs || closed) {
+            hibernated = false;
+            slab.free(slabSlot);
+            slabSlot = -1;
+            return false;
+        }
+
+        model = null;
+        movementInvoker = null;
+        return true;
+    }
+
+    /**
+     * Rebuilds the game and restores it from the slab. Only to be called from the worker the session is assigned to.
+     *
+     * @param slab    slab of the worker
+     * @param scratch buffer to load the game into
+     * @param now     current time
+     */
+    void wake(StateSlab slab, ByteBuffer scratch, long now) {
+        GameEngine restored = modelFactory.get();
+        restored.startGame();
+        slab.load(slabSlot, scratch);
+        restored.restoreState(scratch);
+        release(slab);
+
+        this.model = restored;
+        this.movementInvoker = restored.getMovementInvoker();
+        this.lastInputTime = now;
+        this.hibernated = false;
+    }
+
+    /**
+     * Frees the slot holding the saved game
+     *
+     * @param slab slab of the worker
+     */
+    void release(StateSlab slab) {
+        if (slabSlot >= 0) {
+            slab.free(slabSlot);
+            slabSlot = -1;
+        }
+    }
+}
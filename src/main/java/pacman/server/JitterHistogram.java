@@ -0,0 +1,61 @@
+package pacman.server;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Histogram of tick start delays with fixed 10 microsecond buckets, written by a single worker thread.
+ * <p>
+ * Other threads read the buckets without synchronising, which may miss the ticks recorded during the read but never
+ * blocks the worker.
+ */
+class JitterHistogram {
+
+    static final long BUCKET_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    // delays of 50 ms or more all fall into the last bucket
+    static final int BUCKET_COUNT = 5000;
+
+    private final long[] buckets;
+    private long skippedTicks;
+    private long maxNanos;
+
+    JitterHistogram() {
+        this.buckets = new long[BUCKET_COUNT];
+    }
+
+    void record(long delayNanos) {
+        long delay = Math.max(0, delayNanos);
+        buckets[(int) Math.min(delay / BUCKET_NANOS, BUCKET_COUNT - 1)]++;
+        if (delay > maxNanos) {
+            maxNanos = delay;
+        }
+    }
+
+    void recordSkipped(long ticks) {
+        skippedTicks += ticks;
+    }
+
+    void clear() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = 0;
+        }
+        skippedTicks = 0;
+        maxNanos = 0;
+    }
+
+    /**
+     * Adds the buckets of this histogram to the given totals
+     *
+     * @param totals bucket totals, of {@link #BUCKET_COUNT} entries
+     * @return the largest delay recorded
+     */
+    long addTo(long[] totals) {
+        for (int i = 0; i < buckets.length; i++) {
+            totals[i] += buckets[i];
+        }
+        return maxNanos;
+    }
+
+    long getSkippedTicks() {
+        return skippedTicks;
+    }
+}
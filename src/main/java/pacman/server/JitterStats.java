@@ -0,0 +1,67 @@
+package pacman.server;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary of how late the ticks of the hosted sessions started compared to their schedule
+ */
+public class JitterStats {
+
+    private final long tickCount;
+    private final long skippedTicks;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    public JitterStats(long tickCount, long skippedTicks, long p50Nanos, long p99Nanos, long p999Nanos,
+                       long maxNanos) {
+        this.tickCount = tickCount;
+        this.skippedTicks = skippedTicks;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @return number of ticks played
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * @return number of ticks given up on because a session fell too far behind its schedule
+     */
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d ticks, %d skipped, jitter p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms",
+                tickCount, skippedTicks, toMillis(p50Nanos), toMillis(p99Nanos), toMillis(p999Nanos),
+                toMillis(maxNanos));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,15 @@
+package pacman.server;
+
+/**
+ * Observes the ticks of a game session, such as to send its state to a client
+ */
+public interface SessionObserver {
+
+    /**
+     * Called on the scheduler worker thread after every tick of the session. Must return quickly, as other
+     * sessions on the same worker wait for it.
+     *
+     * @param session session that ticked
+     */
+    void updateSession(GameSession session);
+}
@@ -0,0 +1,99 @@
+package pacman.server;
+
+import pacman.model.engine.network.DeltaCodec;
+import pacman.model.engine.network.NetworkState;
+import pacman.server.websocket.WebSocketConnection;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Sends the state of a session to its client after every tick, written straight into a pooled buffer.
+ * <p>
+ * A STATE message is the type followed by the state encoded by {@link DeltaCodec}, as the changes since the latest
+ * state the client has acknowledged. The states of the last {@link #BASELINE_WINDOW} ticks are kept in a ring, and a
+ * state is sent in full when the client has acknowledged none of them, as well as every
+ * {@link #RESYNC_INTERVAL_TICKS} ticks in case the client lost track.
+ */
+class StateFrameEncoder implements SessionObserver {
+
+    /**
+     * Number of ticks a state can be used as a baseline for, the client must keep at least as many states
+     */
+    static final int BASELINE_WINDOW = 32;
+
+    /**
+     * Ticks after which a state is sent in full again, about five seconds
+     */
+    static final int RESYNC_INTERVAL_TICKS = 150;
+
+    private final WebSocketConnection connection;
+    private final GameSession session;
+    private final NetworkState[] history;
+    private int lastFullTick;
+
+    // written by the worker before each state is sent, read by the server thread to check acknowledgements
+    private volatile int lastSentTick;
+    // written by the server thread as acknowledgements arrive, read by the worker
+    private volatile int acknowledgedTick;
+
+    StateFrameEncoder(WebSocketConnection connection, GameSession session) {
+        this.connection = connection;
+        this.session = session;
+        this.history = new NetworkState[BASELINE_WINDOW];
+        for (int i = 0; i < history.length; i++) {
+            history[i] = new NetworkState();
+        }
+        this.lastFullTick = Integer.MIN_VALUE;
+        this.lastSentTick = DeltaCodec.NO_BASELINE;
+        this.acknowledgedTick = DeltaCodec.NO_BASELINE;
+    }
+
+    GameSession getSession() {
+        return session;
+    }
+
+    /**
+     * Records that the client has decoded a state, which later states can then be encoded against. Only to be
+     * called from the server thread.
+     *
+     * @param tick tick of the state decoded, ignored unless its state has been sent
+     */
+    void acknowledge(int tick) {
+        if (tick > acknowledgedTick && tick <= lastSentTick) {
+            acknowledgedTick = tick;
+        }
+    }
+
+    @Override
+    public void updateSession(GameSession session) {
+        if (connection.isClosing()) {
+            session.removeObserver(this);
+            return;
+        }
+        int tick = (int) session.getTickCount();
+        NetworkState state = history[tick % BASELINE_WINDOW];
+        state.capture(session.getModel(), tick);
+
+        NetworkState baseline = getBaseline(tick);
+        if (baseline == null) {
+            lastFullTick = tick;
+        }
+
+        ByteBuffer message = connection.acquireMessage();
+        message.put(StateStreamServer.MESSAGE_STATE);
+        DeltaCodec.encode(state, baseline, message);
+        // before sending, so the acknowledgement can never arrive first
+        lastSentTick = tick;
+        connection.send(message);
+    }
+
+    private NetworkState getBaseline(int tick) {
+        int acknowledged = acknowledgedTick;
+        if (acknowledged == DeltaCodec.NO_BASELINE || acknowledged >= tick || tick - acknowledged >= BASELINE_WINDOW
+                || (long) tick - lastFullTick >= RESYNC_INTERVAL_TICKS) {
+            return null;
+        }
+        NetworkState baseline = history[acknowledged % BASELINE_WINDOW];
+        return baseline.getTick() == acknowledged ? baseline : null;
+    }
+}
@@ -0,0 +1,104 @@
+package pacman.server;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Off-heap store of saved game states in fixed size slots, used by a single thread.
+ * <p>
+ * Slots are carved out of direct buffers allocated a chunk at a time, so stored states cost the heap nothing and the
+ * garbage collector never scans them. Freed slots are reused before any new chunk is allocated.
+ */
+class StateSlab {
+
+    private final int slotSize;
+    private final int slotsPerChunk;
+    private final List<ByteBuffer> chunks;
+    private int[] freeSlots;
+    private int freeCount;
+    private int usedCount;
+
+    /**
+     * @param slotSize      bytes of each slot, including the four bytes holding the length of the state
+     * @param slotsPerChunk slots allocated at once whenever the slab runs out of free slots
+     */
+    StateSlab(int slotSize, int slotsPerChunk) {
+        this.slotSize = slotSize;
+        this.slotsPerChunk = slotsPerChunk;
+        this.chunks = new ArrayList<>();
+        this.freeSlots = new int[0];
+    }
+
+    /**
+     * @return largest state that fits into a slot, in bytes
+     */
+    int getSlotCapacity() {
+        return slotSize - 4;
+    }
+
+    /**
+     * Copies the remaining bytes of the state into a free slot
+     *
+     * @param state state to store, of at most {@link #getSlotCapacity()} bytes
+     * @return slot holding the state
+     */
+    int store(ByteBuffer state) {
+        if (state.remaining() > getSlotCapacity()) {
+            throw new IllegalArgumentException("State of " + state.remaining() + " bytes does not fit a slot");
+        }
+        if (freeCount == 0) {
+            addChunk();
+        }
+
+        int slot = freeSlots[--freeCount];
+        ByteBuffer chunk = chunks.get(slot / slotsPerChunk);
+        int offset = (slot % slotsPerChunk) * slotSize;
+        chunk.putInt(offset, state.remaining());
+        chunk.put(offset + 4, state, state.position(), state.remaining());
+        usedCount++;
+        return slot;
+    }
+
+    /**
+     * Copies a stored state into the target, which is cleared first and flipped for reading afterwards
+     *
+     * @param slot   slot holding the state
+     * @param target buffer to copy into
+     */
+    void load(int slot, ByteBuffer target) {
+        ByteBuffer chunk = chunks.get(slot / slotsPerChunk);
+        int offset = (slot % slotsPerChunk) * slotSize;
+        int length = chunk.getInt(offset);
+        target.clear();
+        target.put(0, chunk, offset + 4, length);
+        target.limit(length);
+    }
+
+    void free(int slot) {
+        freeSlots[freeCount++] = slot;
+        usedCount--;
+    }
+
+    int getUsedCount() {
+        return usedCount;
+    }
+
+    /**
+     * @return bytes of direct memory held by the slab
+     */
+    long getOffHeapBytes() {
+        return (long) chunks.size() * slotsPerChunk * slotSize;
+    }
+
+    private void addChunk() {
+        int firstSlot = chunks.size() * slotsPerChunk;
+        chunks.add(ByteBuffer.allocateDirect(slotsPerChunk * slotSize));
+        freeSlots = Arrays.copyOf(freeSlots, firstSlot + slotsPerChunk);
+        // hand out the lowest slots first
+        for (int i = slotsPerChunk - 1; i >= 0; i--) {
+            freeSlots[freeCount++] = firstSlot + i;
+        }
+    }
+}
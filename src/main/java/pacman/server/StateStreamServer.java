@@ -0,0 +1,132 @@
+package pacman.server;
+
+import pacman.model.engine.GameEngine;
+import pacman.model.engine.network.DeltaCodec;
+import pacman.model.entity.Sprite;
+import pacman.model.entity.dynamic.physics.Direction;
+import pacman.model.maze.MazeTemplate;
+import pacman.server.websocket.BufferPool;
+import pacman.server.websocket.WebSocketConnection;
+import pacman.server.websocket.WebSocketListener;
+import pacman.server.websocket.WebSocketServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Streams games hosted by a {@link GameServer} to browsers over WebSockets, the server deciding everything that
+ * happens in the game.
+ * <p>
+ * Every connection gets its own session. The client is sent a {@link #MESSAGE_HELLO} once, then a
+ * {@link #MESSAGE_STATE} after every tick, which it answers with a {@link #MESSAGE_ACK}, and sends a
+ * {@link #MESSAGE_INPUT} for every move of the player. All messages are binary and big-endian:
+ * <ul>
+ *     <li>HELLO: type, protocol version (u8), session id (i32), tick duration in milliseconds (u16), number of
+ *     sprites (u8), then the length (u8) and ASCII name of every {@link Sprite}, by ordinal</li>
+ *     <li>STATE: type, then the state as the changes since an acknowledged state, see {@link DeltaCodec}</li>
+ *     <li>INPUT: type, {@link Direction} ordinal (u8)</li>
+ *     <li>ACK: type, tick of the latest state decoded (i32), to be kept for {@code BASELINE_WINDOW} ticks as the
+ *     baseline of later states</li>
+ * </ul>
+ */
+public class StateStreamServer implements WebSocketListener {
+
+    public static final int PROTOCOL_VERSION = 2;
+    public static final byte MESSAGE_HELLO = 0;
+    public static final byte MESSAGE_STATE = 1;
+    public static final byte MESSAGE_INPUT = 2;
+    public static final byte MESSAGE_ACK = 3;
+
+    private static final int MAX_POOLED_BUFFERS = 1024;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final GameServer gameServer;
+    private final WebSocketServer webSocketServer;
+    private final Random seeds;
+
+    /**
+     * @param gameServer server hosting the games, which must be started separately
+     * @param port       port to listen on for clients, or 0 to pick a free port
+     */
+    public StateStreamServer(GameServer gameServer, int port) {
+        this.gameServer = gameServer;
+        // room for any state of the map, though the changes of a tick usually take a few tens of bytes
+        MazeTemplate template = gameServer.getMazeTemplate();
+        int messageBufferSize = WebSocketConnection.MAX_HEADER_SIZE + Math.max(getHelloSize(),
+                1 + DeltaCodec.getMaxEncodedSize(template.getMovingEntityCount(), template.getPelletCount()));
+        this.webSocketServer = new WebSocketServer(new InetSocketAddress(port), this,
+                new BufferPool(messageBufferSize, MAX_POOLED_BUFFERS));
+        this.seeds = new Random();
+    }
+
+    public void start() throws IOException {
+        webSocketServer.start();
+    }
+
+    public void stop() {
+        webSocketServer.stop();
+    }
+
+    public int getPort() {
+        return webSocketServer.getPort();
+    }
+
+    @Override
+    public void onOpen(WebSocketConnection connection) {
+        GameSession session = gameServer.createSession(seeds.nextLong());
+        StateFrameEncoder encoder = new StateFrameEncoder(connection, session);
+        connection.setAttachment(encoder);
+        connection.send(encodeHello(connection.acquireMessage(), session));
+        // registered after the hello is queued, so the first state always follows it
+        session.registerObserver(encoder);
+    }
+
+    @Override
+    public void onMessage(WebSocketConnection connection, ByteBuffer message) {
+        StateFrameEncoder encoder = (StateFrameEncoder) connection.getAttachment();
+        if (!message.hasRemaining()) {
+            return;
+        }
+        byte type = message.get();
+        if (type == MESSAGE_INPUT && message.remaining() >= 1) {
+            int direction = message.get() & 0xFF;
+            if (direction < DIRECTIONS.length) {
+                // this thread is the only one submitting moves, as the input queues of the sessions expect
+                encoder.getSession().submitMove(DIRECTIONS[direction]);
+            }
+        } else if (type == MESSAGE_ACK && message.remaining() >= Integer.BYTES) {
+            encoder.acknowledge(message.getInt());
+        }
+    }
+
+    @Override
+    public void onClose(WebSocketConnection connection) {
+        gameServer.closeSession(((StateFrameEncoder) connection.getAttachment()).getSession().getId());
+    }
+
+    private static int getHelloSize() {
+        int size = 1 + 1 + Integer.BYTES + Short.BYTES + 1;
+        for (Sprite sprite : Sprite.values()) {
+            size += 1 + sprite.name().length();
+        }
+        return size;
+    }
+
+    private static ByteBuffer encodeHello(ByteBuffer message, GameSession session) {
+        Sprite[] sprites = Sprite.values();
+        message.put(MESSAGE_HELLO)
+                .put((byte) PROTOCOL_VERSION)
+                .putInt(session.getId())
+                .putShort((short) GameEngine.TICK_DURATION_MILLIS)
+                .put((byte) sprites.length);
+        for (Sprite sprite : sprites) {
+            byte[] name = sprite.name().getBytes(StandardCharsets.US_ASCII);
+            message.put((byte) name.length).put(name);
+        }
+        return message;
+    }
+}
@@ -0,0 +1,298 @@
+package pacman.server;
+
+import pacman.model.engine.GameEngine;
+import pacman.model.engine.state.StateBuffers;
+
+import java.nio.ByteBuffer;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ticks many game sessions at a fixed rate on a small pool of worker threads.
+ * <p>
+ * Each session is assigned to one worker for its lifetime, so a game is only ever touched by one thread. A worker
+ * keeps its sessions ordered by when their next tick is due, sleeps until the earliest one is, then ticks every
+ * session that is due. Sessions start at evenly spread offsets within the tick period so their ticks do not all fall
+ * due at once. A session that falls behind its schedule is ticked repeatedly to catch up, up to a limit beyond which
+ * the backlog is dropped, as the simulation window does. How late each tick started is recorded per worker.
+ * <p>
+ * Sessions without moves for longer than the hibernation timeout are hibernated into an off-heap slab owned by their
+ * worker, and leave the schedule until a move wakes them, so the heap only holds the games of active players.
+ */
+public class TickScheduler {
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(GameEngine.TICK_DURATION_MILLIS);
+    private static final long IDLE_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final int MAX_CATCH_UP_TICKS = 5;
+    // slots fit the saved state of the default maze with room to spare
+    private static final int SLAB_SLOT_SIZE = 1024;
+    private static final int SLAB_SLOTS_PER_CHUNK = 256;
+
+    private final Worker[] workers;
+    private final AtomicInteger nextWorker;
+    private final long hibernateAfterNanos;
+    private volatile boolean running;
+
+    /**
+     * @param workerCount         number of worker threads, usually the number of cores
+     * @param hibernateAfterNanos time without moves after which a session is hibernated, or 0 to never hibernate
+     */
+    public TickScheduler(int workerCount, long hibernateAfterNanos) {
+        this.hibernateAfterNanos = hibernateAfterNanos;
+        this.workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker("pacman-server-" + i);
+        }
+        this.nextWorker = new AtomicInteger();
+    }
+
+    /**
+     * Starts the worker threads
+     */
+    public void start() {
+        running = true;
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
+    }
+
+    /**
+     * Stops the worker threads after their current tick and waits for them to finish
+     */
+    public void stop() {
+        running = false;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker.thread);
+            try {
+                worker.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Starts ticking a session, whose game must already be started. Can be called from any thread.
+     *
+     * @param session session to tick
+     */
+    public void schedule(GameSession session) {
+        Worker worker = workers[Math.floorMod(nextWorker.getAndIncrement(), workers.length)];
+        session.waker = worker::wake;
+        worker.added.offer(session);
+        LockSupport.unpark(worker.thread);
+    }
+
+    /**
+     * @return jitter of the ticks played since the scheduler started or its statistics were last reset
+     */
+    public JitterStats getJitterStats() {
+        long[] totals = new long[JitterHistogram.BUCKET_COUNT];
+        long maxNanos = 0;
+        long skippedTicks = 0;
+        for (Worker worker : workers) {
+            maxNanos = Math.max(maxNanos, worker.histogram.addTo(totals));
+            skippedTicks += worker.histogram.getSkippedTicks();
+        }
+
+        long tickCount = 0;
+        for (long count : totals) {
+            tickCount += count;
+        }
+        return new JitterStats(tickCount, skippedTicks, percentile(totals, tickCount, 0.5),
+                percentile(totals, tickCount, 0.99), percentile(totals, tickCount, 0.999), maxNanos);
+    }
+
+    /**
+     * Clears the jitter statistics, such as after warming up. Each worker clears its own before its next tick.
+     */
+    public void resetJitterStats() {
+        for (Worker worker : workers) {
+            worker.resetRequested = true;
+        }
+    }
+
+    /**
+     * @return number of sessions being ticked or hibernated
+     */
+    public int getSessionCount() {
+        int sessionCount = 0;
+        for (Worker worker : workers) {
+            sessionCount += worker.sessionCount;
+        }
+        return sessionCount;
+    }
+
+    /**
+     * @return number of hibernated sessions
+     */
+    public int getHibernatedCount() {
+        int hibernatedCount = 0;
+        for (Worker worker : workers) {
+            hibernatedCount += worker.hibernatedCount;
+        }
+        return hibernatedCount;
+    }
+
+    /**
+     * @return bytes of direct memory held by the slabs of hibernated sessions
+     */
+    public long getSlabBytes() {
+        long slabBytes = 0;
+        for (Worker worker : workers) {
+            slabBytes += worker.slabBytes;
+        }
+        return slabBytes;
+    }
+
+    private static long percentile(long[] buckets, long total, double fraction) {
+        long threshold = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= threshold && seen > 0) {
+                // upper bound of the bucket
+                return (i + 1) * JitterHistogram.BUCKET_NANOS;
+            }
+        }
+        return 0;
+    }
+
+    private static long getStartOffset(GameSession session) {
+        // golden ratio spacing keeps the offsets of consecutive sessions evenly spread
+        return Long.remainderUnsigned(session.getId() * 0x9E3779B97F4A7C15L, TICK_NANOS);
+    }
+
+    private class Worker implements Runnable {
+        private final Thread thread;
+        private final Queue<GameSession> added;
+        private final Queue<GameSession> woken;
+        private final PriorityQueue<GameSession> sessions;
+        private final JitterHistogram histogram;
+        private final StateSlab slab;
+        private final ByteBuffer scratch;
+        private volatile boolean resetRequested;
+        private volatile int sessionCount;
+        private volatile int hibernatedCount;
+        private volatile long slabBytes;
+
+        private Worker(String name) {
+            this.thread = new Thread(this, name);
+            this.thread.setDaemon(true);
+            this.added = new ConcurrentLinkedQueue<>();
+            this.woken = new ConcurrentLinkedQueue<>();
+            this.slab = new StateSlab(SLAB_SLOT_SIZE, SLAB_SLOTS_PER_CHUNK);
+            this.scratch = ByteBuffer.allocate(StateBuffers.MAX_STATE_SIZE);
+            this.sessions = new PriorityQueue<>((a, b) -> Long.compare(a.nextTickTime, b.nextTickTime));
+            this.histogram = new JitterHistogram();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                if (resetRequested) {
+                    resetRequested = false;
+                    histogram.clear();
+                }
+                addSessions();
+                wakeSessions();
+
+                GameSession session = sessions.peek();
+                if (session == null) {
+                    LockSupport.park();
+                    continue;
+                }
+
+                long wait = session.nextTickTime - System.nanoTime();
+                if (wait > 0) {
+                    // woken early when sessions are added, which may be due sooner
+                    LockSupport.parkNanos(wait);
+                    continue;
+                }
+
+                sessions.poll();
+                if (session.isClosed()) {
+                    sessionCount--;
+                    continue;
+                }
+                tick(session);
+                if (!hibernateIfInactive(session)) {
+                    sessions.add(session);
+                }
+            }
+        }
+
+        /**
+         * Queues a hibernated session to be woken, or dropped if it was closed. Can be called from any thread.
+         */
+        private void wake(GameSession session) {
+            woken.offer(session);
+            LockSupport.unpark(thread);
+        }
+
+        private void addSessions() {
+            GameSession session;
+            long now = System.nanoTime();
+            while ((session = added.poll()) != null) {
+                session.nextTickTime = now + getStartOffset(session);
+                session.lastInputTime = now;
+                sessions.add(session);
+                sessionCount++;
+            }
+        }
+
+        private void wakeSessions() {
+            GameSession session;
+            while ((session = woken.poll()) != null) {
+                // a session may be queued more than once, or already woken
+                if (!session.isHibernated()) {
+                    continue;
+                }
+
+                long now = System.nanoTime();
+                if (session.isClosed()) {
+                    session.release(slab);
+                    sessionCount--;
+                } else {
+                    session.wake(slab, scratch, now);
+                    session.nextTickTime = now;
+                    sessions.add(session);
+                }
+                hibernatedCount--;
+                slabBytes = slab.getOffHeapBytes();
+            }
+        }
+
+        private boolean hibernateIfInactive(GameSession session) {
+            if (hibernateAfterNanos <= 0 || System.nanoTime() - session.lastInputTime < hibernateAfterNanos ||
+                    !session.canHibernate() || !session.hibernate(slab, scratch)) {
+                return false;
+            }
+            hibernatedCount++;
+            slabBytes = slab.getOffHeapBytes();
+            return true;
+        }
+
+        private void tick(GameSession session) {
+            int ticks = 0;
+            long delay;
+            while ((delay = System.nanoTime() - session.nextTickTime) >= 0 && ticks < MAX_CATCH_UP_TICKS) {
+                histogram.record(delay);
+                session.tick(session.nextTickTime + delay);
+                session.nextTickTime += session.isIdle() ? IDLE_TICK_NANOS : TICK_NANOS;
+                ticks++;
+            }
+
+            // drop any backlog that could not be caught up on, e.g. after a long stall
+            if (delay >= 0) {
+                long period = session.isIdle() ? IDLE_TICK_NANOS : TICK_NANOS;
+                histogram.recordSkipped(delay / period + 1);
+                session.nextTickTime = System.nanoTime() + period;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package pacman.server.websocket;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pool of equally sized direct buffers, so messages can be written straight to sockets without a buffer being
+ * allocated for every message. Buffers can be taken and given back from any thread.
+ */
+public class BufferPool {
+
+    private final int bufferSize;
+    private final BlockingQueue<ByteBuffer> freeBuffers;
+
+    /**
+     * @param bufferSize size of each buffer in bytes
+     * @param maxPooled  number of free buffers kept at most, buffers given back beyond that are left to the collector
+     */
+    public BufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.freeBuffers = new ArrayBlockingQueue<>(maxPooled);
+    }
+
+    /**
+     * @return a cleared buffer, allocated if the pool is empty
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = freeBuffers.poll();
+        return buffer == null ? ByteBuffer.allocateDirect(bufferSize) : buffer.clear();
+    }
+
+    /**
+     * Gives a buffer back to the pool. Buffers not taken from a pool of this size are ignored.
+     *
+     * @param buffer buffer no longer used
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer.isDirect() && buffer.capacity() == bufferSize) {
+            freeBuffers.offer(buffer);
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+}
@@ -0,0 +1,429 @@
+package pacman.server.websocket;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One client of a {@link WebSocketServer}.
+ * <p>
+ * Messages can be sent from any thread: they are written into a pooled buffer from {@link #acquireMessage()} and
+ * queued by {@link #send(ByteBuffer)}, and the server thread writes them to the socket. A client that reads slower
+ * than messages are sent has its newest messages dropped instead of queued without bound. Messages are queued in a
+ * ring sized up front, so sending allocates nothing.
+ */
+public class WebSocketConnection {
+
+    /**
+     * Space left at the start of every message buffer for the frame header
+     */
+    public static final int MAX_HEADER_SIZE = 10;
+
+    /**
+     * Number of messages queued at most for a client before new ones are dropped
+     */
+    public static final int MAX_PENDING = 8;
+
+    // room for control frames and the handshake response on top of the messages
+    private static final int MAX_QUEUED = MAX_PENDING * 2;
+
+    /**
+     * Size of the buffer every client's handshake and messages are read into, enough for the headers of any browser
+     */
+    public static final int INBOUND_BUFFER_SIZE = 8 * 1024;
+
+    private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final byte[] HEADER_END = {'\r', '\n', '\r', '\n'};
+
+    private static final int FIN = 0x80;
+    private static final int MASKED = 0x80;
+    private static final int OPCODE_CONTINUATION = 0x0;
+    private static final int OPCODE_BINARY = 0x2;
+    private static final int OPCODE_CLOSE = 0x8;
+    // opcodes from this one on are control frames
+    private static final int OPCODE_CONTROL = 0x8;
+    private static final int OPCODE_PING = 0x9;
+    private static final int OPCODE_PONG = 0xA;
+
+    private static final int CLOSE_NORMAL = 1000;
+    private static final int CLOSE_PROTOCOL_ERROR = 1002;
+    private static final int CLOSE_UNSUPPORTED_DATA = 1003;
+    private static final int CLOSE_TOO_BIG = 1009;
+
+    private static final int MAX_CONTROL_PAYLOAD = 125;
+
+    private final WebSocketServer server;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final BufferPool pool;
+    private final ByteBuffer inbound;
+    private final Queue<ByteBuffer> outbound;
+    private final AtomicInteger pendingCount;
+    private final AtomicBoolean writeRequested;
+    private volatile boolean closing;
+    private volatile Object attachment;
+
+    // only touched by the server thread
+    private boolean open;
+    private boolean closed;
+
+    // next connection waiting for the server thread to write, linked while the write is requested
+    WebSocketConnection nextWriteRequest;
+
+    WebSocketConnection(WebSocketServer server, SocketChannel channel, SelectionKey key, BufferPool pool) {
+        this.server = server;
+        this.channel = channel;
+        this.key = key;
+        this.pool = pool;
+        // the pooled buffers are sized for states, far smaller than the headers of a browser's request
+        this.inbound = ByteBuffer.allocateDirect(INBOUND_BUFFER_SIZE);
+        this.outbound = new ArrayBlockingQueue<>(MAX_QUEUED);
+        this.pendingCount = new AtomicInteger();
+        this.writeRequested = new AtomicBoolean();
+    }
+
+    /**
+     * Gets a buffer to write a message into, positioned after the space kept for the frame header. The payload is
+     * written from the position onwards, and the buffer handed to {@link #send(ByteBuffer)}.
+     *
+     * @return buffer for the next message
+     */
+    public ByteBuffer acquireMessage() {
+        return pool.acquire().position(MAX_HEADER_SIZE);
+    }
+
+    /**
+     * Queues a binary message, whose payload lies between {@link #MAX_HEADER_SIZE} and the position of the buffer.
+     * The buffer belongs to the connection afterwards, whether the message is sent or not.
+     *
+     * @param message buffer from {@link #acquireMessage()}
+     * @return true, if the message was queued; false if the connection is closing or too many messages are queued
+     */
+    public boolean send(ByteBuffer message) {
+        if (closing || pendingCount.get() >= MAX_PENDING) {
+            pool.release(message);
+            return false;
+        }
+        frame(message, OPCODE_BINARY);
+        return enqueue(message);
+    }
+
+    /**
+     * Starts the closing handshake. Can be called from any thread.
+     */
+    public void close() {
+        closeWithStatus(CLOSE_NORMAL);
+    }
+
+    public boolean isClosing() {
+        return closing;
+    }
+
+    /**
+     * Attaches an object to the connection, such as the state of the client
+     *
+     * @param attachment object to attach
+     */
+    public void setAttachment(Object attachment) {
+        this.attachment = attachment;
+    }
+
+    public Object getAttachment() {
+        return attachment;
+    }
+
+    /**
+     * Writes the frame header just before the payload and sets the buffer to be written from the header onwards
+     */
+    private static void frame(ByteBuffer message, int opcode) {
+        int end = message.position();
+        int length = end - MAX_HEADER_SIZE;
+        int start;
+        if (length < 126) {
+            start = MAX_HEADER_SIZE - 2;
+            message.put(start + 1, (byte) length);
+        } else if (length <= 0xFFFF) {
+            start = MAX_HEADER_SIZE - 4;
+            message.put(start + 1, (byte) 126);
+            message.putShort(start + 2, (short) length);
+        } else {
+            start = 0;
+            message.put(start + 1, (byte) 127);
+            message.putLong(start + 2, length);
+        }
+        message.put(start, (byte) (FIN | opcode));
+        message.limit(end).position(start);
+    }
+
+    private void sendControl(int opcode, ByteBuffer payload) {
+        // control frames skip the limit on messages, so the client learns why it is closed unless it stopped reading
+        ByteBuffer message = acquireMessage();
+        message.put(payload);
+        frame(message, opcode);
+        enqueue(message);
+    }
+
+    private boolean enqueue(ByteBuffer message) {
+        pendingCount.incrementAndGet();
+        if (!outbound.offer(message)) {
+            pendingCount.decrementAndGet();
+            pool.release(message);
+            return false;
+        }
+        requestWrite();
+        return true;
+    }
+
+    private void closeWithStatus(int status) {
+        if (closing) {
+            return;
+        }
+        sendControl(OPCODE_CLOSE, ByteBuffer.allocate(2).putShort(0, (short) status));
+        closing = true;
+    }
+
+    private void requestWrite() {
+        if (writeRequested.compareAndSet(false, true)) {
+            server.requestWrite(this);
+        }
+    }
+
+    /**
+     * Reads what the client has sent, answering the opening handshake or passing on complete messages. Only to be
+     * called from the server thread.
+     */
+    void read(WebSocketListener listener) throws IOException {
+        if (channel.read(inbound) < 0) {
+            closeNow(listener);
+            return;
+        }
+        if (closing) {
+            // nothing more is answered once closing
+            inbound.clear();
+        } else if (open) {
+            readFrames(listener);
+        } else {
+            readHandshake(listener);
+        }
+    }
+
+    private void readHandshake(WebSocketListener listener) throws IOException {
+        int headerEnd = indexOf(inbound, HEADER_END);
+        if (headerEnd < 0) {
+            if (!inbound.hasRemaining()) {
+                rejectHandshake();
+            }
+            return;
+        }
+
+        byte[] request = new byte[headerEnd];
+        inbound.get(0, request);
+        String key = null;
+        boolean upgrade = false;
+        for (String line : new String(request, StandardCharsets.ISO_8859_1).split("\r\n")) {
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+            if (name.equals("upgrade")) {
+                upgrade = value.toLowerCase(Locale.ROOT).contains("websocket");
+            } else if (name.equals("sec-websocket-key")) {
+                key = value;
+            }
+        }
+        if (!upgrade || key == null) {
+            rejectHandshake();
+            return;
+        }
+
+        String response = "HTTP/1.1 101 Switching Protocols\r\n" +
+                "Upgrade: websocket\r\n" +
+                "Connection: Upgrade\r\n" +
+                "Sec-WebSocket-Accept: " + getAcceptKey(key) + "\r\n\r\n";
+        queueRaw(response);
+        open = true;
+
+        // anything after the request is already the first frames
+        inbound.limit(inbound.position()).position(headerEnd + HEADER_END.length);
+        inbound.compact();
+        listener.onOpen(this);
+        readFrames(listener);
+    }
+
+    private void rejectHandshake() {
+        queueRaw("HTTP/1.1 400 Bad Request\r\nConnection: close\r\nContent-Length: 0\r\n\r\n");
+        closing = true;
+    }
+
+    private void queueRaw(String text) {
+        // a heap buffer, which the pool ignores once written
+        enqueue(ByteBuffer.wrap(text.getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    private static String getAcceptKey(String key) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            byte[] digest = sha1.digest((key + ACCEPT_GUID).getBytes(StandardCharsets.ISO_8859_1));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte[] pattern) {
+        for (int i = 0; i + pattern.length <= buffer.position(); i++) {
+            int matched = 0;
+            while (matched < pattern.length && buffer.get(i + matched) == pattern[matched]) {
+                matched++;
+            }
+            if (matched == pattern.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void readFrames(WebSocketListener listener) {
+        inbound.flip();
+        while (!closing && inbound.remaining() >= 2) {
+            int start = inbound.position();
+            int first = inbound.get(start) & 0xFF;
+            int second = inbound.get(start + 1) & 0xFF;
+            int opcode = first & 0x0F;
+
+            int headerSize = 2;
+            long length = second & 0x7F;
+            if (length == 126) {
+                headerSize += 2;
+                if (inbound.remaining() < headerSize) {
+                    break;
+                }
+                length = inbound.getShort(start + 2) & 0xFFFF;
+            } else if (length == 127) {
+                headerSize += 8;
+                if (inbound.remaining() < headerSize) {
+                    break;
+                }
+                length = inbound.getLong(start + 2);
+            }
+            headerSize += 4;
+
+            if ((second & MASKED) == 0) {
+                closeWithStatus(CLOSE_PROTOCOL_ERROR);
+                break;
+            }
+            if (opcode >= OPCODE_CONTROL && (length > MAX_CONTROL_PAYLOAD || (first & FIN) == 0)) {
+                // control frames are short and never fragmented, so they fit in any buffer when echoed
+                closeWithStatus(CLOSE_PROTOCOL_ERROR);
+                break;
+            }
+            if (length < 0 || length > inbound.capacity() - headerSize) {
+                closeWithStatus(CLOSE_TOO_BIG);
+                break;
+            }
+            if ((first & FIN) == 0 || opcode == OPCODE_CONTINUATION) {
+                // clients only send short messages, which are never fragmented
+                closeWithStatus(CLOSE_UNSUPPORTED_DATA);
+                break;
+            }
+            int payloadStart = start + headerSize;
+            int payloadEnd = payloadStart + (int) length;
+            if (payloadEnd > inbound.limit()) {
+                break;
+            }
+
+            // unmask in place, the payload is only read from here on
+            int maskStart = payloadStart - 4;
+            for (int i = 0; i < length; i++) {
+                int position = payloadStart + i;
+                inbound.put(position, (byte) (inbound.get(position) ^ inbound.get(maskStart + (i & 3))));
+            }
+
+            int limit = inbound.limit();
+            inbound.limit(payloadEnd).position(payloadStart);
+            handleFrame(listener, opcode);
+            inbound.limit(limit).position(payloadEnd);
+        }
+        inbound.compact();
+    }
+
+    private void handleFrame(WebSocketListener listener, int opcode) {
+        switch (opcode) {
+            case OPCODE_BINARY -> listener.onMessage(this, inbound);
+            case OPCODE_PING -> sendControl(OPCODE_PONG, inbound);
+            case OPCODE_PONG -> {
+            }
+            case OPCODE_CLOSE -> {
+                // echo the status of the client, the socket is closed once the reply is written
+                ByteBuffer status = inbound.remaining() >= 2 ? inbound.slice(inbound.position(), 2) :
+                        ByteBuffer.allocate(0);
+                sendControl(OPCODE_CLOSE, status);
+                closing = true;
+            }
+            default -> closeWithStatus(CLOSE_UNSUPPORTED_DATA);
+        }
+    }
+
+    /**
+     * Writes the queued messages until the socket would block. Only to be called from the server thread.
+     */
+    void flush(WebSocketListener listener) throws IOException {
+        writeRequested.set(false);
+        ByteBuffer message;
+        while ((message = outbound.peek()) != null) {
+            channel.write(message);
+            if (message.hasRemaining()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                return;
+            }
+            outbound.poll();
+            pendingCount.decrementAndGet();
+            pool.release(message);
+        }
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        if (closing) {
+            closeNow(listener);
+        }
+    }
+
+    /**
+     * Closes the socket without a closing handshake and gives the buffers back to the pool. Only to be called from
+     * the server thread.
+     */
+    void closeNow(WebSocketListener listener) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        closing = true;
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Error closing WebSocket connection: " + e.getMessage());
+        }
+        ByteBuffer message;
+        while ((message = outbound.poll()) != null) {
+            pool.release(message);
+        }
+        if (open) {
+            listener.onClose(this);
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,31 @@
+package pacman.server.websocket;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Receives the events of the connections of a {@link WebSocketServer}, always on the server thread
+ */
+public interface WebSocketListener {
+
+    /**
+     * Called once the opening handshake of a connection is complete
+     *
+     * @param connection connection opened
+     */
+    void onOpen(WebSocketConnection connection);
+
+    /**
+     * Called for every binary message received
+     *
+     * @param connection connection the message came from
+     * @param message    payload of the message, only valid until the method returns
+     */
+    void onMessage(WebSocketConnection connection, ByteBuffer message);
+
+    /**
+     * Called once when an opened connection is closed, by either side
+     *
+     * @param connection connection closed
+     */
+    void onClose(WebSocketConnection connection);
+}
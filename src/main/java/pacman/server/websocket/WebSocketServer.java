@@ -0,0 +1,171 @@
+package pacman.server.websocket;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Minimal WebSocket server (RFC 6455) for binary messages, running every connection on a single selector thread.
+ * <p>
+ * Only what streaming the game needs is supported: unfragmented binary messages, pings and the closing handshake.
+ * Messages from other threads are queued on their connection, which asks this thread to write them.
+ */
+public class WebSocketServer implements Runnable {
+
+    private final InetSocketAddress address;
+    private final WebSocketListener listener;
+    private final BufferPool pool;
+    // connections waiting to be written, linked through the connections themselves so requests allocate nothing
+    private final AtomicReference<WebSocketConnection> writeRequests;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread thread;
+    private volatile boolean running;
+
+    /**
+     * @param address  address to listen on, port 0 picking a free port
+     * @param listener receives the events of every connection
+     * @param pool     buffers for the messages, also limiting the size of a message
+     */
+    public WebSocketServer(InetSocketAddress address, WebSocketListener listener, BufferPool pool) {
+        this.address = address;
+        this.listener = listener;
+        this.pool = pool;
+        this.writeRequests = new AtomicReference<>();
+    }
+
+    /**
+     * Binds the server and starts accepting connections
+     *
+     * @throws IOException if the address cannot be bound
+     */
+    public void start() throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        running = true;
+        thread = new Thread(this, "websocket-server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Closes every connection and stops the server
+     */
+    public void stop() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return port the server listens on
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Asks the server thread to write the queued messages of a connection
+     */
+    void requestWrite(WebSocketConnection connection) {
+        // a connection only asks again once it has been written, so it is never linked twice
+        WebSocketConnection next;
+        do {
+            next = writeRequests.get();
+            connection.nextWriteRequest = next;
+        } while (!writeRequests.compareAndSet(next, connection));
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                System.out.println("Error waiting for WebSocket connections: " + e.getMessage());
+                break;
+            }
+
+            WebSocketConnection requested = writeRequests.getAndSet(null);
+            while (requested != null) {
+                WebSocketConnection next = requested.nextWriteRequest;
+                requested.nextWriteRequest = null;
+                if (!requested.isClosed()) {
+                    handle(requested, SelectionKey.OP_WRITE);
+                }
+                requested = next;
+            }
+
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (key.channel() == serverChannel) {
+                    accept();
+                } else if (key.isValid()) {
+                    handle((WebSocketConnection) key.attachment(), key.readyOps());
+                }
+            }
+        }
+
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof WebSocketConnection) {
+                ((WebSocketConnection) key.attachment()).closeNow(listener);
+            }
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) {
+            System.out.println("Error stopping WebSocket server: " + e.getMessage());
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            // inputs are tiny and frequent, and must not wait for more to fill a packet
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new WebSocketConnection(this, channel, key, pool));
+        } catch (IOException e) {
+            System.out.println("Error accepting WebSocket connection: " + e.getMessage());
+        }
+    }
+
+    private void handle(WebSocketConnection connection, int readyOps) {
+        try {
+            if ((readyOps & SelectionKey.OP_READ) != 0) {
+                connection.read(listener);
+            }
+            if ((readyOps & SelectionKey.OP_WRITE) != 0 && !connection.isClosed()) {
+                connection.flush(listener);
+            }
+        } catch (IOException | CancelledKeyException e) {
+            connection.closeNow(listener);
+        } catch (RuntimeException e) {
+            // only this client is dropped, the server thread carries on for every other
+            System.out.println("Error handling WebSocket connection: " + e);
+            connection.closeNow(listener);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package pacman.view;
+
+import javafx.animation.AnimationTimer;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.util.Duration;
+import pacman.model.engine.GameEngine;
+import pacman.model.engine.GameSimulation;
+import pacman.model.engine.snapshot.RenderSnapshot;
+import pacman.view.renderer.SnapshotRenderer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders the latest snapshot of the simulation on every display pulse, interpolating moving entities by how far
+ * the pulse is into the current tick.
+ * <p>
+ * Once the game is idle, the loop stops requesting pulses and falls back to a low-frequency timer.
+ */
+public class GameLoop extends AnimationTimer {
+
+    private static final double TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(GameEngine.TICK_DURATION_MILLIS);
+    private static final Duration IDLE_FRAME_DURATION = Duration.millis(250);
+
+    private final GameSimulation simulation;
+    private final SnapshotRenderer renderer;
+    private final Timeline idleTimeline;
+    private long lastRenderedTick;
+
+    public GameLoop(GameSimulation simulation, SnapshotRenderer renderer) {
+        this.simulation = simulation;
+        this.renderer = renderer;
+
+        this.idleTimeline = new Timeline(new KeyFrame(IDLE_FRAME_DURATION, t -> idleFrame()));
+        this.idleTimeline.setCycleCount(Timeline.INDEFINITE);
+    }
+
+    @Override
+    public void start() {
+        this.lastRenderedTick = -1;
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        idleTimeline.stop();
+    }
+
+    @Override
+    public void handle(long now) {
+        RenderSnapshot snapshot = simulation.getLatestSnapshot();
+        double alpha = Math.min(1, Math.max(0, (now - snapshot.getTickTime()) / TICK_NANOS));
+        renderer.render(snapshot, alpha);
+
+        if (snapshot.isIdle()) {
+            enterIdleMode();
+        }
+    }
+
+    private RenderSnapshot renderIfChanged() {
+        RenderSnapshot snapshot = simulation.getLatestSnapshot();
+        if (snapshot.getTickCount() != lastRenderedTick) {
+            lastRenderedTick = snapshot.getTickCount();
+            renderer.render(snapshot, 1);
+        }
+        return snapshot;
+    }
+
+    private void enterIdleMode() {
+        super.stop();
+        lastRenderedTick = simulation.getLatestSnapshot().getTickCount();
+        idleTimeline.play();
+    }
+
+    private void idleFrame() {
+        if (!renderIfChanged().isIdle()) {
+            idleTimeline.stop();
+            super.start();
+        }
+    }
+}
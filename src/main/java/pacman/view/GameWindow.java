@@ -1,102 +1,155 @@
 package pacman.view;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.scene.Scene;
 import javafx.scene.layout.Pane;
-import javafx.util.Duration;
 import pacman.model.engine.GameEngine;
-import pacman.model.entity.Renderable;
+import pacman.model.engine.GameSimulation;
+import pacman.model.engine.replay.ReplayWriter;
+import pacman.model.engine.snapshot.RenderSnapshot;
+import pacman.model.engine.telemetry.TelemetryRecorder;
+import pacman.model.highscore.HighScoreStore;
 import pacman.view.background.BackgroundDrawer;
 import pacman.view.background.StandardBackgroundDrawer;
+import pacman.view.camera.Camera;
+import pacman.view.capture.CaptureFormat;
+import pacman.view.capture.SceneCapture;
 import pacman.view.display.DisplayManager;
-import pacman.view.entity.EntityView;
-import pacman.view.entity.EntityViewImpl;
+import pacman.view.display.PerformanceOverlay;
 import pacman.view.keyboard.KeyboardInputHandler;
+import pacman.view.renderer.CanvasRenderer;
+import pacman.view.renderer.NodeRenderer;
+import pacman.view.renderer.RendererType;
+import pacman.view.renderer.SnapshotRenderer;
+import pacman.view.sound.SoundEffectPlayer;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.Path;
 
 /**
  * Responsible for managing the Pac-Man Game View
  */
-public class GameWindow {
+public class GameWindow implements SnapshotRenderer {
 
     public static final File FONT_FILE = new File("src/main/resources/maze/PressStart2P-Regular.ttf");
+    private static final double REWIND_SECONDS = 30;
+    private static final Path SAVE_FILE = Path.of("savegame.bin");
 
     private final Scene scene;
     private final Pane pane;
-    private final GameEngine model;
-    private final List<EntityView> entityViews;
-
-    public GameWindow(GameEngine model, int width, int height) {
-        this.model = model;
+    private final GameSimulation simulation;
+    private final DisplayManager displayManager;
+    private final Camera camera;
+    private final SceneCapture sceneCapture;
+    private final SoundEffectPlayer soundEffectPlayer;
+    private final PerformanceOverlay performanceOverlay;
+    private final SnapshotRenderer renderer;
+    private final GameLoop gameLoop;
+    private HighScoreStore highScoreStore;
+    private long lastDrawnTick = -1;
+
+    public GameWindow(GameEngine model, int width, int height, RendererType rendererType,
+                      CaptureFormat captureFormat) {
+        this.simulation = new GameSimulation(model);
+        this.simulation.enableRewind(REWIND_SECONDS);
+        this.simulation.enableSaves(SAVE_FILE);
 
         pane = new Pane();
         scene = new Scene(pane, width, height);
 
-        entityViews = new ArrayList<>();
-
-        KeyboardInputHandler keyboardInputHandler = new KeyboardInputHandler(model);
-
-        DisplayManager displayManager = new DisplayManager();
+        displayManager = new DisplayManager();
+        soundEffectPlayer = new SoundEffectPlayer();
+        performanceOverlay = new PerformanceOverlay(simulation.getTickProfiler(), soundEffectPlayer, pane);
+        sceneCapture = new SceneCapture(scene, captureFormat);
         pane.getChildren().addAll(displayManager.getNodes());
-        model.registerObserver(displayManager);
-        model.registerLevelStateObserver(displayManager);
+        pane.getChildren().add(performanceOverlay.getNode());
 
+        KeyboardInputHandler keyboardInputHandler = new KeyboardInputHandler(simulation, performanceOverlay,
+                sceneCapture);
         scene.setOnKeyPressed(keyboardInputHandler::handlePressed);
+        scene.setOnKeyReleased(keyboardInputHandler::handleReleased);
 
         BackgroundDrawer backgroundDrawer = new StandardBackgroundDrawer();
         backgroundDrawer.draw(model, pane);
+
+        camera = new Camera(width, height);
+        renderer = switch (rendererType) {
+            case NODE -> new NodeRenderer(pane, camera);
+            case CANVAS -> new CanvasRenderer(pane, camera);
+        };
+
+        gameLoop = new GameLoop(simulation, this);
     }
 
     public Scene getScene() {
         return scene;
     }
 
-    public void run() {
-        Timeline timeline = new Timeline(new KeyFrame(Duration.millis(34),
-                t -> this.draw()));
-
-        timeline.setCycleCount(Timeline.INDEFINITE);
-        timeline.play();
+    /**
+     * Records the moves of the game into a replay. Must be called before the game is run.
+     *
+     * @param replayWriter writer of the replay
+     */
+    public void recordTo(ReplayWriter replayWriter) {
+        simulation.recordTo(replayWriter);
+    }
 
-        model.startGame();
+    /**
+     * Records telemetry for every tick of the game. Must be called before the game is run.
+     *
+     * @param telemetryRecorder recorder of the telemetry
+     */
+    public void recordTelemetryTo(TelemetryRecorder telemetryRecorder) {
+        simulation.recordTelemetryTo(telemetryRecorder);
     }
 
-    private void draw() {
+    /**
+     * Stores the outcome of the game and shows the best score of all time. Must be called before the game is run.
+     *
+     * @param highScoreStore store of finished games
+     */
+    public void submitScoresTo(HighScoreStore highScoreStore) {
+        this.highScoreStore = highScoreStore;
+        simulation.submitScoresTo(highScoreStore);
+    }
 
-        model.tick();
+    /**
+     * Resumes the game saved last instead of starting a new one. Must be called before the game is run.
+     */
+    public void resume() {
+        simulation.requestLoad();
+    }
 
-        List<Renderable> entities = model.getRenderables();
+    public void run() {
+        simulation.start();
+        gameLoop.start();
+    }
 
-        for (EntityView entityView : entityViews) {
-            entityView.markForDelete();
-        }
+    public void stop() {
+        gameLoop.stop();
+        simulation.stop();
+    }
 
-        for (Renderable entity : entities) {
-            boolean notFound = true;
-            for (EntityView view : entityViews) {
-                if (view.matchesEntity(entity)) {
-                    notFound = false;
-                    view.update();
-                    break;
-                }
-            }
-            if (notFound) {
-                EntityView entityView = new EntityViewImpl(entity);
-                entityViews.add(entityView);
-                pane.getChildren().add(entityView.getNode());
+    @Override
+    public void render(RenderSnapshot snapshot, double alpha) {
+        if (snapshot.getTickCount() != lastDrawnTick) {
+            lastDrawnTick = snapshot.getTickCount();
+            displayManager.update(snapshot);
+            if (highScoreStore != null) {
+                displayManager.updateHighScore(Math.max(highScoreStore.getBestScore(), snapshot.getScore()));
             }
+            soundEffectPlayer.update(snapshot);
         }
 
-        for (EntityView entityView : entityViews) {
-            if (entityView.isMarkedForDelete()) {
-                pane.getChildren().remove(entityView.getNode());
-            }
-        }
+        // only time the frame while the overlay is there to show it
+        boolean profiling = performanceOverlay.isVisible();
+        long renderStart = profiling ? System.nanoTime() : 0;
 
-        entityViews.removeIf(EntityView::isMarkedForDelete);
+        camera.follow(snapshot, alpha);
+        renderer.render(snapshot, alpha);
+
+        if (profiling) {
+            performanceOverlay.frameRendered(snapshot, System.nanoTime() - renderStart);
+        }
+        sceneCapture.capture();
     }
 }
@@ -0,0 +1,135 @@
+package pacman.view;
+
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.util.Duration;
+import pacman.model.engine.GameSimulation;
+import pacman.model.engine.snapshot.RenderSnapshot;
+import pacman.model.entity.Renderable;
+import pacman.view.sprite.SpriteAtlas;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Monitoring window showing many running games at once, each scaled down into a tile of one shared canvas.
+ * <p>
+ * Tiles are refreshed at a throttled rate from the latest snapshot of each simulation, so watching a game never
+ * blocks or slows down its simulation thread. A tile is only redrawn when its game has ticked since the last refresh.
+ */
+public class MosaicWindow {
+
+    private static final Duration REFRESH_INTERVAL = Duration.millis(100);
+    private static final double TILE_GAP = 2;
+
+    private final Scene scene;
+    private final Canvas canvas;
+    private final List<GameSimulation> simulations;
+    private final SpriteAtlas atlas;
+    private final Timeline refreshTimeline;
+    private final Font labelFont;
+    private final int columns;
+    private final double tileWidth;
+    private final double tileHeight;
+    private final long[] drawnTicks;
+
+    public MosaicWindow(List<GameSimulation> simulations, int width, int height) {
+        this.simulations = simulations;
+        this.atlas = SpriteAtlas.getInstance();
+        this.labelFont = new Font(10);
+
+        this.columns = (int) Math.ceil(Math.sqrt(simulations.size()));
+        int rows = (int) Math.ceil(simulations.size() / (double) columns);
+        this.tileWidth = (double) width / columns;
+        this.tileHeight = (double) height / Math.max(1, rows);
+        this.drawnTicks = new long[simulations.size()];
+        Arrays.fill(drawnTicks, -1);
+
+        this.canvas = new Canvas(width, height);
+        GraphicsContext graphics = canvas.getGraphicsContext2D();
+        graphics.setFill(Color.BLACK);
+        graphics.fillRect(0, 0, width, height);
+
+        Pane pane = new Pane(canvas);
+        this.scene = new Scene(pane, width, height);
+
+        this.refreshTimeline = new Timeline(new KeyFrame(REFRESH_INTERVAL, t -> refresh()));
+        this.refreshTimeline.setCycleCount(Timeline.INDEFINITE);
+    }
+
+    public Scene getScene() {
+        return scene;
+    }
+
+    /**
+     * Starts every simulation and the periodic refresh of the tiles
+     */
+    public void run() {
+        for (GameSimulation simulation : simulations) {
+            simulation.start();
+        }
+        refreshTimeline.play();
+    }
+
+    /**
+     * Stops the refresh of the tiles and every simulation
+     */
+    public void stop() {
+        refreshTimeline.stop();
+        for (GameSimulation simulation : simulations) {
+            simulation.stop();
+        }
+    }
+
+    private void refresh() {
+        GraphicsContext graphics = canvas.getGraphicsContext2D();
+        for (int i = 0; i < simulations.size(); i++) {
+            RenderSnapshot snapshot = simulations.get(i).getLatestSnapshot();
+            if (snapshot.getTickCount() == drawnTicks[i]) {
+                continue;
+            }
+            drawnTicks[i] = snapshot.getTickCount();
+
+            double tileX = (i % columns) * tileWidth;
+            double tileY = (i / columns) * tileHeight;
+            drawTile(graphics, snapshot, i, tileX, tileY);
+        }
+    }
+
+    private void drawTile(GraphicsContext graphics, RenderSnapshot snapshot, int sessionNo, double tileX,
+                          double tileY) {
+        double innerWidth = tileWidth - TILE_GAP;
+        double innerHeight = tileHeight - TILE_GAP;
+        graphics.setFill(Color.BLACK);
+        graphics.fillRect(tileX, tileY, innerWidth, innerHeight);
+
+        double worldWidth = Math.max(1, snapshot.getWorldWidth());
+        double worldHeight = Math.max(1, snapshot.getWorldHeight());
+        double scale = Math.min(innerWidth / worldWidth, innerHeight / worldHeight);
+
+        for (int i = 0; i < snapshot.getEntityCount(); i++) {
+            if (snapshot.getLayer(i) == Renderable.Layer.INVISIBLE) {
+                continue;
+            }
+
+            Rectangle2D viewport = atlas.getViewport(snapshot.getSprite(i));
+            double fit = Math.min(snapshot.getWidth(i) / viewport.getWidth(),
+                    snapshot.getHeight(i) / viewport.getHeight()) * scale;
+            graphics.drawImage(atlas.getImage(), viewport.getMinX(), viewport.getMinY(), viewport.getWidth(),
+                    viewport.getHeight(), tileX + snapshot.getX(i) * scale, tileY + snapshot.getY(i) * scale,
+                    viewport.getWidth() * fit, viewport.getHeight() * fit);
+        }
+
+        graphics.setFill(Color.WHITE);
+        graphics.setFont(labelFont);
+        graphics.fillText(String.format("#%d %d %s", sessionNo + 1, snapshot.getScore(), snapshot.getGameState()),
+                tileX + 2, tileY + 10);
+    }
+}
@@ -0,0 +1,82 @@
+package pacman.view.camera;
+
+import pacman.model.engine.snapshot.RenderSnapshot;
+
+/**
+ * Scrolling viewport onto the maze, centred on the player and kept within the bounds of the maze
+ */
+public class Camera {
+
+    // entities this far outside the viewport are still drawn, so they are in place before scrolling into view
+    private static final double CULLING_MARGIN = 64;
+
+    private final double viewportWidth;
+    private final double viewportHeight;
+    private double x;
+    private double y;
+
+    public Camera(double viewportWidth, double viewportHeight) {
+        this.viewportWidth = viewportWidth;
+        this.viewportHeight = viewportHeight;
+    }
+
+    /**
+     * Moves the camera to centre on the player at its interpolated position
+     *
+     * @param snapshot snapshot containing the player
+     * @param alpha    fraction of the tick to interpolate the position by
+     */
+    public void follow(RenderSnapshot snapshot, double alpha) {
+        int player = snapshot.getPlayerIndex();
+        if (player < 0) {
+            return;
+        }
+
+        double centreX = snapshot.getInterpolatedX(player, alpha) + snapshot.getWidth(player) / 2;
+        double centreY = snapshot.getInterpolatedY(player, alpha) + snapshot.getHeight(player) / 2;
+
+        // snap to whole pixels so sprites are not resampled while scrolling
+        this.x = Math.round(clamp(centreX - viewportWidth / 2, snapshot.getWorldWidth() - viewportWidth));
+        this.y = Math.round(clamp(centreY - viewportHeight / 2, snapshot.getWorldHeight() - viewportHeight));
+    }
+
+    private static double clamp(double position, double maxPosition) {
+        return Math.max(0, Math.min(position, maxPosition));
+    }
+
+    /**
+     * Checks if an area is within the viewport, widened by the culling margin
+     *
+     * @param x      x position of the area in the maze
+     * @param y      y position of the area in the maze
+     * @param width  width of the area
+     * @param height height of the area
+     * @return true, if the area should be drawn
+     */
+    public boolean isInView(double x, double y, double width, double height) {
+        return x + width > this.x - CULLING_MARGIN && x < this.x + viewportWidth + CULLING_MARGIN &&
+                y + height > this.y - CULLING_MARGIN && y < this.y + viewportHeight + CULLING_MARGIN;
+    }
+
+    /**
+     * @return x position of the top left corner of the viewport in the maze
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * @return y position of the top left corner of the viewport in the maze
+     */
+    public double getY() {
+        return y;
+    }
+
+    public double getViewportWidth() {
+        return viewportWidth;
+    }
+
+    public double getViewportHeight() {
+        return viewportHeight;
+    }
+}
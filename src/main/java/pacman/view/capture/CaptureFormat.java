@@ -0,0 +1,30 @@
+package pacman.view.capture;
+
+/**
+ * The formats gameplay can be recorded in
+ */
+public enum CaptureFormat {
+    /**
+     * One lossless PNG file per frame, encoded in parallel
+     */
+    PNG,
+    /**
+     * A single motion JPEG stream of concatenated frames, encoded in order
+     */
+    MJPEG;
+
+    /**
+     * Gets the capture format with the given name, ignoring case
+     *
+     * @param name name of the capture format, may be null
+     * @return the matching capture format, or PNG if there is none
+     */
+    public static CaptureFormat fromName(String name) {
+        for (CaptureFormat captureFormat : values()) {
+            if (captureFormat.name().equalsIgnoreCase(name)) {
+                return captureFormat;
+            }
+        }
+        return PNG;
+    }
+}
@@ -0,0 +1,171 @@
+package pacman.view.capture;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Encodes captured frames to disk on background threads.
+ * <p>
+ * Frames are copied into a fixed pool of pixel buffers and handed to the encoders through a bounded queue. When every
+ * buffer is in use, because encoding has fallen behind, new frames are dropped instead of waiting, so capturing never
+ * stalls the thread producing the frames.
+ */
+public class FrameRecorder {
+
+    private static final int BUFFER_POOL_SIZE = 8;
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final Path outputDirectory;
+    private final CaptureFormat format;
+    private final int width;
+    private final int height;
+    private final BlockingQueue<Frame> freeFrames;
+    private final BlockingQueue<Frame> pendingFrames;
+    private final Thread[] encoders;
+    private final AtomicLong encodedFrames;
+    private final AtomicLong droppedFrames;
+    private long nextFrameNo;
+    private volatile boolean running;
+
+    /**
+     * Pooled pixel buffer of one frame, in ARGB order
+     */
+    public static final class Frame {
+        private final int[] pixels;
+        private long frameNo;
+
+        private Frame(int size) {
+            this.pixels = new int[size];
+        }
+
+        public int[] getPixels() {
+            return pixels;
+        }
+    }
+
+    public FrameRecorder(Path outputDirectory, CaptureFormat format, int width, int height) {
+        this.outputDirectory = outputDirectory;
+        this.format = format;
+        this.width = width;
+        this.height = height;
+        this.freeFrames = new ArrayBlockingQueue<>(BUFFER_POOL_SIZE);
+        this.pendingFrames = new ArrayBlockingQueue<>(BUFFER_POOL_SIZE);
+        this.encodedFrames = new AtomicLong();
+        this.droppedFrames = new AtomicLong();
+
+        for (int i = 0; i < BUFFER_POOL_SIZE; i++) {
+            freeFrames.add(new Frame(width * height));
+        }
+
+        // a motion JPEG stream must be written in order, PNG files can be encoded in parallel
+        int numEncoders = format == CaptureFormat.MJPEG ? 1 :
+                Math.max(1, Math.min(BUFFER_POOL_SIZE / 2, Runtime.getRuntime().availableProcessors() / 2));
+        this.encoders = new Thread[numEncoders];
+        for (int i = 0; i < numEncoders; i++) {
+            encoders[i] = new Thread(this::encode, "pacman-capture-" + i);
+            encoders[i].setDaemon(true);
+        }
+    }
+
+    /**
+     * Starts the encoder threads
+     *
+     * @throws IOException if the output directory can not be created
+     */
+    public void start() throws IOException {
+        Files.createDirectories(outputDirectory);
+        running = true;
+        for (Thread encoder : encoders) {
+            encoder.start();
+        }
+    }
+
+    /**
+     * Stops accepting frames. Frames already queued are still encoded before the encoder threads exit.
+     */
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Takes a free pixel buffer from the pool. Only to be called from a single capturing thread.
+     *
+     * @return a free frame, or null if every buffer is in use and the frame has to be dropped
+     */
+    public Frame acquireFrame() {
+        if (!running) {
+            return null;
+        }
+
+        Frame frame = freeFrames.poll();
+        if (frame == null) {
+            droppedFrames.incrementAndGet();
+        }
+        return frame;
+    }
+
+    /**
+     * Queues a frame filled in after {@link #acquireFrame()} for encoding
+     *
+     * @param frame frame to encode
+     */
+    public void submit(Frame frame) {
+        frame.frameNo = nextFrameNo++;
+        if (!pendingFrames.offer(frame)) {
+            freeFrames.offer(frame);
+            droppedFrames.incrementAndGet();
+        }
+    }
+
+    private void encode() {
+        int imageType = format == CaptureFormat.MJPEG ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage image = new BufferedImage(width, height, imageType);
+
+        try (OutputStream stream = format == CaptureFormat.MJPEG ?
+                new BufferedOutputStream(Files.newOutputStream(outputDirectory.resolve("capture.mjpeg"))) : null) {
+            while (running || !pendingFrames.isEmpty()) {
+                Frame frame = pendingFrames.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (frame == null) {
+                    continue;
+                }
+
+                image.setRGB(0, 0, width, height, frame.pixels, 0, width);
+                long frameNo = frame.frameNo;
+                freeFrames.offer(frame);
+
+                if (stream != null) {
+                    ImageIO.write(image, "jpg", stream);
+                } else {
+                    ImageIO.write(image, "png", outputDirectory.resolve(String.format("frame_%06d.png", frameNo)).toFile());
+                }
+                encodedFrames.incrementAndGet();
+            }
+        } catch (IOException e) {
+            System.out.println("Error writing capture: " + e.getMessage());
+            running = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Path getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public long getEncodedFrames() {
+        return encodedFrames.get();
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+}
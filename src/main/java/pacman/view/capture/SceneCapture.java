@@ -0,0 +1,76 @@
+package pacman.view.capture;
+
+import javafx.scene.Scene;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Records the rendered frames of a scene. Frames are grabbed on the JavaFX application thread and encoded by a
+ * {@link FrameRecorder}, dropping frames whenever the encoders fall behind.
+ */
+public class SceneCapture {
+
+    private static final Path CAPTURE_DIRECTORY = Path.of("captures");
+    private static final DateTimeFormatter DIRECTORY_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Scene scene;
+    private final CaptureFormat format;
+    private final int width;
+    private final int height;
+    private WritableImage image;
+    private FrameRecorder recorder;
+
+    public SceneCapture(Scene scene, CaptureFormat format) {
+        this.scene = scene;
+        this.format = format;
+        this.width = (int) scene.getWidth();
+        this.height = (int) scene.getHeight();
+        this.image = new WritableImage(width, height);
+    }
+
+    /**
+     * Starts recording into a new directory, or stops the current recording
+     */
+    public void toggle() {
+        if (recorder != null) {
+            recorder.stop();
+            System.out.printf("Captured to %s, %d frames dropped%n", recorder.getOutputDirectory(),
+                    recorder.getDroppedFrames());
+            recorder = null;
+            return;
+        }
+
+        Path directory = CAPTURE_DIRECTORY.resolve(LocalDateTime.now().format(DIRECTORY_NAME));
+        FrameRecorder frameRecorder = new FrameRecorder(directory, format, width, height);
+        try {
+            frameRecorder.start();
+            recorder = frameRecorder;
+        } catch (IOException e) {
+            System.out.println("Error starting capture: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Grabs the current contents of the scene, if recording
+     */
+    public void capture() {
+        if (recorder == null) {
+            return;
+        }
+
+        FrameRecorder.Frame frame = recorder.acquireFrame();
+        if (frame == null) {
+            return;
+        }
+
+        image = scene.snapshot(image);
+        image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), frame.getPixels(), 0,
+                width);
+        recorder.submit(frame);
+    }
+}
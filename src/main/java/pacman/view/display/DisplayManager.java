@@ -2,9 +2,7 @@ package pacman.view.display;
 
 import javafx.scene.Node;
 import javafx.scene.text.Font;
-import pacman.model.engine.observer.GameState;
-import pacman.model.engine.observer.GameStateObserver;
-import pacman.model.level.observer.LevelStateObserver;
+import pacman.model.engine.snapshot.RenderSnapshot;
 import pacman.view.GameWindow;
 
 import java.io.FileInputStream;
@@ -15,9 +13,10 @@ import java.util.List;
 /**
  * Manages the display nodes for Pac-Man
  */
-public class DisplayManager implements LevelStateObserver, GameStateObserver {
+public class DisplayManager {
 
     private final ScoreDisplay scoreDisplay;
+    private final HighScoreDisplay highScoreDisplay;
     private final GameStateDisplay gameStatusDisplay;
     private final NumLivesDisplay numLivesDisplay;
 
@@ -31,6 +30,7 @@ public class DisplayManager implements LevelStateObserver, GameStateObserver {
         }
 
         this.scoreDisplay = new ScoreDisplay(font);
+        this.highScoreDisplay = new HighScoreDisplay(font);
         this.gameStatusDisplay = new GameStateDisplay(font);
         this.numLivesDisplay = new NumLivesDisplay();
     }
@@ -38,23 +38,30 @@ public class DisplayManager implements LevelStateObserver, GameStateObserver {
     public List<Node> getNodes() {
         List<Node> nodes = new ArrayList<>();
         nodes.add(scoreDisplay.getNode());
+        nodes.add(highScoreDisplay.getNode());
         nodes.add(gameStatusDisplay.getNode());
         nodes.add(numLivesDisplay.getNode());
         return nodes;
     }
 
-    @Override
-    public void updateNumLives(int numLives) {
-        numLivesDisplay.update(numLives);
+    /**
+     * Updates the displays with the HUD values of the snapshot, once per rendered frame.
+     * Each display only touches its nodes when its visible value has changed.
+     *
+     * @param snapshot latest snapshot of the game
+     */
+    public void update(RenderSnapshot snapshot) {
+        numLivesDisplay.update(snapshot.getNumLives());
+        scoreDisplay.update(snapshot.getScore());
+        gameStatusDisplay.update(snapshot.getGameState());
     }
 
-    @Override
-    public void updateScore(int scoreChange) {
-        scoreDisplay.update(scoreChange);
-    }
-
-    @Override
-    public void updateGameState(GameState gameState) {
-        gameStatusDisplay.update(gameState);
+    /**
+     * Shows the high score, which is hidden until the first update
+     *
+     * @param highScore best score of all time, including the current game
+     */
+    public void updateHighScore(int highScore) {
+        highScoreDisplay.update(highScore);
     }
 }
@@ -1,24 +1,29 @@
 package pacman.view.display;
 
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.scene.Node;
 import javafx.scene.layout.HBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
+import javafx.util.Duration;
 import pacman.model.engine.observer.GameState;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-
 /**
- * Displays the game status - win, lose, ready
+ * Displays the game status - win, lose, ready.
+ * <p>
+ * The game closes a while after it has ended, unless the player rewinds out of the ending or loads a saved game
+ * first.
  */
 public class GameStateDisplay implements Display {
 
+    private static final Duration EXIT_DELAY = Duration.seconds(5);
+
     private final Text text;
     private final HBox node;
+    private final PauseTransition exitTimer;
+    private GameState displayedState;
 
     public GameStateDisplay(Font font) {
         this.node = new HBox();
@@ -28,9 +33,17 @@ public class GameStateDisplay implements Display {
         this.text.setFont(font);
         this.text.setViewOrder(0);
         this.node.getChildren().add(this.text);
+
+        this.exitTimer = new PauseTransition(EXIT_DELAY);
+        this.exitTimer.setOnFinished(e -> Platform.exit());
     }
 
     public void update(GameState gameState) {
+        if (gameState == this.displayedState) {
+            return;
+        }
+        this.displayedState = gameState;
+
         this.text.setVisible(true);
         switch (gameState) {
             case GAME_OVER:
@@ -49,18 +62,23 @@ public class GameStateDisplay implements Display {
                 this.node.setLayoutX(180);
                 this.text.setFill(Color.YELLOW);
                 this.text.setText("READY!");
+                cancelClose();
                 break;
             case IN_PROGRESS:
                 this.text.setVisible(false);
+                cancelClose();
                 break;
         }
     }
 
     private void closeGame() {
-        // exit after 5 seconds
-        ScheduledExecutorService ses = Executors.newScheduledThreadPool(1);
-        ses.schedule(Platform::exit, 5, TimeUnit.SECONDS);
-        ses.shutdown();
+        // a save loaded while the game is over may have ended differently, and gets the whole delay again
+        exitTimer.playFromStart();
+    }
+
+    private void cancelClose() {
+        // the game has been rewound out of its ending, or a save of a game still going has been loaded
+        exitTimer.stop();
     }
 
     @Override
@@ -0,0 +1,41 @@
+package pacman.view.display;
+
+import javafx.scene.Node;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * Displays the best score of all time
+ */
+public class HighScoreDisplay implements Display {
+    private final VBox node;
+    private final Text scoreText;
+    private int displayedScore = -1;
+
+    public HighScoreDisplay(Font font) {
+        this.node = new VBox();
+        this.node.setLayoutX(250);
+        this.node.setLayoutY(20);
+        this.node.setVisible(false);
+        this.scoreText = new Text();
+        this.scoreText.setFill(Color.WHITE);
+        this.scoreText.setFont(font);
+
+        this.node.getChildren().add(this.scoreText);
+    }
+
+    public void update(int highScore) {
+        if (highScore != this.displayedScore) {
+            this.displayedScore = highScore;
+            this.scoreText.setText("HI " + highScore);
+            this.node.setVisible(true);
+        }
+    }
+
+    @Override
+    public Node getNode() {
+        return this.node;
+    }
+}
@@ -1,16 +1,16 @@
 package pacman.view.display;
 
 import javafx.scene.Node;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import pacman.model.entity.Sprite;
+import pacman.view.sprite.SpriteAtlas;
 
 /**
  * Displays the number of lives of player
  */
 public class NumLivesDisplay implements Display {
 
-    private static final Image IMAGE = new Image("maze/pacman/playerRight.png");
     private final HBox node;
 
     public NumLivesDisplay() {
@@ -20,9 +20,18 @@ public class NumLivesDisplay implements Display {
     }
 
     public void update(int numLives) {
-        this.node.getChildren().clear();
-        for (int i = 0; i < numLives; i++) {
-            this.node.getChildren().add(new ImageView(IMAGE));
+        if (this.node.getChildren().size() == numLives) {
+            return;
+        }
+
+        // reuse the life icons already shown, only adding or removing the difference
+        while (this.node.getChildren().size() < numLives) {
+            ImageView life = new ImageView(SpriteAtlas.getInstance().getImage());
+            life.setViewport(SpriteAtlas.getInstance().getViewport(Sprite.PACMAN_RIGHT));
+            this.node.getChildren().add(life);
+        }
+        if (this.node.getChildren().size() > numLives) {
+            this.node.getChildren().remove(Math.max(0, numLives), this.node.getChildren().size());
         }
     }
 
@@ -0,0 +1,178 @@
+package pacman.view.display;
+
+import javafx.geometry.Insets;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import pacman.model.engine.TickProfiler;
+import pacman.model.engine.snapshot.RenderSnapshot;
+import pacman.view.sound.SoundEffectPlayer;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Debugging display of frame and tick timings, allocations, garbage collections, node counts and ghost modes.
+ * <p>
+ * While hidden, nothing is measured. While shown, frames are counted every frame but the text is only
+ * refreshed a few times a second.
+ */
+public class PerformanceOverlay implements Display {
+
+    private static final long UPDATE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final VBox node;
+    private final Text text;
+    private final TickProfiler tickProfiler;
+    private final SoundEffectPlayer soundEffectPlayer;
+    private final Parent root;
+    private final long[] tickDurations;
+    private final StringBuilder builder;
+
+    private boolean visible;
+    private long lastUpdateTime;
+    private long lastTickCount;
+    private long lastAllocatedBytes;
+    private int frames;
+    private long totalRenderNanos;
+    private long maxRenderNanos;
+
+    public PerformanceOverlay(TickProfiler tickProfiler, SoundEffectPlayer soundEffectPlayer, Parent root) {
+        this.tickProfiler = tickProfiler;
+        this.soundEffectPlayer = soundEffectPlayer;
+        this.root = root;
+        this.tickDurations = new long[256];
+        this.builder = new StringBuilder();
+
+        this.text = new Text();
+        this.text.setFill(Color.LIME);
+        this.text.setFont(Font.font("Monospaced", 11));
+
+        this.node = new VBox(this.text);
+        this.node.setPadding(new Insets(4));
+        this.node.setBackground(new Background(new BackgroundFill(Color.rgb(0, 0, 0, 0.75), null, null)));
+        this.node.setLayoutX(4);
+        this.node.setLayoutY(28);
+        this.node.setViewOrder(-10.0);
+        this.node.setVisible(false);
+    }
+
+    /**
+     * Shows the overlay if hidden, hides it otherwise
+     */
+    public void toggle() {
+        visible = !visible;
+        node.setVisible(visible);
+        tickProfiler.setEnabled(visible);
+
+        lastUpdateTime = System.nanoTime();
+        lastTickCount = -1;
+        resetFrameStats();
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * Records a rendered frame, refreshing the overlay if it is due
+     *
+     * @param snapshot    snapshot the frame was rendered from
+     * @param renderNanos time taken to update the scene for the frame
+     */
+    public void frameRendered(RenderSnapshot snapshot, long renderNanos) {
+        if (!visible) {
+            return;
+        }
+
+        frames++;
+        totalRenderNanos += renderNanos;
+        maxRenderNanos = Math.max(maxRenderNanos, renderNanos);
+
+        long now = System.nanoTime();
+        if (now - lastUpdateTime >= UPDATE_INTERVAL_NANOS) {
+            refresh(snapshot, now - lastUpdateTime);
+            lastUpdateTime = now;
+            resetFrameStats();
+        }
+    }
+
+    private void resetFrameStats() {
+        frames = 0;
+        totalRenderNanos = 0;
+        maxRenderNanos = 0;
+    }
+
+    private void refresh(RenderSnapshot snapshot, long elapsedNanos) {
+        builder.setLength(0);
+
+        builder.append(String.format("FPS     %6.1f%n", frames * 1e9 / elapsedNanos));
+        builder.append(String.format("render  %6.2f avg %6.2f max ms%n",
+                totalRenderNanos / (double) frames / NANOS_PER_MILLI, maxRenderNanos / NANOS_PER_MILLI));
+
+        int count = tickProfiler.copyRecentDurations(tickDurations);
+        Arrays.sort(tickDurations, 0, count);
+        builder.append(String.format("tick    %6.2f p50 %6.2f p99 ms%n",
+                percentile(count, 0.5) / NANOS_PER_MILLI, percentile(count, 0.99) / NANOS_PER_MILLI));
+
+        long allocatedBytes = tickProfiler.getAllocatedBytes();
+        long ticks = snapshot.getTickCount() - lastTickCount;
+        if (lastTickCount >= 0 && ticks > 0 && allocatedBytes >= 0) {
+            builder.append(String.format("alloc   %8d B/tick%n", (allocatedBytes - lastAllocatedBytes) / ticks));
+        } else {
+            builder.append("alloc        - B/tick\n");
+        }
+        lastTickCount = snapshot.getTickCount();
+        lastAllocatedBytes = allocatedBytes;
+
+        builder.append(String.format("GCs     %6d%n", getCollectionCount()));
+        builder.append(String.format("entities %5d  nodes %5d%n", snapshot.getEntityCount(), countNodes(root)));
+        builder.append(String.format("sound   %d played %d dropped %.1f ms%n", soundEffectPlayer.getPlayedCount(),
+                soundEffectPlayer.getDroppedVoices(), soundEffectPlayer.getAverageLatencyNanos() / NANOS_PER_MILLI));
+
+        builder.append("ghosts ");
+        for (int i = 0; i < snapshot.getGhostCount(); i++) {
+            builder.append(' ').append(snapshot.getGhostMode(i));
+        }
+
+        text.setText(builder.toString());
+    }
+
+    private long percentile(int count, double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        return tickDurations[Math.min(count - 1, (int) (count * fraction))];
+    }
+
+    private static long getCollectionCount() {
+        long collections = 0;
+        for (GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collections += Math.max(0, garbageCollector.getCollectionCount());
+        }
+        return collections;
+    }
+
+    private static int countNodes(Node node) {
+        int count = 1;
+        if (node instanceof Parent) {
+            for (Node child : ((Parent) node).getChildrenUnmodifiable()) {
+                count += countNodes(child);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Node getNode() {
+        return node;
+    }
+}
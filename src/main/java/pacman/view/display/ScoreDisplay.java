@@ -12,22 +12,25 @@ import javafx.scene.text.Text;
 public class ScoreDisplay implements Display {
     private final VBox node;
     private final Text scoreText;
-    private int totalScore = 0;
+    private int displayedScore;
 
     public ScoreDisplay(Font font) {
         this.node = new VBox();
         this.node.setLayoutX(10);
         this.node.setLayoutY(20);
-        this.scoreText = new Text(String.valueOf(totalScore));
+        this.scoreText = new Text(String.valueOf(0));
         this.scoreText.setFill(Color.WHITE);
         this.scoreText.setFont(font);
 
         this.node.getChildren().add(this.scoreText);
     }
 
-    public void update(int scoreChange) {
-        this.totalScore += scoreChange;
-        this.scoreText.setText(String.valueOf(totalScore));
+    public void update(int totalScore) {
+        // setting the text triggers a layout pass, so skip it when the visible value is unchanged
+        if (totalScore != this.displayedScore) {
+            this.displayedScore = totalScore;
+            this.scoreText.setText(String.valueOf(totalScore));
+        }
     }
 
     @Override
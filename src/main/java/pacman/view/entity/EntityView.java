@@ -1,7 +1,7 @@
 package pacman.view.entity;
 
 import javafx.scene.Node;
-import pacman.model.entity.Renderable;
+import pacman.model.engine.snapshot.RenderSnapshot;
 
 /**
  * Responsible for rendering Pac-Man game entity
@@ -9,22 +9,31 @@ import pacman.model.entity.Renderable;
 public interface EntityView {
 
     /**
-     * Update rendering of Game entity with updated position, visibility etc.
+     * Points the view at an entity, so views can be recycled between entities
+     *
+     * @param snapshot snapshot containing the entity
+     * @param index    index of the entity in the snapshot
+     * @param alpha    fraction of the tick to interpolate the position by
      */
-    void update();
+    void bind(RenderSnapshot snapshot, int index, double alpha);
 
     /**
-     * Checks if two entities are equals
+     * Update rendering of Game entity with updated position, visibility etc.
      *
-     * @param entity entity to be checked
-     * @return true, if entities are equal
+     * @param snapshot snapshot containing the entity
+     * @param index    index of the entity in the snapshot
+     * @param alpha    fraction of the tick to interpolate the position by
      */
-    boolean matchesEntity(Renderable entity);
+    void update(RenderSnapshot snapshot, int index, double alpha);
 
     /**
-     * Marks the entity view for deletion
+     * Moves the rendering of Game entity to its position interpolated between the previous and current tick
+     *
+     * @param snapshot snapshot containing the entity
+     * @param index    index of the entity in the snapshot
+     * @param alpha    fraction of the tick to interpolate the position by
      */
-    void markForDelete();
+    void updatePosition(RenderSnapshot snapshot, int index, double alpha);
 
     /**
      * Returns the display node for renderable
@@ -32,11 +41,4 @@ public interface EntityView {
      * @return display node for renderable
      */
     Node getNode();
-
-    /**
-     * Returns whether entity view has been marked for deletion
-     *
-     * @return true, if entity view has been marked for deletion
-     */
-    boolean isMarkedForDelete();
 }
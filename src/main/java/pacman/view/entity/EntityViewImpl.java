@@ -3,25 +3,28 @@ package pacman.view.entity;
 import javafx.scene.Node;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import pacman.model.engine.snapshot.RenderSnapshot;
 import pacman.model.entity.Renderable;
+import pacman.model.entity.Sprite;
+import pacman.view.sprite.SpriteAtlas;
 
 /**
  * Concrete implementation of EntityView
  */
 public class EntityViewImpl implements EntityView {
-    private final Renderable entity;
     private final ImageView node;
     private final HBox box;
-    private boolean delete = false;
+    private final SpriteAtlas atlas;
+    private Sprite sprite;
 
-    public EntityViewImpl(Renderable entity) {
-        this.entity = entity;
+    public EntityViewImpl(RenderSnapshot snapshot, int index, double alpha) {
+        atlas = SpriteAtlas.getInstance();
         box = new HBox();
-        node = new ImageView(entity.getImage());
+        node = new ImageView(atlas.getImage());
+        node.setPreserveRatio(true);
         box.getChildren().add(node);
-        box.setViewOrder(getViewOrder(entity.getLayer()));
         box.setFillHeight(true);
-        update();
+        bind(snapshot, index, alpha);
     }
 
     private static double getViewOrder(Renderable.Layer layer) {
@@ -34,42 +37,37 @@ public class EntityViewImpl implements EntityView {
     }
 
     @Override
-    public void update() {
-        if (entity.getLayer() != Renderable.Layer.INVISIBLE) {
+    public void bind(RenderSnapshot snapshot, int index, double alpha) {
+        sprite = snapshot.getSprite(index);
+        node.setViewport(atlas.getViewport(sprite));
+        box.setViewOrder(getViewOrder(snapshot.getLayer(index)));
+        update(snapshot, index, alpha);
+    }
+
+    @Override
+    public void update(RenderSnapshot snapshot, int index, double alpha) {
+        if (snapshot.getLayer(index) != Renderable.Layer.INVISIBLE) {
             node.setVisible(true);
-            if (!node.getImage().equals(entity.getImage())) {
-                node.setImage(entity.getImage());
+            if (sprite != snapshot.getSprite(index)) {
+                sprite = snapshot.getSprite(index);
+                node.setViewport(atlas.getViewport(sprite));
             }
-            box.setLayoutX(entity.getPosition().getX());
-            box.setLayoutY(entity.getPosition().getY());
-            node.setFitHeight(entity.getHeight());
-            node.setFitWidth(entity.getWidth());
-            node.setPreserveRatio(true);
+            updatePosition(snapshot, index, alpha);
+            node.setFitHeight(snapshot.getHeight(index));
+            node.setFitWidth(snapshot.getWidth(index));
         } else {
             node.setVisible(false);
         }
-
-        delete = false;
     }
 
     @Override
-    public boolean matchesEntity(Renderable entity) {
-        return this.entity.equals(entity);
-    }
-
-    @Override
-    public void markForDelete() {
-        delete = true;
+    public void updatePosition(RenderSnapshot snapshot, int index, double alpha) {
+        box.setLayoutX(snapshot.getInterpolatedX(index, alpha));
+        box.setLayoutY(snapshot.getInterpolatedY(index, alpha));
     }
 
     @Override
     public Node getNode() {
         return box;
     }
-
-    @Override
-    public boolean isMarkedForDelete() {
-        return delete;
-    }
 }
-
@@ -2,28 +2,24 @@ package pacman.view.keyboard;
 
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
-import pacman.model.engine.GameEngine;
+import pacman.model.engine.GameSimulation;
 import pacman.model.entity.dynamic.physics.Direction;
-import pacman.model.entity.dynamic.player.MovementInvoker;
-import pacman.view.keyboard.command.*;
-
-import java.util.HashMap;
-import java.util.Map;
+import pacman.view.capture.SceneCapture;
+import pacman.view.display.PerformanceOverlay;
 
 /**
  * Responsible for handling keyboard input from player
  */
 public class KeyboardInputHandler {
-    private final Map<Direction, MoveCommand> commands;
-    private final MovementInvoker movementInvoker;
+    private final GameSimulation simulation;
+    private final PerformanceOverlay performanceOverlay;
+    private final SceneCapture sceneCapture;
 
-    public KeyboardInputHandler(GameEngine engine) {
-        this.commands = new HashMap<>();
-        this.commands.put(Direction.LEFT, new MoveLeftCommand(engine));
-        this.commands.put(Direction.RIGHT, new MoveRightCommand(engine));
-        this.commands.put(Direction.UP, new MoveUpCommand(engine));
-        this.commands.put(Direction.DOWN, new MoveDownCommand(engine));
-        this.movementInvoker = MovementInvoker.getInstance();
+    public KeyboardInputHandler(GameSimulation simulation, PerformanceOverlay performanceOverlay,
+                                SceneCapture sceneCapture) {
+        this.simulation = simulation;
+        this.performanceOverlay = performanceOverlay;
+        this.sceneCapture = sceneCapture;
     }
 
     private Direction getDirection(KeyCode keyCode) {
@@ -39,9 +35,24 @@ public class KeyboardInputHandler {
     public void handlePressed(KeyEvent keyEvent) {
         KeyCode keyCode = keyEvent.getCode();
 
-        MoveCommand command = commands.get(getDirection(keyCode));
-        if (command != null) {
-            movementInvoker.addCommand(command);
+        switch (keyCode) {
+            case F3 -> performanceOverlay.toggle();
+            case F5 -> simulation.requestSave();
+            case F6 -> simulation.requestLoad();
+            case F9 -> sceneCapture.toggle();
+            case BACK_SPACE -> simulation.setRewinding(true);
+            default -> {
+                Direction direction = getDirection(keyCode);
+                if (direction != null) {
+                    simulation.submitMove(direction);
+                }
+            }
+        }
+    }
+
+    public void handleReleased(KeyEvent keyEvent) {
+        if (keyEvent.getCode() == KeyCode.BACK_SPACE) {
+            simulation.setRewinding(false);
         }
     }
 }
@@ -0,0 +1,262 @@
+package pacman.view.renderer;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import pacman.model.engine.snapshot.RenderSnapshot;
+import pacman.model.entity.Renderable;
+import pacman.view.camera.Camera;
+import pacman.view.sprite.SpriteAtlas;
+
+import java.util.Arrays;
+
+/**
+ * Renders the game onto three layers instead of one node per entity:
+ * <ul>
+ *     <li>walls, rasterised once into a cached image whenever the maze changes and scrolled with the camera</li>
+ *     <li>pellets, drawn onto a viewport sized canvas which is only touched where a pellet is collected or
+ *     restored, or redrawn in full when the camera scrolls</li>
+ *     <li>moving entities in view, redrawn onto a top canvas every frame</li>
+ * </ul>
+ */
+public class CanvasRenderer implements SnapshotRenderer {
+
+    private static final double BACKGROUND_VIEW_ORDER = 100.0;
+    private static final double FOREGROUND_VIEW_ORDER = 50.0;
+
+    private final SpriteAtlas atlas;
+    private final Camera camera;
+    private final ImageView wallLayer;
+    private final Canvas pelletLayer;
+    private final Canvas spriteLayer;
+
+    // last drawn version of each static entity, indexed by snapshot entity id
+    private int[] drawnVersions;
+    private long lastDrawnTick = -1;
+
+    private int[] spriteIndices;
+    private int spriteCount;
+    private int[] pelletIndices;
+    private int pelletCount;
+    private double pelletCameraX = Double.NaN;
+    private double pelletCameraY = Double.NaN;
+    // areas of the sprite layer drawn on in the last frame, as x, y, width, height
+    private double[] drawnSpriteAreas;
+    private int drawnSpriteCount;
+
+    public CanvasRenderer(Pane pane, Camera camera) {
+        double width = camera.getViewportWidth();
+        double height = camera.getViewportHeight();
+        this.atlas = SpriteAtlas.getInstance();
+        this.camera = camera;
+        this.wallLayer = new ImageView();
+        this.wallLayer.setViewOrder(BACKGROUND_VIEW_ORDER);
+        this.pelletLayer = new Canvas(width, height);
+        this.pelletLayer.setViewOrder(BACKGROUND_VIEW_ORDER);
+        this.spriteLayer = new Canvas(width, height);
+        this.spriteLayer.setViewOrder(FOREGROUND_VIEW_ORDER);
+
+        this.drawnVersions = new int[0];
+        this.spriteIndices = new int[0];
+        this.pelletIndices = new int[0];
+        this.drawnSpriteAreas = new double[0];
+
+        pane.getChildren().addAll(wallLayer, pelletLayer, spriteLayer);
+    }
+
+    @Override
+    public void render(RenderSnapshot snapshot, double alpha) {
+        wallLayer.setTranslateX(-camera.getX());
+        wallLayer.setTranslateY(-camera.getY());
+
+        // once scrolled, every pellet in view is redrawn, so there is no point in patching single pellets first
+        boolean scrolled = camera.getX() != pelletCameraX || camera.getY() != pelletCameraY;
+        if (snapshot.getTickCount() != lastDrawnTick) {
+            lastDrawnTick = snapshot.getTickCount();
+            drawStaticLayers(snapshot, !scrolled);
+        }
+
+        if (scrolled) {
+            redrawPellets(snapshot);
+        }
+        drawSprites(snapshot, alpha);
+    }
+
+    private void drawStaticLayers(RenderSnapshot snapshot, boolean drawPellets) {
+        boolean wallsChanged = false;
+        spriteCount = 0;
+        pelletCount = 0;
+
+        int entityCount = snapshot.getEntityCount();
+        if (spriteIndices.length < entityCount) {
+            spriteIndices = new int[entityCount];
+            pelletIndices = new int[entityCount];
+        }
+
+        for (int i = 0; i < entityCount; i++) {
+            if (snapshot.getEntityType(i) == RenderSnapshot.EntityType.DYNAMIC) {
+                spriteIndices[spriteCount++] = i;
+                continue;
+            } else if (snapshot.getEntityType(i) == RenderSnapshot.EntityType.COLLECTABLE) {
+                pelletIndices[pelletCount++] = i;
+            }
+
+            int entityId = snapshot.getEntityId(i);
+            ensureCapacity(entityId);
+            if (drawnVersions[entityId] == snapshot.getVersion(i)) {
+                continue;
+            }
+            drawnVersions[entityId] = snapshot.getVersion(i);
+
+            if (snapshot.getEntityType(i) == RenderSnapshot.EntityType.STATIC) {
+                wallsChanged = true;
+            } else if (drawPellets && isInView(snapshot, i)) {
+                drawPellet(snapshot, i);
+            }
+        }
+
+        if (wallsChanged) {
+            bakeWalls(snapshot);
+        }
+    }
+
+    private void ensureCapacity(int entityId) {
+        if (entityId >= drawnVersions.length) {
+            int oldCapacity = drawnVersions.length;
+            drawnVersions = Arrays.copyOf(drawnVersions, Math.max(entityId + 1, oldCapacity * 2));
+            Arrays.fill(drawnVersions, oldCapacity, drawnVersions.length, -1);
+        }
+    }
+
+    private void bakeWalls(RenderSnapshot snapshot) {
+        double width = 0;
+        double height = 0;
+        for (int i = 0; i < snapshot.getEntityCount(); i++) {
+            if (snapshot.getEntityType(i) == RenderSnapshot.EntityType.STATIC) {
+                width = Math.max(width, snapshot.getX(i) + snapshot.getWidth(i));
+                height = Math.max(height, snapshot.getY(i) + snapshot.getHeight(i));
+            }
+        }
+
+        Canvas canvas = new Canvas(width, height);
+        GraphicsContext graphics = canvas.getGraphicsContext2D();
+        for (int i = 0; i < snapshot.getEntityCount(); i++) {
+            if (snapshot.getEntityType(i) == RenderSnapshot.EntityType.STATIC && isVisible(snapshot, i)) {
+                drawEntity(graphics, snapshot, i, snapshot.getX(i), snapshot.getY(i));
+            }
+        }
+
+        // the walls are baked in maze coordinates, the camera scrolls the image instead of redrawing it
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+
+        WritableImage wallImage = (WritableImage) wallLayer.getImage();
+        if (wallImage == null || wallImage.getWidth() != Math.ceil(width) || wallImage.getHeight() != Math.ceil(height)) {
+            wallImage = null;
+        }
+        wallLayer.setImage(canvas.snapshot(parameters, wallImage));
+    }
+
+    private void redrawPellets(RenderSnapshot snapshot) {
+        pelletCameraX = camera.getX();
+        pelletCameraY = camera.getY();
+
+        GraphicsContext graphics = pelletLayer.getGraphicsContext2D();
+        graphics.clearRect(0, 0, pelletLayer.getWidth(), pelletLayer.getHeight());
+        for (int i = 0; i < pelletCount; i++) {
+            int index = pelletIndices[i];
+            if (isVisible(snapshot, index) && isInView(snapshot, index)) {
+                drawEntity(graphics, snapshot, index, snapshot.getX(index) - pelletCameraX,
+                        snapshot.getY(index) - pelletCameraY);
+            }
+        }
+    }
+
+    private void drawPellet(RenderSnapshot snapshot, int index) {
+        GraphicsContext graphics = pelletLayer.getGraphicsContext2D();
+        double x = snapshot.getX(index);
+        double y = snapshot.getY(index);
+        double width = snapshot.getWidth(index);
+        double height = snapshot.getHeight(index);
+
+        if (isVisible(snapshot, index)) {
+            drawEntity(graphics, snapshot, index, x - pelletCameraX, y - pelletCameraY);
+            return;
+        }
+
+        graphics.clearRect(x - pelletCameraX, y - pelletCameraY, width, height);
+
+        // restore neighbouring pellets whose images overlap the cleared area
+        for (int i = 0; i < pelletCount; i++) {
+            int neighbour = pelletIndices[i];
+            if (neighbour != index && isVisible(snapshot, neighbour) &&
+                    overlaps(snapshot, neighbour, x, y, width, height)) {
+                drawEntity(graphics, snapshot, neighbour, snapshot.getX(neighbour) - pelletCameraX,
+                        snapshot.getY(neighbour) - pelletCameraY);
+            }
+        }
+    }
+
+    private void drawSprites(RenderSnapshot snapshot, double alpha) {
+        GraphicsContext graphics = spriteLayer.getGraphicsContext2D();
+
+        for (int i = 0; i < drawnSpriteCount; i++) {
+            int area = i * 4;
+            graphics.clearRect(drawnSpriteAreas[area], drawnSpriteAreas[area + 1],
+                    drawnSpriteAreas[area + 2], drawnSpriteAreas[area + 3]);
+        }
+
+        if (drawnSpriteAreas.length < spriteCount * 4) {
+            drawnSpriteAreas = new double[spriteCount * 4];
+        }
+
+        drawnSpriteCount = 0;
+        for (int i = 0; i < spriteCount; i++) {
+            int index = spriteIndices[i];
+            if (!isVisible(snapshot, index) || !isInView(snapshot, index)) {
+                continue;
+            }
+
+            double x = snapshot.getInterpolatedX(index, alpha) - camera.getX();
+            double y = snapshot.getInterpolatedY(index, alpha) - camera.getY();
+            drawEntity(graphics, snapshot, index, x, y);
+
+            // pad by a pixel to also clear anti-aliased edges
+            int area = drawnSpriteCount * 4;
+            drawnSpriteAreas[area] = Math.floor(x) - 1;
+            drawnSpriteAreas[area + 1] = Math.floor(y) - 1;
+            drawnSpriteAreas[area + 2] = Math.ceil(snapshot.getWidth(index)) + 2;
+            drawnSpriteAreas[area + 3] = Math.ceil(snapshot.getHeight(index)) + 2;
+            drawnSpriteCount++;
+        }
+    }
+
+    private void drawEntity(GraphicsContext graphics, RenderSnapshot snapshot, int index, double x, double y) {
+        // fit the sprite into the entity bounds preserving its ratio, as the entity views do
+        Rectangle2D viewport = atlas.getViewport(snapshot.getSprite(index));
+        double scale = Math.min(snapshot.getWidth(index) / viewport.getWidth(),
+                snapshot.getHeight(index) / viewport.getHeight());
+        graphics.drawImage(atlas.getImage(), viewport.getMinX(), viewport.getMinY(), viewport.getWidth(),
+                viewport.getHeight(), x, y, viewport.getWidth() * scale, viewport.getHeight() * scale);
+    }
+
+    private static boolean isVisible(RenderSnapshot snapshot, int index) {
+        return snapshot.getLayer(index) != Renderable.Layer.INVISIBLE;
+    }
+
+    private boolean isInView(RenderSnapshot snapshot, int index) {
+        return camera.isInView(snapshot.getX(index), snapshot.getY(index), snapshot.getWidth(index),
+                snapshot.getHeight(index));
+    }
+
+    private static boolean overlaps(RenderSnapshot snapshot, int index, double x, double y, double width,
+                                    double height) {
+        return snapshot.getX(index) < x + width && x < snapshot.getX(index) + snapshot.getWidth(index) &&
+                snapshot.getY(index) < y + height && y < snapshot.getY(index) + snapshot.getHeight(index);
+    }
+}
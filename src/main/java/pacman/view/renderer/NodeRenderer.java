@@ -0,0 +1,139 @@
+package pacman.view.renderer;
+
+import javafx.scene.Group;
+import javafx.scene.layout.Pane;
+import pacman.model.engine.snapshot.RenderSnapshot;
+import pacman.model.entity.Renderable;
+import pacman.view.camera.Camera;
+import pacman.view.entity.EntityView;
+import pacman.view.entity.EntityViewImpl;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Renders every entity near the camera viewport as its own scene graph node.
+ * <p>
+ * Entities outside the viewport have no node; their views are detached and recycled for entities scrolling into view.
+ */
+public class NodeRenderer implements SnapshotRenderer {
+
+    private static final double WORLD_VIEW_ORDER = 100.0;
+
+    private final Group world;
+    private final Camera camera;
+    private final Deque<EntityView> viewPool;
+
+    // views, last drawn entity versions and last draw each entity appeared in, indexed by snapshot entity id
+    private EntityView[] entityViews;
+    private int[] drawnVersions;
+    private int[] lastDrawnIn;
+    private int drawCount;
+
+    private int[] movingIndices;
+    private int movingCount;
+    private long lastDrawnTick = -1;
+
+    public NodeRenderer(Pane pane, Camera camera) {
+        this.world = new Group();
+        this.world.setViewOrder(WORLD_VIEW_ORDER);
+        this.camera = camera;
+        this.viewPool = new ArrayDeque<>();
+        this.entityViews = new EntityView[0];
+        this.drawnVersions = new int[0];
+        this.lastDrawnIn = new int[0];
+        this.movingIndices = new int[0];
+
+        pane.getChildren().add(world);
+    }
+
+    @Override
+    public void render(RenderSnapshot snapshot, double alpha) {
+        world.setTranslateX(-camera.getX());
+        world.setTranslateY(-camera.getY());
+
+        if (snapshot.getTickCount() != lastDrawnTick) {
+            lastDrawnTick = snapshot.getTickCount();
+            draw(snapshot, alpha);
+            return;
+        }
+
+        // only moving entities change between ticks
+        for (int i = 0; i < movingCount; i++) {
+            int index = movingIndices[i];
+            entityViews[snapshot.getEntityId(index)].updatePosition(snapshot, index, alpha);
+        }
+    }
+
+    private void draw(RenderSnapshot snapshot, double alpha) {
+        movingCount = 0;
+        drawCount++;
+
+        int entityCount = snapshot.getEntityCount();
+        if (movingIndices.length < entityCount) {
+            movingIndices = new int[entityCount];
+        }
+
+        for (int i = 0; i < entityCount; i++) {
+            if (!isShown(snapshot, i)) {
+                continue;
+            }
+
+            int entityId = snapshot.getEntityId(i);
+            ensureViewCapacity(entityId);
+
+            EntityView entityView = entityViews[entityId];
+            if (entityView == null) {
+                entityViews[entityId] = acquireView(snapshot, i, alpha);
+                drawnVersions[entityId] = snapshot.getVersion(i);
+            } else if (drawnVersions[entityId] != snapshot.getVersion(i)) {
+                entityView.update(snapshot, i, alpha);
+                drawnVersions[entityId] = snapshot.getVersion(i);
+            }
+            lastDrawnIn[entityId] = drawCount;
+
+            if (snapshot.isMoving(i)) {
+                movingIndices[movingCount++] = i;
+            }
+        }
+
+        releaseStaleViews();
+    }
+
+    private boolean isShown(RenderSnapshot snapshot, int index) {
+        return snapshot.getLayer(index) != Renderable.Layer.INVISIBLE &&
+                camera.isInView(snapshot.getX(index), snapshot.getY(index), snapshot.getWidth(index),
+                        snapshot.getHeight(index));
+    }
+
+    private EntityView acquireView(RenderSnapshot snapshot, int index, double alpha) {
+        EntityView entityView = viewPool.poll();
+        if (entityView == null) {
+            entityView = new EntityViewImpl(snapshot, index, alpha);
+        } else {
+            entityView.bind(snapshot, index, alpha);
+        }
+        world.getChildren().add(entityView.getNode());
+        return entityView;
+    }
+
+    private void ensureViewCapacity(int entityId) {
+        if (entityId >= entityViews.length) {
+            int capacity = Math.max(entityId + 1, entityViews.length * 2);
+            entityViews = Arrays.copyOf(entityViews, capacity);
+            drawnVersions = Arrays.copyOf(drawnVersions, capacity);
+            lastDrawnIn = Arrays.copyOf(lastDrawnIn, capacity);
+        }
+    }
+
+    private void releaseStaleViews() {
+        for (int entityId = 0; entityId < entityViews.length; entityId++) {
+            if (entityViews[entityId] != null && lastDrawnIn[entityId] != drawCount) {
+                world.getChildren().remove(entityViews[entityId].getNode());
+                viewPool.push(entityViews[entityId]);
+                entityViews[entityId] = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package pacman.view.renderer;
+
+/**
+ * The available ways of rendering the game entities
+ */
+public enum RendererType {
+    /**
+     * One scene graph node per entity
+     */
+    NODE,
+    /**
+     * Cached wall image with pellets and moving entities drawn onto canvases
+     */
+    CANVAS;
+
+    /**
+     * Gets the renderer type with the given name, ignoring case
+     *
+     * @param name name of the renderer type, may be null
+     * @return the matching renderer type, or NODE if there is none
+     */
+    public static RendererType fromName(String name) {
+        for (RendererType rendererType : values()) {
+            if (rendererType.name().equalsIgnoreCase(name)) {
+                return rendererType;
+            }
+        }
+        return NODE;
+    }
+}
@@ -0,0 +1,18 @@
+package pacman.view.renderer;
+
+import pacman.model.engine.snapshot.RenderSnapshot;
+
+/**
+ * Draws snapshots of the game onto the screen
+ */
+public interface SnapshotRenderer {
+
+    /**
+     * Draws a frame of the game
+     *
+     * @param snapshot latest snapshot of the game
+     * @param alpha    fraction of a tick that has elapsed since the snapshot was due, between 0 and 1,
+     *                 used to interpolate moving entities between their previous and current positions
+     */
+    void render(RenderSnapshot snapshot, double alpha);
+}
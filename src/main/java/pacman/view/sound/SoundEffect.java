@@ -0,0 +1,47 @@
+package pacman.view.sound;
+
+import pacman.model.level.observer.LevelEvent;
+
+/**
+ * The sound effects of the game, along with the level event each one is played for
+ */
+public enum SoundEffect {
+    CHOMP(LevelEvent.PELLET_EATEN, "sounds/chomp.wav", 90, 150),
+    POWER_PELLET(LevelEvent.POWER_PELLET_EATEN, "sounds/power_pellet.wav", 350, 350),
+    GHOST_EATEN(LevelEvent.GHOST_EATEN, "sounds/ghost_eaten.wav", 400, 200),
+    DEATH(LevelEvent.PLAYER_DIED, "sounds/death.wav", 1300, 1300);
+
+    private final LevelEvent event;
+    private final String path;
+    private final long durationMillis;
+    private final long minIntervalMillis;
+
+    SoundEffect(LevelEvent event, String path, long durationMillis, long minIntervalMillis) {
+        this.event = event;
+        this.path = path;
+        this.durationMillis = durationMillis;
+        this.minIntervalMillis = minIntervalMillis;
+    }
+
+    public LevelEvent getEvent() {
+        return event;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return how long the effect occupies a voice for
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * @return shortest time between two plays of the effect, any events in between are not played
+     */
+    public long getMinIntervalMillis() {
+        return minIntervalMillis;
+    }
+}
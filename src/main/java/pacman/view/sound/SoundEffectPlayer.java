@@ -0,0 +1,141 @@
+package pacman.view.sound;
+
+import javafx.scene.media.AudioClip;
+import pacman.model.engine.snapshot.RenderSnapshot;
+
+import java.net.URL;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays the sound effects for the level events recorded in snapshots.
+ * <p>
+ * Every effect is decoded into an {@link AudioClip} up front, and playback happens on the JavaFX application thread,
+ * so the simulation thread never touches audio. Each effect is rate limited, and at most {@link #MAX_VOICES} effects
+ * play at once; effects beyond that are dropped and counted.
+ */
+public class SoundEffectPlayer {
+
+    private static final int MAX_VOICES = 4;
+
+    private final Map<SoundEffect, AudioClip> clips;
+    private final long[] seenEventCounts;
+    private final long[] lastPlayTimes;
+    private final long[] voiceEndTimes;
+
+    private long playedCount;
+    private long droppedVoices;
+    private long rateLimitedCount;
+    private long totalLatencyNanos;
+    private long maxLatencyNanos;
+
+    public SoundEffectPlayer() {
+        this.clips = new EnumMap<>(SoundEffect.class);
+        this.seenEventCounts = new long[SoundEffect.values().length];
+        this.lastPlayTimes = new long[SoundEffect.values().length];
+        this.voiceEndTimes = new long[MAX_VOICES];
+
+        try {
+            for (SoundEffect effect : SoundEffect.values()) {
+                URL resource = SoundEffectPlayer.class.getClassLoader().getResource(effect.getPath());
+                if (resource == null) {
+                    throw new IllegalStateException("missing " + effect.getPath());
+                }
+                clips.put(effect, new AudioClip(resource.toExternalForm()));
+            }
+        } catch (RuntimeException e) {
+            // sound is optional, the game is still playable on systems without audio support
+            System.out.println("Sound effects disabled: " + e.getMessage());
+            clips.clear();
+        }
+    }
+
+    /**
+     * Plays the effects for any events which happened since the last snapshot seen
+     *
+     * @param snapshot latest snapshot of the game
+     */
+    public void update(RenderSnapshot snapshot) {
+        for (SoundEffect effect : SoundEffect.values()) {
+            long eventCount = snapshot.getEventCount(effect.getEvent());
+            if (eventCount != seenEventCounts[effect.ordinal()]) {
+                seenEventCounts[effect.ordinal()] = eventCount;
+                play(effect, snapshot.getTickTime());
+            }
+        }
+    }
+
+    private void play(SoundEffect effect, long eventTime) {
+        AudioClip clip = clips.get(effect);
+        if (clip == null) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (lastPlayTimes[effect.ordinal()] != 0 &&
+                now - lastPlayTimes[effect.ordinal()] < TimeUnit.MILLISECONDS.toNanos(effect.getMinIntervalMillis())) {
+            rateLimitedCount++;
+            return;
+        }
+
+        int voice = findFreeVoice(now);
+        if (voice < 0) {
+            droppedVoices++;
+            return;
+        }
+
+        clip.play();
+        voiceEndTimes[voice] = now + TimeUnit.MILLISECONDS.toNanos(effect.getDurationMillis());
+        lastPlayTimes[effect.ordinal()] = now;
+
+        long latency = Math.max(0, now - eventTime);
+        totalLatencyNanos += latency;
+        maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+        playedCount++;
+    }
+
+    private int findFreeVoice(long now) {
+        for (int i = 0; i < voiceEndTimes.length; i++) {
+            if (voiceEndTimes[i] - now <= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return number of effects played
+     */
+    public long getPlayedCount() {
+        return playedCount;
+    }
+
+    /**
+     * @return number of effects not played because every voice was busy
+     */
+    public long getDroppedVoices() {
+        return droppedVoices;
+    }
+
+    /**
+     * @return number of events not played because the same effect had just been played
+     */
+    public long getRateLimitedCount() {
+        return rateLimitedCount;
+    }
+
+    /**
+     * @return average time from the tick of an event to its effect starting, in nanoseconds
+     */
+    public long getAverageLatencyNanos() {
+        return playedCount == 0 ? 0 : totalLatencyNanos / playedCount;
+    }
+
+    /**
+     * @return longest time from the tick of an event to its effect starting, in nanoseconds
+     */
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+}
@@ -0,0 +1,90 @@
+package pacman.view.sprite;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import pacman.ConfigurationParseException;
+import pacman.model.entity.Sprite;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Single texture holding every sprite of the game, so all entities can be drawn from one image.
+ * <p>
+ * The region of each sprite is read from a JSON file alongside the atlas image, keyed by {@link Sprite} name.
+ */
+public class SpriteAtlas {
+
+    private static final String ATLAS_IMAGE = "maze/atlas.png";
+    private static final String ATLAS_REGIONS = "maze/atlas.json";
+
+    private static SpriteAtlas instance;
+
+    private final Image image;
+    private final Map<Sprite, Rectangle2D> viewports;
+
+    private SpriteAtlas() {
+        this.image = new Image(ATLAS_IMAGE);
+        this.viewports = readViewports();
+    }
+
+    public static SpriteAtlas getInstance() {
+        if (instance == null) {
+            instance = new SpriteAtlas();
+        }
+        return instance;
+    }
+
+    private static Map<Sprite, Rectangle2D> readViewports() {
+        InputStream stream = SpriteAtlas.class.getClassLoader().getResourceAsStream(ATLAS_REGIONS);
+        if (stream == null) {
+            throw new ConfigurationParseException("Sprite atlas regions not found: " + ATLAS_REGIONS);
+        }
+
+        try (InputStreamReader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            JSONObject regions = (JSONObject) new JSONParser().parse(reader);
+            Map<Sprite, Rectangle2D> viewports = new EnumMap<>(Sprite.class);
+
+            for (Sprite sprite : Sprite.values()) {
+                JSONObject region = (JSONObject) regions.get(sprite.name());
+                if (region == null) {
+                    throw new ConfigurationParseException("Sprite missing from atlas: " + sprite);
+                }
+
+                viewports.put(sprite, new Rectangle2D(
+                        ((Number) region.get("x")).doubleValue(),
+                        ((Number) region.get("y")).doubleValue(),
+                        ((Number) region.get("width")).doubleValue(),
+                        ((Number) region.get("height")).doubleValue()
+                ));
+            }
+            return viewports;
+        } catch (IOException | ParseException | ClassCastException e) {
+            throw new ConfigurationParseException(String.format("Invalid sprite atlas | %s", e));
+        }
+    }
+
+    /**
+     * @return the atlas texture containing every sprite
+     */
+    public Image getImage() {
+        return image;
+    }
+
+    /**
+     * Gets the region of the atlas texture holding a sprite
+     *
+     * @param sprite sprite to look up
+     * @return region of the sprite within the atlas image
+     */
+    public Rectangle2D getViewport(Sprite sprite) {
+        return viewports.get(sprite);
+    }
+}
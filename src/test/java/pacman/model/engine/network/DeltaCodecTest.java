@@ -0,0 +1,270 @@
+package pacman.model.engine.network;
+
+import org.junit.jupiter.api.Test;
+import pacman.model.engine.GameEngine;
+import pacman.model.engine.GameEngineImpl;
+import pacman.model.engine.state.DeterminismChecker;
+import pacman.model.entity.dynamic.physics.Direction;
+import pacman.model.entity.dynamic.player.MovementInvoker;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Encodes states with {@link DeltaCodec} and decodes them again following the format it documents, as the web client
+ * does
+ */
+class DeltaCodecTest {
+
+    private static final String CONFIG_FILE = "src/main/resources/config.json";
+    private static final long SEED = 42;
+    private static final int MAX_POSITION = 0xFFFF;
+
+    private static final int FIELD_LEVEL = 1;
+    private static final int FIELD_GAME_STATE = 1 << 1;
+    private static final int FIELD_LIVES = 1 << 2;
+    private static final int FIELD_SCORE = 1 << 3;
+    private static final int FIELD_PELLETS = 1 << 4;
+    private static final int ENTITY_SPRITE = 1;
+    private static final int ENTITY_X = 1 << 1;
+    private static final int ENTITY_Y = 1 << 2;
+    private static final int ENTITY_X_CHANGE = 1 << 3;
+    private static final int ENTITY_Y_CHANGE = 1 << 4;
+
+    @Test
+    void fullStateWithExtremeValuesRoundTrips() {
+        NetworkState state = new NetworkState();
+        int[][] entities = {{0, 0, 0}, {1, MAX_POSITION, MAX_POSITION}, {255, 0, MAX_POSITION}, {3, 12345, 1}};
+        setState(state, 7, 255, 255, 255, Integer.MIN_VALUE, entities, 1000, pellet -> pellet % 3 != 1);
+
+        assertRoundTrip(state, null);
+
+        setState(state, Integer.MAX_VALUE, 0, 0, 0, Integer.MAX_VALUE, entities, 0, pellet -> true);
+        assertRoundTrip(state, null);
+    }
+
+    @Test
+    void extremeChangesRoundTrip() {
+        NetworkState baseline = new NetworkState();
+        setState(baseline, 100, 1, 2, 3, Integer.MAX_VALUE,
+                new int[][]{{1, 0, MAX_POSITION}, {2, 1000, 1000}, {3, 1000, 1000}, {4, 1000, 1000}, {5, 500, 500}},
+                1000, pellet -> pellet % 2 == 0);
+
+        // jumps across the whole range, the largest and smallest changes that fit a byte and the first that do not,
+        // and an entity the baseline does not have
+        NetworkState state = new NetworkState();
+        setState(state, 101, 1, 2, 4, Integer.MIN_VALUE,
+                new int[][]{{1, MAX_POSITION, 0}, {7, 1127, 872}, {3, 1128, 871}, {4, 1000, 1001}, {5, 500, 500},
+                        {6, MAX_POSITION, 0}},
+                1000, pellet -> pellet % 2 == 1);
+
+        ByteBuffer encoded = assertRoundTrip(state, baseline);
+        assertEquals(FIELD_LIVES | FIELD_SCORE | FIELD_PELLETS, encoded.get(8));
+        int[] entityMasks = readEntityMasks(encoded);
+        assertEquals(ENTITY_X | ENTITY_Y, entityMasks[0]);
+        assertEquals(ENTITY_SPRITE | ENTITY_X_CHANGE | ENTITY_Y_CHANGE, entityMasks[1]);
+        assertEquals(ENTITY_X | ENTITY_Y, entityMasks[2]);
+        assertEquals(ENTITY_Y_CHANGE, entityMasks[3]);
+        assertEquals(0, entityMasks[4]);
+        assertEquals(ENTITY_SPRITE | ENTITY_X | ENTITY_Y, entityMasks[5]);
+    }
+
+    @Test
+    void unchangedStateOnlySendsItsHeader() {
+        NetworkState baseline = new NetworkState();
+        int[][] entities = {{1, 10, 20}, {2, 30, 40}, {3, 50, 60}};
+        setState(baseline, 100, 1, 2, 3, 4, entities, 1000, pellet -> pellet < 900);
+        NetworkState state = new NetworkState();
+        setState(state, 10000, 1, 2, 3, 4, entities, 1000, pellet -> pellet < 900);
+
+        ByteBuffer encoded = assertRoundTrip(state, baseline);
+
+        // ticks, field mask and the number of entities, then an empty mask for every entity
+        assertEquals(2 * Integer.BYTES + 1 + 1 + entities.length, encoded.limit());
+    }
+
+    @Test
+    void changedPelletCountIsSentInFull() {
+        NetworkState baseline = new NetworkState();
+        setState(baseline, 100, 1, 2, 3, 4, new int[0][], 1000, pellet -> true);
+        NetworkState state = new NetworkState();
+        setState(state, 101, 2, 2, 3, 4, new int[0][], 999, pellet -> pellet >= 64 && pellet < 900);
+
+        assertRoundTrip(state, baseline);
+    }
+
+    @Test
+    void gameStatesRoundTripAgainstEveryBaselineDistance() {
+        GameEngine model = new GameEngineImpl(CONFIG_FILE, SEED);
+        MovementInvoker movementInvoker = model.getMovementInvoker();
+        IntFunction<Direction> moves = DeterminismChecker.randomMoves(SEED);
+        int[] distances = {1, 2, 30, 600};
+        NetworkState[] history = new NetworkState[601];
+        model.startGame();
+
+        for (int tick = 0; tick < 3000 && !model.isIdle(); tick++) {
+            Direction move = moves.apply(tick);
+            if (move != null) {
+                movementInvoker.addCommand(movementInvoker.getCommand(move));
+            }
+            model.tick();
+
+            NetworkState state = new NetworkState();
+            state.capture(model, tick);
+            history[tick % history.length] = state;
+            assertRoundTrip(state, null);
+            for (int distance : distances) {
+                if (tick >= distance) {
+                    assertRoundTrip(state, history[(tick - distance) % history.length]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Encodes the state into a buffer of exactly its maximum size, decodes it against the baseline and checks that
+     * every field comes back
+     *
+     * @return the encoded state
+     */
+    private static ByteBuffer assertRoundTrip(NetworkState state, NetworkState baseline) {
+        ByteBuffer encoded = ByteBuffer.allocate(DeltaCodec.getMaxEncodedSize(state.getEntityCount(),
+                state.getPelletCount()));
+        DeltaCodec.encode(state, baseline, encoded);
+        encoded.flip();
+
+        NetworkState decoded = decode(encoded.duplicate(), baseline);
+
+        assertEquals(state.getTick(), decoded.getTick());
+        assertEquals(state.getLevelNo(), decoded.getLevelNo());
+        assertEquals(state.getGameState(), decoded.getGameState());
+        assertEquals(state.getLives(), decoded.getLives());
+        assertEquals(state.getScore(), decoded.getScore());
+        assertEquals(state.getEntityCount(), decoded.getEntityCount());
+        for (int i = 0; i < state.getEntityCount(); i++) {
+            assertEquals(state.getSprite(i), decoded.getSprite(i), "sprite of entity " + i);
+            assertEquals(state.getX(i), decoded.getX(i), "x of entity " + i);
+            assertEquals(state.getY(i), decoded.getY(i), "y of entity " + i);
+        }
+        assertEquals(state.getPelletCount(), decoded.getPelletCount());
+        for (int word = 0; word < state.getPelletWords(); word++) {
+            assertEquals(state.getPelletWord(word), decoded.getPelletWord(word), "pellets of word " + word);
+        }
+        return encoded;
+    }
+
+    /**
+     * Decodes a state as documented by {@link DeltaCodec}, leaving the position of the buffer at its end
+     */
+    private static NetworkState decode(ByteBuffer in, NetworkState baseline) {
+        NetworkState state = new NetworkState();
+        int tick = in.getInt();
+        assertEquals(baseline == null ? DeltaCodec.NO_BASELINE : baseline.getTick(), in.getInt());
+        int mask = in.get() & 0xFF;
+        assertTrue(baseline != null || mask == (FIELD_LEVEL | FIELD_GAME_STATE | FIELD_LIVES | FIELD_SCORE |
+                FIELD_PELLETS), "a full state has every field");
+        int levelNo = (mask & FIELD_LEVEL) != 0 ? in.get() & 0xFF : baseline.getLevelNo();
+        int gameState = (mask & FIELD_GAME_STATE) != 0 ? in.get() & 0xFF : baseline.getGameState();
+        int lives = (mask & FIELD_LIVES) != 0 ? in.get() & 0xFF : baseline.getLives();
+        int score = (mask & FIELD_SCORE) != 0 ? in.getInt() : baseline.getScore();
+
+        int entityCount = in.get() & 0xFF;
+        for (int i = 0; i < entityCount; i++) {
+            boolean known = baseline != null && i < baseline.getEntityCount();
+            int entityMask = in.get() & 0xFF;
+            assertTrue(known || (entityMask & (ENTITY_SPRITE | ENTITY_X | ENTITY_Y)) ==
+                    (ENTITY_SPRITE | ENTITY_X | ENTITY_Y), "a new entity is sent in full");
+            int sprite = (entityMask & ENTITY_SPRITE) != 0 ? in.get() & 0xFF : baseline.getSprite(i);
+            int x = decodePosition(in, entityMask, ENTITY_X, ENTITY_X_CHANGE, known ? baseline.getX(i) : -1);
+            int y = decodePosition(in, entityMask, ENTITY_Y, ENTITY_Y_CHANGE, known ? baseline.getY(i) : -1);
+            state.setEntity(i, sprite, x, y);
+        }
+
+        boolean pelletsChanged = (mask & FIELD_PELLETS) != 0;
+        int pelletCount = pelletsChanged ? in.getShort() & 0xFFFF : baseline.getPelletCount();
+        boolean[] pellets = new boolean[pelletCount];
+        if (baseline != null && baseline.getPelletCount() == pelletCount) {
+            for (int pellet = 0; pellet < pelletCount; pellet++) {
+                pellets[pellet] = ((baseline.getPelletWord(pellet >> 6) >>> pellet) & 1) != 0;
+            }
+        }
+        if (pelletsChanged) {
+            int runs = in.getShort() & 0xFFFF;
+            int pellet = 0;
+            for (int run = 0; run < runs; run++) {
+                pellet += getVarInt(in);
+                int end = pellet + getVarInt(in);
+                assertTrue(end <= pelletCount, "runs stay within the pellets");
+                for (; pellet < end; pellet++) {
+                    pellets[pellet] = !pellets[pellet];
+                }
+            }
+        }
+        for (int pellet = 0; pellet < pelletCount; pellet++) {
+            state.setPellet(pellet, pellets[pellet]);
+        }
+        assertFalse(in.hasRemaining(), "nothing follows the state");
+
+        state.setCounters(tick, levelNo, gameState, lives, score, entityCount, pelletCount);
+        return state;
+    }
+
+    private static int decodePosition(ByteBuffer in, int entityMask, int absolute, int change, int basePosition) {
+        if ((entityMask & absolute) != 0) {
+            return in.getShort() & 0xFFFF;
+        }
+        if ((entityMask & change) != 0) {
+            assertTrue(basePosition >= 0, "only a known entity is sent as a change");
+            return basePosition + in.get();
+        }
+        return basePosition;
+    }
+
+    private static int getVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Fills in a state, with every entity as its sprite, x and y, and pellets present where the predicate holds
+     */
+    private static void setState(NetworkState state, int tick, int levelNo, int gameState, int lives, int score,
+                                 int[][] entities, int pelletCount, IntPredicate pelletPresent) {
+        for (int i = 0; i < entities.length; i++) {
+            state.setEntity(i, entities[i][0], entities[i][1], entities[i][2]);
+        }
+        for (int pellet = 0; pellet < pelletCount; pellet++) {
+            state.setPellet(pellet, pelletPresent.test(pellet));
+        }
+        state.setCounters(tick, levelNo, gameState, lives, score, entities.length, pelletCount);
+    }
+
+    /**
+     * Skips the header of an encoded state and reads the mask of every entity, skipping the rest of each entity
+     */
+    private static int[] readEntityMasks(ByteBuffer encoded) {
+        ByteBuffer in = encoded.duplicate();
+        in.position(2 * Integer.BYTES);
+        int mask = in.get();
+        in.position(in.position() + Integer.bitCount(mask & (FIELD_LEVEL | FIELD_GAME_STATE | FIELD_LIVES)) +
+                ((mask & FIELD_SCORE) != 0 ? Integer.BYTES : 0));
+        int[] masks = new int[in.get() & 0xFF];
+        for (int i = 0; i < masks.length; i++) {
+            masks[i] = in.get() & 0xFF;
+            in.position(in.position() + Integer.bitCount(masks[i] & (ENTITY_SPRITE | ENTITY_X_CHANGE |
+                    ENTITY_Y_CHANGE)) + Integer.bitCount(masks[i] & (ENTITY_X | ENTITY_Y)) * Short.BYTES);
+        }
+        return masks;
+    }
+}
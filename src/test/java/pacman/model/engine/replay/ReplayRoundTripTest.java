@@ -0,0 +1,138 @@
+package pacman.model.engine.replay;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pacman.model.engine.GameEngine;
+import pacman.model.engine.GameEngineImpl;
+import pacman.model.entity.dynamic.physics.Direction;
+import pacman.model.entity.dynamic.player.MovementInvoker;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Records games the way the simulation does and checks that replaying them reaches the same states
+ */
+class ReplayRoundTripTest {
+
+    private static final String CONFIG_FILE = "src/main/resources/config.json";
+    private static final long SEED = 42;
+    private static final int TICKS = 2000;
+    private static final int KEYFRAME_INTERVAL = 150;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * State hash of the recorded game after every tick, indexed by the number of ticks played
+     */
+    private final long[] hashes = new long[TICKS + 1];
+    private long recordedTicks;
+
+    @Test
+    void playReachesTheRecordedState() throws IOException {
+        Replay replay = Replay.open(record(directory.resolve("game.replay")));
+        GameEngine model = new GameEngineImpl(CONFIG_FILE, SEED);
+
+        long ticks = replay.play(model);
+
+        assertEquals(recordedTicks, ticks);
+        assertEquals(ticks, replay.getEndTick());
+        assertEquals(hashes[(int) ticks], model.getStateHash());
+    }
+
+    @Test
+    void seekReachesTheRecordedStates() throws IOException {
+        Replay replay = Replay.open(record(directory.resolve("game.replay")));
+        assertTrue(replay.getKeyframeCount() > 1);
+
+        // keyframe ticks, the ticks either side of them, the start and the end
+        long end = replay.getEndTick();
+        for (long tick : new long[]{0, 1, KEYFRAME_INTERVAL - 1, KEYFRAME_INTERVAL, KEYFRAME_INTERVAL + 1,
+                end / 2, end - 1, end}) {
+            assertEquals(hashes[(int) tick], hashAfterSeeking(replay, tick), "state hash after seeking to " + tick);
+        }
+    }
+
+    @Test
+    void truncatedReplayKeepsItsCompleteRecords() throws IOException {
+        Path path = record(directory.resolve("game.replay"));
+        long size = Files.size(path);
+
+        // cut off the footer, the end record and then into the records and keyframes
+        for (long cut : new long[]{size - 1, size - 30, size / 2, size / 3 + 1, size / 5}) {
+            Path truncated = directory.resolve("truncated.replay");
+            Files.copy(path, truncated, StandardCopyOption.REPLACE_EXISTING);
+            try (FileChannel channel = FileChannel.open(truncated, StandardOpenOption.WRITE)) {
+                channel.truncate(cut);
+            }
+
+            Replay replay = Replay.open(truncated);
+            long end = replay.getEndTick();
+            assertTrue(end > 0 && end <= recordedTicks, "replay cut to " + cut + " bytes ends at tick " + end);
+            assertEquals(hashes[(int) end], hashAfterSeeking(replay, end), "state hash at the end of a replay cut " +
+                    "to " + cut + " bytes");
+
+            GameEngine model = new GameEngineImpl(CONFIG_FILE, SEED);
+            model.startGame();
+            assertEquals(end, replay.seek(model, Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void truncatedHeaderIsRejected() throws IOException {
+        Path path = record(directory.resolve("game.replay"));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(10);
+        }
+
+        assertThrows(IOException.class, () -> Replay.open(path));
+    }
+
+    /**
+     * Plays a game with bursts of moves, several moves in the same tick and long stretches without any, recording it
+     * as the simulation thread does
+     */
+    private Path record(Path path) throws IOException {
+        GameEngine model = new GameEngineImpl(CONFIG_FILE, SEED);
+        MovementInvoker movementInvoker = model.getMovementInvoker();
+        ReplayWriter writer = new ReplayWriter(path, model, KEYFRAME_INTERVAL);
+        Random random = new Random(SEED);
+
+        model.startGame();
+        writer.recordTick(0);
+        hashes[0] = model.getStateHash();
+        long tick = 0;
+        while (tick < TICKS && !model.isIdle()) {
+            int moves = tick % 700 < 300 ? random.nextInt(3) : 0;
+            for (int i = 0; i < moves; i++) {
+                Direction direction = Direction.values()[random.nextInt(Direction.values().length)];
+                movementInvoker.addCommand(movementInvoker.getCommand(direction));
+                writer.recordMove(tick, direction);
+            }
+            model.tick();
+            tick++;
+            writer.recordTick(tick);
+            hashes[(int) tick] = model.getStateHash();
+        }
+        writer.finish(tick);
+        recordedTicks = tick;
+        return path;
+    }
+
+    private static long hashAfterSeeking(Replay replay, long tick) {
+        GameEngine model = new GameEngineImpl(CONFIG_FILE, SEED);
+        model.startGame();
+        replay.seek(model, tick);
+        return model.getStateHash();
+    }
+}
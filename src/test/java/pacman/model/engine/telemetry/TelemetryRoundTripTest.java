@@ -0,0 +1,135 @@
+package pacman.model.engine.telemetry;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Writes columns the way {@link TelemetryRecorder} does and checks that {@link TelemetryReader} reads back the same
+ * values
+ */
+class TelemetryRoundTripTest {
+
+    private static final long SEED = 42;
+    private static final List<String> COLUMNS = List.of("extremes", "unchanged", "random");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void extremeDifferencesRoundTrip() throws IOException {
+        int[] extremes = {0, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, Integer.MIN_VALUE, -1,
+                1 << 30, -(1 << 30), 1, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, -1, 0};
+        int[][] columns = {extremes, new int[extremes.length], new int[extremes.length]};
+        Arrays.fill(columns[1], Integer.MIN_VALUE);
+        for (int row = 0; row < extremes.length; row++) {
+            columns[2][row] = -extremes[row];
+        }
+
+        TelemetryReader reader = TelemetryReader.open(write(columns, Long.MAX_VALUE));
+
+        assertEquals(extremes.length, reader.getRowCount());
+        for (int column = 0; column < columns.length; column++) {
+            assertArrayEquals(columns[column], reader.readColumn(COLUMNS.get(column)));
+        }
+    }
+
+    @Test
+    void longUnchangedRunsRoundTrip() throws IOException {
+        // spans several chunks, with runs cut by the end of a chunk and runs ending the file
+        int rows = TelemetryRecorder.CHUNK_ROWS * 3 + 100;
+        int[][] columns = new int[COLUMNS.size()][rows];
+        Arrays.fill(columns[0], 7);
+        Arrays.fill(columns[1], 0, rows / 2, Integer.MAX_VALUE);
+        Arrays.fill(columns[1], rows / 2, rows, Integer.MIN_VALUE);
+        for (int row = 0; row < rows; row++) {
+            columns[2][row] = row / 500;
+        }
+
+        TelemetryReader reader = TelemetryReader.open(write(columns, Long.MAX_VALUE));
+
+        assertEquals(rows, reader.getRowCount());
+        for (int column = 0; column < columns.length; column++) {
+            assertArrayEquals(columns[column], reader.readColumn(COLUMNS.get(column)));
+        }
+    }
+
+    @Test
+    void truncatedTrailingChunkIsDropped() throws IOException {
+        int rows = TelemetryRecorder.CHUNK_ROWS * 2;
+        int[][] columns = randomColumns(rows);
+        long fullSize = Files.size(write(columns, Long.MAX_VALUE));
+        int[][] firstChunk = Arrays.stream(columns).map(values -> Arrays.copyOf(values, rows / 2))
+                .toArray(int[][]::new);
+        long firstChunkEnd = Files.size(write(firstChunk, Long.MAX_VALUE));
+
+        // cut inside the row count, the column lengths and the values of the last chunk
+        for (long size : new long[]{firstChunkEnd + 2, firstChunkEnd + 9, (firstChunkEnd + fullSize) / 2,
+                fullSize - 1}) {
+            TelemetryReader reader = TelemetryReader.open(write(columns, size));
+
+            assertEquals(rows / 2, reader.getRowCount(), "rows left after cutting the file to " + size + " bytes");
+            for (int column = 0; column < columns.length; column++) {
+                assertArrayEquals(firstChunk[column], reader.readColumn(COLUMNS.get(column)));
+            }
+        }
+    }
+
+    @Test
+    void truncatedHeaderIsRejected() throws IOException {
+        Path path = write(randomColumns(10), 20);
+
+        assertThrows(IOException.class, () -> TelemetryReader.open(path));
+    }
+
+    private static int[][] randomColumns(int rows) {
+        Random random = new Random(SEED);
+        int[][] columns = new int[COLUMNS.size()][rows];
+        for (int[] values : columns) {
+            for (int row = 0; row < rows; row++) {
+                values[row] = random.nextInt();
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Writes the columns as a telemetry file in full chunks, as the recorder does, cut to the given size
+     */
+    private Path write(int[][] columns, long maxSize) throws IOException {
+        Path path = directory.resolve("telemetry-" + System.nanoTime() + ".bin");
+        ByteBuffer buffer = ByteBuffer.allocate(TelemetryRecorder.getMaxChunkSize(columns.length));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            TelemetryRecorder.putHeader(buffer, SEED, COLUMNS);
+            channel.write(buffer.flip());
+
+            int rows = columns[0].length;
+            for (int start = 0; start < rows; start += TelemetryRecorder.CHUNK_ROWS) {
+                int end = Math.min(rows, start + TelemetryRecorder.CHUNK_ROWS);
+                int[][] chunk = new int[columns.length][];
+                for (int column = 0; column < columns.length; column++) {
+                    chunk[column] = Arrays.copyOfRange(columns[column], start, end);
+                }
+                TelemetryRecorder.encode(chunk, end - start, buffer);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            channel.truncate(maxSize);
+        }
+        return path;
+    }
+}